@@ -0,0 +1,144 @@
+package com.elorrieta.elores.bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import com.elorrieta.elores.model.Alumno;
+import com.elorrieta.elores.network.LatencyHistogram;
+import com.elorrieta.elores.network.SocketClient;
+import com.elorrieta.elores.protocol.CommandType;
+import com.elorrieta.elores.protocol.Request;
+import com.elorrieta.elores.protocol.Response;
+import com.elorrieta.elores.server.SchoolData;
+import com.google.gson.JsonObject;
+
+/**
+ * Utilidades comunes de los microbenchmarks: datos, sesión, medida e impresión
+ */
+final class BenchSupport {
+    static final String EMAIL = "ane@elorrieta.eus";
+    static final String PASSWORD = "1234";
+
+    private BenchSupport() {
+    }
+
+    /**
+     * Resultado de una prueba: latencia de cada llamada y tiempo total
+     */
+    static class Resultado {
+        final LatencyHistogram latencias = new LatencyHistogram();
+        long llamadas;
+        long nanos;
+    }
+
+    /**
+     * Datos de ejemplo con alumnos extra en el profesor 1 para que GET_ALUMNOS sea grande
+     */
+    static SchoolData datos(int alumnosExtra) {
+        SchoolData datos = SchoolData.ejemplo();
+        for (int i = 0; i < alumnosExtra; i++) {
+            Alumno alumno = new Alumno();
+            alumno.setId(10000 + i);
+            alumno.setNombre("Alumno" + i);
+            alumno.setApellidos("Apellido" + i + " Bigarren");
+            alumno.setEmail("alumno" + i + "@elorrieta.eus");
+            alumno.setCiclo(i % 2 == 0 ? "DAM" : "DAW");
+            alumno.setCurso(i % 3 == 0 ? "1" : "2");
+            alumno.setDireccion("Calle Ejemplo " + i + ", Bilbao");
+            datos.addAlumno(alumno, 1);
+        }
+        return datos;
+    }
+
+    /**
+     * Abre la conexión (si hace falta) e inicia sesión con el profesor de ejemplo
+     */
+    static void conectar(SocketClient client) throws IOException {
+        client.setSessionToken(null);
+        client.ensureConnected();
+
+        JsonObject payload = new JsonObject();
+        payload.addProperty("email", EMAIL);
+        payload.addProperty("password", PASSWORD);
+        Response login = client.sendRequest(new Request(CommandType.LOGIN, payload));
+        if (!login.isSuccess()) {
+            throw new IOException("LOGIN fallido: " + login.getMessage());
+        }
+        client.setSessionToken(login.getSessionToken());
+    }
+
+    /**
+     * Envía n peticiones del comando una tras otra
+     */
+    static Resultado secuencial(SocketClient client, CommandType accion, int n) throws IOException {
+        Resultado resultado = new Resultado();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            long t = System.nanoTime();
+            Response response = client.sendRequest(new Request(accion));
+            resultado.latencias.registrar(System.nanoTime() - t);
+            if (!response.isSuccess()) {
+                throw new IOException(accion + " fallido: " + response.getMessage());
+            }
+        }
+        resultado.llamadas = n;
+        resultado.nanos = System.nanoTime() - inicio;
+        return resultado;
+    }
+
+    /**
+     * Envía n peticiones repartidas entre varios hilos sobre la misma conexión
+     * @param peticion Crea cada petición (se llama desde los hilos que envían)
+     */
+    static Resultado concurrente(SocketClient client, int hilos, int n, Supplier<Request> peticion) throws Exception {
+        Resultado resultado = new Resultado();
+        int porHilo = n / hilos;
+        List<Thread> lanzados = new ArrayList<>();
+        List<Exception> errores = new ArrayList<>();
+        long inicio = System.nanoTime();
+        for (int h = 0; h < hilos; h++) {
+            Thread hilo = new Thread(() -> {
+                try {
+                    for (int i = 0; i < porHilo; i++) {
+                        Request request = peticion.get();
+                        long t = System.nanoTime();
+                        Response response = client.sendRequest(request);
+                        resultado.latencias.registrar(System.nanoTime() - t);
+                        if (!response.isSuccess()) {
+                            throw new IOException(request.getAction() + " fallido: " + response.getMessage());
+                        }
+                    }
+                } catch (IOException e) {
+                    synchronized (errores) {
+                        errores.add(e);
+                    }
+                }
+            }, "bench-" + h);
+            lanzados.add(hilo);
+            hilo.start();
+        }
+        for (Thread hilo : lanzados) {
+            hilo.join();
+        }
+        if (!errores.isEmpty()) {
+            throw errores.get(0);
+        }
+        resultado.llamadas = (long) porHilo * hilos;
+        resultado.nanos = System.nanoTime() - inicio;
+        return resultado;
+    }
+
+    static void cabecera(String primera) {
+        System.out.println(String.format(Locale.ROOT, "%-28s %-16s %10s %9s %9s",
+            primera, "prueba", "llamadas/s", "p50 ms", "p99 ms"));
+    }
+
+    static void imprimir(String caso, String prueba, Resultado r) {
+        System.out.println(String.format(Locale.ROOT, "%-28s %-16s %10.0f %9.3f %9.3f",
+            caso, prueba, r.llamadas * 1e9 / r.nanos,
+            r.latencias.getPercentilMillis(50), r.latencias.getPercentilMillis(99)));
+    }
+}
@@ -0,0 +1,345 @@
+package com.elorrieta.elores.bench;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.elorrieta.elores.model.Alumno;
+import com.elorrieta.elores.model.Reunion;
+import com.elorrieta.elores.model.Usuario;
+import com.elorrieta.elores.network.LatencyHistogram;
+import com.elorrieta.elores.network.SocketClient;
+import com.elorrieta.elores.protocol.CommandType;
+import com.elorrieta.elores.server.SchoolData;
+import com.elorrieta.elores.server.StandInServer;
+import com.elorrieta.elores.service.AlumnoService;
+import com.elorrieta.elores.service.AuthService;
+import com.elorrieta.elores.service.HorarioService;
+import com.elorrieta.elores.service.ReunionService;
+
+/**
+ * Generador de carga sin interfaz: N profesores simulados usando la capa de servicios
+ *
+ * Cada sesión tiene su propio SocketClient y sus propios servicios, y sigue el flujo
+ * de un profesor: LOGIN, horario, reuniones y después, hasta el final de la prueba,
+ * refrescar reuniones, crear o aceptar reuniones y consultar alumnos, con un tiempo
+ * de reflexión aleatorio (exponencial) entre acciones. Las sesiones arrancan
+ * repartidas a lo largo de la rampa, como los profesores que entran todos en los
+ * mismos diez minutos en semana de exámenes. Al final se imprimen peticiones por
+ * segundo y percentiles de latencia de cada comando.
+ *
+ * Sin host se arranca un StandInServer en el mismo proceso con datos sintéticos;
+ * para dimensionar ElorServ hay que apuntar host y puerto al servidor real, cuyos
+ * usuarios deben seguir el patrón de SchoolData.emailProfesor.
+ *
+ * Uso: java ... LoadGenerator [opcion=valor ...]
+ * - sesiones=50 rampa=10 (s) duracion=60 (s, después de la rampa) pensar=2000 (ms de media)
+ * - crear=0.15 aceptar=0.15 alumnos=0.2: probabilidad de cada acción (el resto refresca reuniones)
+ * - host= puerto=9000 password=1234 latido=0 (ms, 0 sin PING)
+ *   Con latido cada sesión arranca con preconnect, como la aplicación, y al final
+ *   se comprueba que los PING han llegado a medir el RTT
+ * - profesores=sesiones alumnos=profesores*25 reuniones=10 semilla=42: datos del servidor local
+ */
+public class LoadGenerator {
+    private static final int INFORME_SEGUNDOS = 10;
+
+    private final Map<String, String> opciones;
+    private final Map<CommandType, LatencyHistogram> latencias = new EnumMap<>(CommandType.class);
+    private final Map<CommandType, LongAdder> errores = new EnumMap<>(CommandType.class);
+    private final Map<CommandType, String> primerError = new ConcurrentHashMap<>();
+    private final AtomicInteger activas = new AtomicInteger();
+    private final LongAdder totalPeticiones = new LongAdder();
+    private final LongAdder totalErrores = new LongAdder();
+    private final LongAdder muestrasRtt = new LongAdder();
+    private final AtomicInteger sesionesSinRtt = new AtomicInteger();
+
+    private final int sesiones;
+    private final long rampaMillis;
+    private final long duracionMillis;
+    private final double pensarMillis;
+    private final double probCrear;
+    private final double probAceptar;
+    private final double probAlumnos;
+    private final long semilla;
+    private volatile long fin;
+
+    private LoadGenerator(Map<String, String> opciones) {
+        this.opciones = opciones;
+        this.sesiones = entero("sesiones", 50);
+        this.rampaMillis = entero("rampa", 10) * 1000L;
+        this.duracionMillis = entero("duracion", 60) * 1000L;
+        this.pensarMillis = Double.parseDouble(opciones.getOrDefault("pensar", "2000"));
+        this.probCrear = Double.parseDouble(opciones.getOrDefault("crear", "0.15"));
+        this.probAceptar = Double.parseDouble(opciones.getOrDefault("aceptar", "0.15"));
+        this.probAlumnos = Double.parseDouble(opciones.getOrDefault("alumnos", "0.2"));
+        this.semilla = Long.parseLong(opciones.getOrDefault("semilla", "42"));
+        for (CommandType accion : CommandType.values()) {
+            latencias.put(accion, new LatencyHistogram());
+            errores.put(accion, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual <= 0) {
+                System.err.println("Opción no válida: " + arg + " (se esperaba opcion=valor)");
+                return;
+            }
+            opciones.put(arg.substring(0, igual), arg.substring(igual + 1));
+        }
+        new LoadGenerator(opciones).ejecutar();
+    }
+
+    private void ejecutar() throws Exception {
+        String host = opciones.get("host");
+        int puerto = entero("puerto", 9000);
+        StandInServer servidor = null;
+        if (host == null) {
+            int profesores = entero("profesores", sesiones);
+            System.out.println("Generando datos: " + profesores + " profesores");
+            servidor = new StandInServer(SchoolData.generar(semilla, profesores,
+                entero("alumnos", profesores * 25), entero("reuniones", 10)));
+            host = "localhost";
+            puerto = servidor.start(0);
+        }
+
+        System.out.println(String.format(Locale.ROOT,
+            "%d sesiones contra %s:%d, rampa %d s, duración %d s, reflexión media %.0f ms",
+            sesiones, host, puerto, rampaMillis / 1000, duracionMillis / 1000, pensarMillis));
+
+        long inicio = System.currentTimeMillis();
+        fin = inicio + rampaMillis + duracionMillis;
+        int profesores = entero("profesores", sesiones);
+        List<Thread> hilos = new ArrayList<>();
+        for (int i = 0; i < sesiones; i++) {
+            Sesion sesion = new Sesion(i, host, puerto, 1 + i % profesores,
+                inicio + (sesiones > 1 ? rampaMillis * i / (sesiones - 1) : 0));
+            Thread hilo = new Thread(sesion, "Load-session-" + i);
+            hilo.setDaemon(true);
+            hilo.start();
+            hilos.add(hilo);
+        }
+
+        long anterior = 0;
+        while (System.currentTimeMillis() < fin) {
+            long intervalo = Math.min(INFORME_SEGUNDOS * 1000L, fin - System.currentTimeMillis());
+            TimeUnit.MILLISECONDS.sleep(Math.max(1, intervalo));
+            long peticiones = totalPeticiones.sum();
+            System.out.println(String.format(Locale.ROOT, "t=%4ds  sesiones %5d  peticiones/s %8.1f  errores %d",
+                (System.currentTimeMillis() - inicio) / 1000, activas.get(),
+                (peticiones - anterior) * 1000.0 / Math.max(1, intervalo), totalErrores.sum()));
+            anterior = peticiones;
+        }
+        for (Thread hilo : hilos) {
+            hilo.join(30000);
+        }
+        long total = System.currentTimeMillis() - inicio;
+        if (servidor != null) {
+            servidor.stop();
+        }
+        imprimir(total);
+    }
+
+    private void imprimir(long totalMillis) {
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "%-16s %8s %7s %10s %9s %9s %9s %9s",
+            "comando", "n", "errores", "llamadas/s", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (CommandType accion : CommandType.values()) {
+            LatencyHistogram h = latencias.get(accion);
+            long fallos = errores.get(accion).sum();
+            if (h.getMuestras() == 0 && fallos == 0) {
+                continue;
+            }
+            System.out.println(String.format(Locale.ROOT, "%-16s %8d %7d %10.1f %9.2f %9.2f %9.2f %9.2f",
+                accion, h.getMuestras(), fallos, h.getMuestras() * 1000.0 / totalMillis,
+                h.getPercentilMillis(50), h.getPercentilMillis(90), h.getPercentilMillis(99), h.getMaximoMillis()));
+        }
+        System.out.println(String.format(Locale.ROOT, "%d llamadas en %.1f s (%.1f llamadas/s), %d errores",
+            totalPeticiones.sum(), totalMillis / 1000.0, totalPeticiones.sum() * 1000.0 / totalMillis, totalErrores.sum()));
+        for (Map.Entry<CommandType, String> error : primerError.entrySet()) {
+            System.out.println("Primer error de " + error.getKey() + ": " + error.getValue());
+        }
+        if (entero("latido", 0) > 0) {
+            System.out.println(muestrasRtt.sum() + " muestras de RTT por PING");
+            if (sesionesSinRtt.get() > 0) {
+                System.out.println("AVISO: " + sesionesSinRtt.get() + " sesiones autenticadas sin ningún PING respondido");
+            }
+        }
+    }
+
+    /**
+     * Llamada a un servicio medida como el comando que envía
+     */
+    private interface Llamada<T> {
+        T ejecutar() throws Exception;
+    }
+
+    private <T> T medir(CommandType accion, Llamada<T> llamada) {
+        long t = System.nanoTime();
+        try {
+            T resultado = llamada.ejecutar();
+            latencias.get(accion).registrar(System.nanoTime() - t);
+            return resultado;
+        } catch (Exception e) {
+            errores.get(accion).increment();
+            totalErrores.increment();
+            primerError.putIfAbsent(accion, e.getClass().getSimpleName() + ": " + e.getMessage());
+            return null;
+        } finally {
+            totalPeticiones.increment();
+        }
+    }
+
+    /**
+     * Un profesor simulado con su propia conexión y servicios
+     */
+    private class Sesion implements Runnable {
+        private final String host;
+        private final int puerto;
+        private final int profesorId;
+        private final long arranque;
+        private final Random random;
+        private List<Reunion> reuniones = new ArrayList<>();
+        private List<Alumno> alumnos;
+
+        Sesion(int numero, String host, int puerto, int profesorId, long arranque) {
+            this.host = host;
+            this.puerto = puerto;
+            this.profesorId = profesorId;
+            this.arranque = arranque;
+            this.random = new Random(semilla + numero);
+        }
+
+        @Override
+        public void run() {
+            SocketClient client = new SocketClient();
+            client.configure(host, puerto);
+            int latido = entero("latido", 0);
+            client.configureHeartbeat(latido, 3000);
+            AuthService auth = new AuthService(client);
+            HorarioService horario = new HorarioService(auth);
+            ReunionService reunion = new ReunionService(auth);
+            AlumnoService alumno = new AlumnoService(auth);
+            String email = SchoolData.emailProfesor(profesorId);
+            String password = opciones.getOrDefault("password", "1234");
+
+            try {
+                esperarHasta(arranque);
+                activas.incrementAndGet();
+                if (latido > 0) {
+                    client.preconnect();
+                }
+                while (System.currentTimeMillis() < fin && medir(CommandType.LOGIN, () -> auth.login(email, password)) == null) {
+                    pensar();
+                }
+                if (!auth.isAuthenticated()) {
+                    return;
+                }
+                medir(CommandType.GET_HORARIO, horario::getHorarioProfesor);
+                refrescar(reunion);
+
+                while (pensar()) {
+                    double dado = random.nextDouble();
+                    if (dado < probCrear) {
+                        crear(reunion, alumno, auth.getUsuarioActual());
+                    } else if (dado < probCrear + probAceptar) {
+                        aceptar(reunion);
+                    } else if (dado < probCrear + probAceptar + probAlumnos) {
+                        alumnos = medir(CommandType.GET_ALUMNOS, () -> alumno.getAlumnos(profesorId));
+                    } else {
+                        refrescar(reunion);
+                    }
+                }
+                if (latido > 0) {
+                    muestrasRtt.add(client.getRtt().getSamples());
+                    if (client.getRtt().getSamples() == 0) {
+                        sesionesSinRtt.incrementAndGet();
+                    }
+                }
+                auth.logout();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // logout fallido: la conexión se cierra igualmente
+            } finally {
+                activas.decrementAndGet();
+                client.disconnect();
+            }
+        }
+
+        private void refrescar(ReunionService reunion) {
+            List<Reunion> leidas = medir(CommandType.GET_REUNIONES, reunion::getReunionesProfesor);
+            if (leidas != null) {
+                reuniones = leidas;
+            }
+        }
+
+        private void crear(ReunionService reunion, AlumnoService alumno, Usuario usuario) {
+            if (alumnos == null) {
+                alumnos = medir(CommandType.GET_ALUMNOS, () -> alumno.getAlumnos(profesorId, "id"));
+            }
+            if (alumnos == null || alumnos.isEmpty() || usuario == null) {
+                return;
+            }
+            int alumnoId = alumnos.get(random.nextInt(alumnos.size())).getId();
+            LocalDateTime fecha = LocalDate.now().plusDays(1 + random.nextInt(14)).atTime(8 + random.nextInt(7), 0);
+            medir(CommandType.CREATE_REUNION, () -> reunion.crearReunion(alumnoId, "Tutoría", "Prueba de carga", "A101", fecha));
+        }
+
+        private void aceptar(ReunionService reunion) {
+            List<Reunion> pendientes = new ArrayList<>();
+            for (Reunion r : reuniones) {
+                if ("pendiente".equals(r.getEstado())) {
+                    pendientes.add(r);
+                }
+            }
+            if (pendientes.isEmpty()) {
+                refrescar(reunion);
+                return;
+            }
+            Reunion elegida = pendientes.get(random.nextInt(pendientes.size()));
+            if (medir(CommandType.UPDATE_REUNION, () -> reunion.actualizarEstadoReunion(elegida.getIdReunion(), "aceptada")) != null) {
+                elegida.setEstado("aceptada");
+            }
+        }
+
+        /**
+         * Tiempo de reflexión exponencial (acotado a 10 veces la media)
+         * @return false si la prueba ha terminado
+         */
+        private boolean pensar() throws InterruptedException {
+            long espera = (long) Math.min(-Math.log(1 - random.nextDouble()) * pensarMillis, 10 * pensarMillis);
+            long ahora = System.currentTimeMillis();
+            if (ahora + espera >= fin) {
+                esperarHasta(fin);
+                return false;
+            }
+            TimeUnit.MILLISECONDS.sleep(espera);
+            return true;
+        }
+    }
+
+    private static void esperarHasta(long instante) throws InterruptedException {
+        long espera = instante - System.currentTimeMillis();
+        if (espera > 0) {
+            TimeUnit.MILLISECONDS.sleep(espera);
+        }
+    }
+
+    private int entero(String opcion, int porDefecto) {
+        String valor = opciones.get(opcion);
+        return valor != null ? Integer.parseInt(valor) : porDefecto;
+    }
+}
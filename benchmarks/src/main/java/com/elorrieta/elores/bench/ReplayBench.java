@@ -0,0 +1,165 @@
+package com.elorrieta.elores.bench;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.elorrieta.elores.network.SessionLog;
+import com.elorrieta.elores.network.SocketClient;
+import com.elorrieta.elores.protocol.CommandType;
+import com.elorrieta.elores.protocol.Request;
+import com.elorrieta.elores.server.ReplayServer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Reproduce una sesión grabada contra el cliente actual para detectar regresiones
+ *
+ * Arranca un ReplayServer con la grabación y vuelve a enviar, a través de
+ * SocketClient, las mismas peticiones que envió el cliente grabado y en los mismos
+ * instantes (divididos por la velocidad). Como las respuestas y sus tiempos de
+ * servidor son siempre los de la grabación, las diferencias entre dos versiones del
+ * cliente salen solo del propio cliente: latencia por comando y bytes reservados.
+ *
+ * Uso: java ... ReplayBench grabacion.log [velocidad]
+ */
+public class ReplayBench {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Uso: ReplayBench grabacion.log [velocidad]");
+            return;
+        }
+        Path fichero = Paths.get(args[0]);
+        double velocidad = args.length > 1 ? Double.parseDouble(args[1]) : 1.0;
+
+        List<SessionLog.Entrada> grabacion = SessionLog.leer(fichero);
+        List<SessionLog.Entrada> enviadas = new ArrayList<>();
+        for (SessionLog.Entrada entrada : grabacion) {
+            if (entrada.getSentido() == SessionLog.ENVIADA) {
+                enviadas.add(entrada);
+            }
+        }
+        enviadas.sort((a, b) -> Long.compare(a.getMicros(), b.getMicros()));
+        if (enviadas.isEmpty()) {
+            System.err.println("La grabación no contiene peticiones");
+            return;
+        }
+
+        ReplayServer server = new ReplayServer(grabacion, velocidad);
+        int puerto = server.start(0);
+
+        SocketClient client = SocketClient.getInstance();
+        client.configure("localhost", puerto);
+        // Los PING grabados se reproducen como cualquier otra petición
+        client.configureHeartbeat(0, 3000);
+        try {
+            client.ensureConnected();
+            client.getMetrics().reiniciar();
+
+            Map<Long, Long> reservadoAntes = reservado();
+            long origen = enviadas.get(0).getMicros();
+            long inicio = System.nanoTime();
+            List<CompletableFuture<?>> respuestas = new ArrayList<>();
+            int omitidas = 0;
+
+            for (SessionLog.Entrada entrada : enviadas) {
+                Request request = peticion(entrada.getTrama());
+                if (request == null) {
+                    omitidas++;
+                    continue;
+                }
+                if (velocidad > 0) {
+                    long objetivo = inicio + (long) ((entrada.getMicros() - origen) * 1000 / velocidad);
+                    long espera = objetivo - System.nanoTime();
+                    if (espera > 0) {
+                        TimeUnit.NANOSECONDS.sleep(espera);
+                    }
+                }
+                respuestas.add(client.sendRequestAsync(request));
+            }
+            int fallidas = 0;
+            long plazo = client.getDeadlineMillis(null) > 0 ? client.getDeadlineMillis(null) : 60000;
+            for (CompletableFuture<?> respuesta : respuestas) {
+                try {
+                    respuesta.get(plazo, TimeUnit.MILLISECONDS);
+                } catch (Exception e) {
+                    fallidas++;
+                }
+            }
+            long nanos = System.nanoTime() - inicio;
+            long bytes = diferencia(reservadoAntes, reservado());
+
+            System.out.println(client.getMetrics().resumen());
+            System.out.println(String.format(Locale.ROOT,
+                "%d peticiones en %.1f ms (velocidad %s), %d fallidas, %d omitidas, %d sin respuesta grabada",
+                respuestas.size(), nanos / 1e6, args.length > 1 ? args[1] : "1",
+                fallidas, omitidas, server.getSinGrabacion()));
+            System.out.println(String.format(Locale.ROOT, "Reservado por el cliente: %.1f KB (%.0f bytes/petición)",
+                bytes / 1024.0, respuestas.isEmpty() ? 0.0 : (double) bytes / respuestas.size()));
+        } finally {
+            client.disconnect();
+            server.stop();
+        }
+    }
+
+    /**
+     * Reconstruye la petición grabada; el requestId y el token los vuelve a poner el cliente
+     */
+    private static Request peticion(String trama) {
+        try {
+            JsonObject json = JsonParser.parseString(trama).getAsJsonObject();
+            Request request = new Request(CommandType.valueOf(json.get("action").getAsString()));
+            JsonElement payload = json.get("payload");
+            if (payload != null && payload.isJsonObject()) {
+                request.setPayload(payload.toString());
+            } else if (payload != null && payload.isJsonPrimitive()) {
+                request.setPayload(payload.getAsString());
+            }
+            if (json.has("ifNoneMatch")) {
+                request.setIfNoneMatch(json.get("ifNoneMatch").getAsString());
+            }
+            return request;
+        } catch (JsonParseException | IllegalStateException | IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Bytes reservados hasta ahora por cada hilo del cliente (los del servidor no cuentan)
+     */
+    private static Map<Long, Long> reservado() {
+        Map<Long, Long> porHilo = new HashMap<>();
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return porHilo;
+        }
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) bean;
+        for (Thread hilo : Thread.getAllStackTraces().keySet()) {
+            if (!hilo.getName().startsWith("Replay-")) {
+                long bytes = hilos.getThreadAllocatedBytes(hilo.getId());
+                if (bytes >= 0) {
+                    porHilo.put(hilo.getId(), bytes);
+                }
+            }
+        }
+        return porHilo;
+    }
+
+    private static long diferencia(Map<Long, Long> antes, Map<Long, Long> despues) {
+        long total = 0;
+        for (Map.Entry<Long, Long> hilo : despues.entrySet()) {
+            total += hilo.getValue() - antes.getOrDefault(hilo.getKey(), 0L);
+        }
+        return total;
+    }
+}
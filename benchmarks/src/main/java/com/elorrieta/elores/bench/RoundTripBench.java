@@ -0,0 +1,166 @@
+package com.elorrieta.elores.bench;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import com.elorrieta.elores.network.SocketClient;
+import com.elorrieta.elores.network.TransportType;
+import com.elorrieta.elores.protocol.CommandType;
+import com.elorrieta.elores.protocol.PayloadFormat;
+import com.elorrieta.elores.protocol.Request;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Benchmark de ida y vuelta de SocketClient.sendRequest contra un servidor eco en loopback
+ *
+ * El servidor eco devuelve el payload de cada petición como data de la respuesta sin
+ * parsear nada, así casi todo el tiempo medido es de la pila del cliente: codificación,
+ * encuadre, flush, lectura de líneas, decodificación y entrega al llamante. Se mide
+ * con 1, 4 y 16 llamantes concurrentes sobre la misma conexión multiplexada y con
+ * payload pequeño (unos 30 bytes) y grande (unos 40 KB en cada sentido).
+ *
+ * Uso: java ... RoundTripBench [iteraciones] [blocking|nio]
+ */
+public class RoundTripBench {
+    private static final int[] LLAMANTES = {1, 4, 16};
+    private static final int FILAS_GRANDE = 400;
+
+    public static void main(String[] args) throws Exception {
+        int iteraciones = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        TransportType transporte = TransportType.fromString(args.length > 1 ? args[1] : "blocking");
+
+        EchoServer server = new EchoServer();
+        int port = server.start();
+        SocketClient client = SocketClient.getInstance();
+        client.configure("localhost", port);
+        client.setTransportType(transporte);
+        client.configureHeartbeat(0, 3000);
+
+        JsonObject pequeno = new JsonObject();
+        pequeno.addProperty("profesorId", 1);
+        pequeno.addProperty("since", "1234");
+        JsonObject grande = payloadGrande();
+
+        System.out.println("Transporte " + transporte + ", " + iteraciones + " llamadas por caso (grande: "
+            + iteraciones / 10 + ")");
+        BenchSupport.cabecera("payload");
+        try {
+            client.ensureConnected();
+            for (Object[] caso : new Object[][] {{"pequeño", pequeno, iteraciones}, {"grande", grande, iteraciones / 10}}) {
+                String nombre = (String) caso[0];
+                JsonObject payload = (JsonObject) caso[1];
+                int n = (Integer) caso[2];
+
+                // Calentamiento del JIT con el mismo tipo de petición
+                BenchSupport.concurrente(client, 4, n / 4, () -> new Request(CommandType.GET_REUNIONES, payload));
+                for (int llamantes : LLAMANTES) {
+                    BenchSupport.Resultado resultado = BenchSupport.concurrente(client, llamantes, n,
+                        () -> new Request(CommandType.GET_REUNIONES, payload));
+                    BenchSupport.imprimir(nombre, llamantes + (llamantes == 1 ? " llamante" : " llamantes"), resultado);
+                }
+            }
+        } finally {
+            client.disconnect();
+            server.stop();
+        }
+    }
+
+    /**
+     * Payload con una lista de registros del tamaño de un GET_ALUMNOS mediano
+     */
+    private static JsonObject payloadGrande() {
+        JsonArray filas = new JsonArray();
+        for (int i = 0; i < FILAS_GRANDE; i++) {
+            JsonObject fila = new JsonObject();
+            fila.addProperty("id", 10000 + i);
+            fila.addProperty("nombre", "Alumno" + i);
+            fila.addProperty("apellidos", "Apellido" + i + " Bigarren");
+            fila.addProperty("email", "alumno" + i + "@elorrieta.eus");
+            fila.addProperty("ciclo", i % 2 == 0 ? "DAM" : "DAW");
+            filas.add(fila);
+        }
+        JsonObject payload = new JsonObject();
+        payload.add("items", filas);
+        return payload;
+    }
+
+    /**
+     * Servidor eco mínimo: una conexión, un hilo, una respuesta por línea
+     *
+     * Se apoya en el orden de campos de RequestEncoder (requestId primero, payload
+     * al final) para recortar la trama en lugar de parsearla.
+     */
+    private static class EchoServer {
+        private ServerSocket serverSocket;
+        private volatile boolean activo;
+
+        int start() throws IOException {
+            serverSocket = new ServerSocket(0);
+            activo = true;
+            Thread aceptador = new Thread(this::aceptar, "Echo-accept");
+            aceptador.setDaemon(true);
+            aceptador.start();
+            return serverSocket.getLocalPort();
+        }
+
+        void stop() throws IOException {
+            activo = false;
+            serverSocket.close();
+        }
+
+        private void aceptar() {
+            while (activo) {
+                try {
+                    Socket cliente = serverSocket.accept();
+                    cliente.setTcpNoDelay(true);
+                    Thread hilo = new Thread(() -> atender(cliente), "Echo-client-" + cliente.getPort());
+                    hilo.setDaemon(true);
+                    hilo.start();
+                } catch (IOException e) {
+                    if (activo) {
+                        System.err.println("Error aceptando conexión: " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        private void atender(Socket cliente) {
+            try (Socket socket = cliente;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), 64 * 1024);
+                 BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 64 * 1024)) {
+
+                out.write("{\"status\":{\"code\":200,\"description\":\"OK\"},\"message\":\"Eco\",\"data\":{\"capabilities\":[\""
+                    + PayloadFormat.CAPABILITY + "\"]}}\n");
+                out.flush();
+
+                String linea;
+                while ((linea = in.readLine()) != null) {
+                    int inicioId = linea.indexOf("\"requestId\":");
+                    int finId = inicioId >= 0 ? linea.indexOf(',', inicioId) : -1;
+                    int inicioPayload = linea.lastIndexOf("\"payload\":");
+                    out.write("{\"status\":{\"code\":200,\"description\":\"OK\"},\"message\":\"OK\",\"data\":");
+                    if (inicioPayload >= 0) {
+                        out.write(linea, inicioPayload + 10, linea.length() - 1 - (inicioPayload + 10));
+                    } else {
+                        out.write("null");
+                    }
+                    if (finId > 0) {
+                        out.write(',');
+                        out.write(linea, inicioId, finId - inicioId);
+                    }
+                    out.write("}\n");
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // el cliente cerró la conexión
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.elorrieta.elores.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.elorrieta.elores.network.SocketClient;
+import com.elorrieta.elores.network.SocketOptions;
+import com.elorrieta.elores.network.TransportType;
+import com.elorrieta.elores.protocol.CommandType;
+import com.elorrieta.elores.protocol.Request;
+import com.elorrieta.elores.server.StandInServer;
+
+/**
+ * Microbenchmark de las opciones TCP contra el servidor local en loopback
+ *
+ * Arranca un StandInServer en la misma JVM y, para cada juego de opciones (aplicado
+ * en ambos extremos), mide llamadas por segundo y p50/p99 de:
+ * - PING secuencial: trama pequeña de ida y vuelta
+ * - GET_ALUMNOS secuencial con una respuesta grande (varios segmentos TCP)
+ * - PING desde varios hilos a la vez sobre la conexión multiplexada
+ *
+ * Uso: java ... SocketOptionsBench [iteraciones] [blocking|nio]
+ */
+public class SocketOptionsBench {
+    private static final int ALUMNOS_EXTRA = 1500;
+    private static final int HILOS = 4;
+
+    public static void main(String[] args) throws Exception {
+        int iteraciones = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        TransportType transporte = TransportType.fromString(args.length > 1 ? args[1] : "blocking");
+
+        StandInServer server = new StandInServer(BenchSupport.datos(ALUMNOS_EXTRA));
+        int port = server.start(0);
+        SocketClient client = SocketClient.getInstance();
+        client.configure("localhost", port);
+        client.setTransportType(transporte);
+        client.configureHeartbeat(0, 3000);
+
+        System.out.println("Transporte " + transporte + ", " + iteraciones + " iteraciones por prueba");
+        BenchSupport.cabecera("opciones");
+        try {
+            for (Object[] caso : casos()) {
+                String nombre = (String) caso[0];
+                SocketOptions opciones = (SocketOptions) caso[1];
+                server.setSocketOptions(opciones);
+                client.setSocketOptions(opciones);
+                BenchSupport.conectar(client);
+
+                // Calentamiento del JIT y de la conexión antes de medir
+                BenchSupport.secuencial(client, CommandType.PING, iteraciones / 4);
+                BenchSupport.secuencial(client, CommandType.GET_ALUMNOS, iteraciones / 20);
+
+                BenchSupport.imprimir(nombre, "PING", BenchSupport.secuencial(client, CommandType.PING, iteraciones));
+                BenchSupport.imprimir(nombre, "GET_ALUMNOS",
+                    BenchSupport.secuencial(client, CommandType.GET_ALUMNOS, iteraciones / 10));
+                BenchSupport.imprimir(nombre, "PING x" + HILOS + " hilos", BenchSupport.concurrente(client, HILOS, iteraciones, () -> new Request(CommandType.PING)));
+                client.disconnect();
+            }
+        } finally {
+            client.disconnect();
+            server.stop();
+        }
+    }
+
+    private static List<Object[]> casos() {
+        List<Object[]> casos = new ArrayList<>();
+
+        SocketOptions nagle = new SocketOptions();
+        nagle.setTcpNoDelay(false);
+        casos.add(new Object[] {"nagle (SO por defecto)", nagle});
+
+        casos.add(new Object[] {"nodelay", new SocketOptions()});
+
+        SocketOptions buffers = new SocketOptions();
+        buffers.setSendBufferSize(256 * 1024);
+        buffers.setReceiveBufferSize(256 * 1024);
+        buffers.setReaderBufferSize(64 * 1024);
+        casos.add(new Object[] {"nodelay + buffers 256K/64K", buffers});
+        return casos;
+    }
+}
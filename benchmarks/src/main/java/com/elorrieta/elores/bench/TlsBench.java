@@ -0,0 +1,154 @@
+package com.elorrieta.elores.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.net.ssl.SSLContext;
+
+import com.elorrieta.elores.network.SocketClient;
+import com.elorrieta.elores.network.SocketOptions;
+import com.elorrieta.elores.network.TlsTransport;
+import com.elorrieta.elores.network.TransportType;
+import com.elorrieta.elores.protocol.CommandType;
+import com.elorrieta.elores.server.SchoolData;
+import com.elorrieta.elores.server.StandInServer;
+
+/**
+ * Microbenchmark del transporte TLS frente al TCP en claro, en loopback
+ *
+ * Genera con keytool un certificado EC temporal para localhost y arranca dos
+ * servidores locales, uno en claro y otro con TLS. Mide:
+ * - conexión + handshake + bienvenida: TCP, TLS completo (contexto nuevo en cada
+ *   conexión) y TLS reanudado (el mismo contexto, como hace SocketClient al reconectar)
+ * - coste por petición: PING y GET_ALUMNOS secuenciales sobre una conexión abierta
+ *
+ * Uso: java ... TlsBench [conexiones] [peticiones]
+ */
+public class TlsBench {
+    private static final int ALUMNOS_EXTRA = 1500;
+    private static final char[] CLAVE = "elores-bench".toCharArray();
+
+    public static void main(String[] args) throws Exception {
+        int conexiones = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int peticiones = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        String almacen = generarAlmacen().toString();
+        SchoolData datos = BenchSupport.datos(ALUMNOS_EXTRA);
+        StandInServer claro = new StandInServer(datos);
+        StandInServer cifrado = new StandInServer(datos);
+        int puertoClaro = claro.start(0);
+        int puertoTls = cifrado.start(0, TlsTransport.contextoServidor(almacen, CLAVE));
+
+        SocketClient client = SocketClient.getInstance();
+        client.configureHeartbeat(0, 3000);
+        try {
+            System.out.println("Conexión + handshake + bienvenida (" + conexiones + " conexiones)");
+            BenchSupport.cabecera("transporte");
+            SSLContext compartido = TlsTransport.contextoCliente(almacen, CLAVE);
+            conexiones(client, "tcp", TransportType.BLOCKING, puertoClaro, null, null, conexiones);
+            conexiones(client, "tls completo", TransportType.TLS, puertoTls, null, almacen, conexiones);
+            conexiones(client, "tls reanudado", TransportType.TLS, puertoTls, compartido, null, conexiones);
+
+            System.out.println();
+            System.out.println("Coste por petición (" + peticiones + " peticiones)");
+            BenchSupport.cabecera("transporte");
+            peticiones(client, "tcp", TransportType.BLOCKING, puertoClaro, null, peticiones);
+            peticiones(client, "tls", TransportType.TLS, puertoTls, compartido, peticiones);
+        } finally {
+            client.disconnect();
+            claro.stop();
+            cifrado.stop();
+        }
+    }
+
+    /**
+     * Abre y cierra conexiones midiendo hasta tener la bienvenida
+     * @param almacenNuevo Si no es null, se crea un contexto nuevo por conexión (sin caché de sesiones)
+     */
+    private static void conexiones(SocketClient client, String nombre, TransportType tipo, int puerto,
+                                   SSLContext contexto, String almacenNuevo, int n) throws IOException {
+        client.configure("localhost", puerto);
+        client.setTransportType(tipo);
+
+        // Las primeras conexiones no cuentan: calientan el JIT y llenan la caché de sesiones
+        int calentamiento = Math.max(1, n / 10);
+        BenchSupport.Resultado resultado = new BenchSupport.Resultado();
+        long inicio = 0;
+        for (int i = 0; i < calentamiento + n; i++) {
+            SocketOptions opciones = new SocketOptions();
+            opciones.setSslContext(almacenNuevo != null
+                ? TlsTransport.contextoCliente(almacenNuevo, CLAVE)
+                : contexto);
+            client.setSocketOptions(opciones);
+            if (i == calentamiento) {
+                inicio = System.nanoTime();
+            }
+            long t = System.nanoTime();
+            client.ensureConnected();
+            if (i >= calentamiento) {
+                resultado.latencias.registrar(System.nanoTime() - t);
+            }
+            client.disconnect();
+        }
+        resultado.llamadas = n;
+        resultado.nanos = System.nanoTime() - inicio;
+        BenchSupport.imprimir(nombre, "conectar", resultado);
+    }
+
+    private static void peticiones(SocketClient client, String nombre, TransportType tipo, int puerto,
+                                   SSLContext contexto, int n) throws IOException {
+        client.configure("localhost", puerto);
+        client.setTransportType(tipo);
+        SocketOptions opciones = new SocketOptions();
+        opciones.setSslContext(contexto);
+        client.setSocketOptions(opciones);
+        BenchSupport.conectar(client);
+
+        BenchSupport.secuencial(client, CommandType.PING, n / 4);
+        BenchSupport.secuencial(client, CommandType.GET_ALUMNOS, n / 20);
+
+        BenchSupport.imprimir(nombre, "PING", BenchSupport.secuencial(client, CommandType.PING, n));
+        BenchSupport.imprimir(nombre, "GET_ALUMNOS", BenchSupport.secuencial(client, CommandType.GET_ALUMNOS, n / 10));
+        client.disconnect();
+    }
+
+    /**
+     * Crea con keytool un almacén PKCS12 temporal con un certificado EC para localhost
+     */
+    private static Path generarAlmacen() throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("elores-tls");
+        Path almacen = dir.resolve("servidor.p12");
+        String keytool = Paths.get(System.getProperty("java.home"), "bin", "keytool").toString();
+        String clave = new String(CLAVE);
+
+        Process proceso = new ProcessBuilder(keytool, "-genkeypair",
+            "-alias", "elores", "-keyalg", "EC", "-keysize", "256", "-sigalg", "SHA256withECDSA",
+            "-dname", "CN=localhost", "-ext", "SAN=dns:localhost,ip:127.0.0.1", "-validity", "2",
+            "-storetype", "PKCS12", "-keystore", almacen.toString(),
+            "-storepass", clave, "-keypass", clave)
+            .redirectErrorStream(true)
+            .start();
+        String salida = leer(proceso.getInputStream());
+        if (proceso.waitFor() != 0) {
+            throw new IOException("keytool falló: " + salida);
+        }
+        almacen.toFile().deleteOnExit();
+        dir.toFile().deleteOnExit();
+        return almacen;
+    }
+
+    private static String leer(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            bytes.write(buffer, 0, n);
+        }
+        return bytes.toString(StandardCharsets.UTF_8.name());
+    }
+}
@@ -0,0 +1,73 @@
+package com.elorrieta.elores.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.elorrieta.elores.model.Horario;
+import com.elorrieta.elores.protocol.adapter.ProtocolJson;
+import com.elorrieta.elores.server.SchoolData;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Respuestas del servidor de tamaño realista para los microbenchmarks
+ *
+ * Los registros salen de SchoolData.generar con semilla fija y se serializan como
+ * lo hace el servidor local, así el mismo tamaño da siempre la misma trama.
+ */
+final class Fixtures {
+    static final String HORARIOS = "horarios";
+    static final String REUNIONES = "reuniones";
+    static final String ALUMNOS = "alumnos";
+
+    private static final long SEMILLA = 42;
+    private static final int HORAS_POR_PROFESOR = 20; // unas 2/3 de las 30 horas semanales
+
+    private Fixtures() {
+    }
+
+    /**
+     * Trama completa de una respuesta correcta con la lista indicada
+     * @param tipo HORARIOS, REUNIONES o ALUMNOS
+     * @param filas Número de registros
+     */
+    static String respuesta(String tipo, int filas) {
+        JsonObject status = new JsonObject();
+        status.addProperty("code", 200);
+        status.addProperty("description", "OK");
+        JsonObject respuesta = new JsonObject();
+        respuesta.add("status", status);
+        respuesta.addProperty("message", "OK");
+        respuesta.add("data", datos(tipo, filas));
+        respuesta.addProperty("requestId", 1);
+        return respuesta.toString();
+    }
+
+    /**
+     * Lista de registros como árbol JSON
+     */
+    static JsonElement datos(String tipo, int filas) {
+        Gson gson = ProtocolJson.gson();
+        switch (tipo) {
+            case HORARIOS:
+                int profesores = filas / HORAS_POR_PROFESOR + 1;
+                SchoolData datos = SchoolData.generar(SEMILLA, profesores, 0, 0);
+                List<Horario> horarios = new ArrayList<>();
+                for (int p = 1; p <= profesores && horarios.size() < filas; p++) {
+                    horarios.addAll(datos.getHorarios(p));
+                }
+                // Con pocos profesores puede no llegar; se repiten los primeros
+                for (int i = 0; horarios.size() < filas; i++) {
+                    horarios.add(horarios.get(i));
+                }
+                return gson.toJsonTree(horarios.subList(0, filas));
+            case REUNIONES:
+                return gson.toJsonTree(SchoolData.generar(SEMILLA, 1, 50, filas).getReuniones(1));
+            case ALUMNOS:
+                return gson.toJsonTree(SchoolData.generar(SEMILLA, 1, filas, 0).getAlumnos(1));
+            default:
+                throw new IllegalArgumentException("Tipo de datos desconocido: " + tipo);
+        }
+    }
+}
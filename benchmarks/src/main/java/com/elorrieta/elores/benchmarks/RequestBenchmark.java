@@ -0,0 +1,85 @@
+package com.elorrieta.elores.benchmarks;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.elorrieta.elores.protocol.Batch;
+import com.elorrieta.elores.protocol.CommandType;
+import com.elorrieta.elores.protocol.FieldProjection;
+import com.elorrieta.elores.protocol.PayloadFormat;
+import com.elorrieta.elores.protocol.Request;
+import com.elorrieta.elores.protocol.RequestEncoder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Serialización de peticiones con RequestEncoder en los dos formatos de payload
+ *
+ * "simple" es un GET_ALUMNOS con proyección de campos; "batch" agrupa las diez
+ * consultas de la vista semanal en un BATCH. El destino se reutiliza para medir
+ * solo la codificación, no el crecimiento del buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestBenchmark {
+    @Param({"EMBEDDED_JSON", "LEGACY_STRING"})
+    PayloadFormat formato;
+
+    @Param({"simple", "batch"})
+    String peticion;
+
+    private Request request;
+    private final StringWriter destino = new StringWriter(4096);
+
+    @Setup
+    public void preparar() {
+        if ("batch".equals(peticion)) {
+            List<Request> consultas = new ArrayList<>();
+            for (int profesorId = 1; profesorId <= 10; profesorId++) {
+                JsonObject payload = new JsonObject();
+                payload.addProperty("profesorId", profesorId);
+                Request consulta = new Request(CommandType.GET_HORARIO, payload);
+                consulta.setIfNoneMatch("guge_4_bUYjLrapH");
+                consultas.add(consulta);
+            }
+            request = Batch.crear(consultas);
+        } else {
+            JsonObject payload = new JsonObject();
+            payload.addProperty("profesorId", 1);
+            JsonArray campos = new JsonArray();
+            campos.add("id");
+            campos.add("nombre");
+            campos.add("apellidos");
+            payload.add(FieldProjection.FIELDS, campos);
+            request = new Request(CommandType.GET_ALUMNOS, payload);
+        }
+        request.setRequestId(12345L);
+        request.setSessionToken("c2Vzc2lvbi10b2tlbi1kZS1wcnVlYmEtMjRi");
+    }
+
+    @Benchmark
+    public int codificar() throws IOException {
+        destino.getBuffer().setLength(0);
+        RequestEncoder.write(request, formato, destino);
+        return destino.getBuffer().length();
+    }
+}
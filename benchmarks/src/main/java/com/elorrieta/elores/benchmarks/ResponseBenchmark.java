@@ -0,0 +1,89 @@
+package com.elorrieta.elores.benchmarks;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.elorrieta.elores.protocol.Response;
+import com.elorrieta.elores.protocol.ResponseDecoder;
+import com.elorrieta.elores.protocol.adapter.ProtocolJson;
+import com.google.gson.Gson;
+
+/**
+ * Decodificación de respuestas y parseo de modelos
+ *
+ * - decodificar: trama recibida a Response con ResponseDecoder, como hace el hilo lector de SocketClient
+ * - parsear: data de una Response ya decodificada a la lista de modelos, en streaming
+ *   como los lectores de la capa de servicios (GSON con los adaptadores de ProtocolJson)
+ * - decodificarYParsear: las dos fases, el coste real de una respuesta de consulta
+ * - arbol: data a árbol JsonElement y enlace sobre el árbol, el camino anterior a
+ *   getDataReader, como referencia
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseBenchmark {
+    @Param({"10", "1000", "50000"})
+    int filas;
+
+    @Param({Fixtures.HORARIOS, Fixtures.REUNIONES, Fixtures.ALUMNOS})
+    String tipo;
+
+    private final Gson protocolo = ProtocolJson.gson();
+    private String trama;
+    private Response decodificada;
+    private Type lista;
+
+    @Setup
+    public void preparar() {
+        trama = Fixtures.respuesta(tipo, filas);
+        decodificada = ResponseDecoder.decode(trama);
+        switch (tipo) {
+            case Fixtures.HORARIOS:
+                lista = ProtocolJson.LISTA_HORARIOS;
+                break;
+            case Fixtures.REUNIONES:
+                lista = ProtocolJson.LISTA_REUNIONES;
+                break;
+            default:
+                lista = ProtocolJson.LISTA_ALUMNOS;
+                break;
+        }
+    }
+
+    @Benchmark
+    public Response decodificar() {
+        return ResponseDecoder.decode(trama);
+    }
+
+    @Benchmark
+    public List<?> parsear() {
+        return protocolo.fromJson(decodificada.getDataReader(), lista);
+    }
+
+    @Benchmark
+    public List<?> decodificarYParsear() {
+        Response response = ResponseDecoder.decode(trama);
+        return protocolo.fromJson(response.getDataReader(), lista);
+    }
+
+    @Benchmark
+    public List<?> arbol() {
+        return protocolo.fromJson(decodificada.getDataAsJson(), lista);
+    }
+}
@@ -0,0 +1,324 @@
+package com.elorrieta.elores.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.elorrieta.elores.network.SessionLog;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Servidor que reproduce una sesión grabada con SessionLog
+ *
+ * Cada conexión recibe la bienvenida grabada y, para cada petición, la siguiente
+ * respuesta grabada de ese mismo comando, con el requestId de la petición en vivo.
+ * La respuesta sale tras el tiempo que tardó el servidor original (el "tiempo de
+ * servidor" de la grabación), y los eventos push en su instante original, ambos
+ * divididos por la velocidad: 1 es el ritmo original, 10 diez veces más rápido y
+ * 0 sin esperas. Las peticiones sin respuesta grabada reciben un 404 (PING un 200).
+ */
+public class ReplayServer {
+    private final JsonObject bienvenida;
+    private final Map<String, List<Grabada>> respuestas;
+    private final List<Grabada> eventos;
+    private final double velocidad;
+    private final Set<Socket> clientes = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sinGrabacion = new AtomicLong();
+    private final ScheduledExecutorService programador = Executors.newScheduledThreadPool(2, r -> {
+        Thread hilo = new Thread(r, "Replay-timer");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private ServerSocket serverSocket;
+    private volatile boolean activo;
+
+    /**
+     * Trama grabada del servidor y su retardo (tiempo de servidor o instante del evento)
+     */
+    private static class Grabada {
+        private final JsonObject trama;
+        private final long micros;
+
+        Grabada(JsonObject trama, long micros) {
+            this.trama = trama;
+            this.micros = micros;
+        }
+    }
+
+    /**
+     * @param grabacion Tramas leídas con SessionLog.leer
+     * @param velocidad Factor de aceleración (0 = sin esperas)
+     */
+    public ReplayServer(List<SessionLog.Entrada> grabacion, double velocidad) throws IOException {
+        this.velocidad = velocidad;
+        this.respuestas = new HashMap<>();
+        this.eventos = new ArrayList<>();
+
+        // Las líneas pueden estar algo desordenadas: se reconstruye el orden por tiempo
+        List<SessionLog.Entrada> ordenadas = new ArrayList<>(grabacion);
+        ordenadas.sort(Comparator.comparingLong(SessionLog.Entrada::getMicros));
+
+        JsonObject primeraBienvenida = null;
+        boolean esperandoBienvenida = true;
+        long inicioConexion = 0;
+        // Peticiones sin respuesta todavía: requestId (o posición) -> acción e instante
+        Map<String, SessionLog.Entrada> enVuelo = new LinkedHashMap<>();
+        Map<String, String> acciones = new HashMap<>();
+        long anonimas = 0;
+
+        for (SessionLog.Entrada entrada : ordenadas) {
+            if (entrada.getSentido() == SessionLog.CONEXION) {
+                esperandoBienvenida = true;
+                inicioConexion = entrada.getMicros();
+                enVuelo.clear();
+                continue;
+            }
+            JsonObject trama = parsear(entrada.getTrama());
+            if (trama == null) {
+                continue;
+            }
+
+            if (entrada.getSentido() == SessionLog.ENVIADA) {
+                String clave = trama.has("requestId") ? trama.get("requestId").getAsString() : "#" + anonimas++;
+                enVuelo.put(clave, entrada);
+                acciones.put(clave, trama.has("action") ? trama.get("action").getAsString() : "");
+            } else if (esperandoBienvenida) {
+                esperandoBienvenida = false;
+                if (primeraBienvenida == null) {
+                    primeraBienvenida = trama;
+                }
+            } else if (trama.has("event")) {
+                eventos.add(new Grabada(trama, entrada.getMicros() - inicioConexion));
+            } else {
+                // Respuesta: por requestId o, en servidores antiguos, a la petición más antigua
+                String clave = trama.has("requestId") ? trama.get("requestId").getAsString() : primera(enVuelo);
+                SessionLog.Entrada peticion = clave != null ? enVuelo.remove(clave) : null;
+                if (peticion != null) {
+                    long tiempoServidor = Math.max(0, entrada.getMicros() - peticion.getMicros());
+                    respuestas.computeIfAbsent(acciones.get(clave), k -> new ArrayList<>())
+                        .add(new Grabada(trama, tiempoServidor));
+                }
+            }
+        }
+        if (primeraBienvenida == null) {
+            throw new IOException("La grabación no contiene ninguna bienvenida del servidor");
+        }
+        this.bienvenida = primeraBienvenida;
+    }
+
+    /**
+     * Arranca el servidor en segundo plano
+     * @param port Puerto de escucha (0 para uno libre)
+     * @return Puerto en el que escucha
+     */
+    public synchronized int start(int port) throws IOException {
+        serverSocket = new ServerSocket(port);
+        activo = true;
+        Thread aceptador = new Thread(this::aceptar, "Replay-accept");
+        aceptador.setDaemon(true);
+        aceptador.start();
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Detiene el servidor y cierra las conexiones abiertas
+     */
+    public synchronized void stop() {
+        activo = false;
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error cerrando servidor: " + e.getMessage());
+        }
+        for (Socket cliente : clientes) {
+            try {
+                cliente.close();
+            } catch (IOException e) {
+                // ya cerrado
+            }
+        }
+        clientes.clear();
+        programador.shutdownNow();
+    }
+
+    /** Peticiones que no tenían respuesta grabada */
+    public long getSinGrabacion() {
+        return sinGrabacion.get();
+    }
+
+    /** Respuestas grabadas disponibles por comando */
+    public Map<String, Integer> getRespuestasGrabadas() {
+        Map<String, Integer> cuentas = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Grabada>> entrada : respuestas.entrySet()) {
+            cuentas.put(entrada.getKey(), entrada.getValue().size());
+        }
+        return cuentas;
+    }
+
+    private void aceptar() {
+        while (activo) {
+            try {
+                Socket cliente = serverSocket.accept();
+                cliente.setTcpNoDelay(true);
+                clientes.add(cliente);
+                Thread hilo = new Thread(() -> atenderConexion(cliente), "Replay-client-" + cliente.getPort());
+                hilo.setDaemon(true);
+                hilo.start();
+            } catch (IOException e) {
+                if (activo) {
+                    System.err.println("Error aceptando conexión: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reproduce la sesión completa para una conexión
+     */
+    private void atenderConexion(Socket cliente) {
+        try (Socket socket = cliente;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+
+            enviar(out, bienvenida);
+            for (Grabada evento : eventos) {
+                programar(() -> enviar(out, evento.trama), evento.micros);
+            }
+
+            // Cada conexión consume su propia copia de las respuestas grabadas
+            Map<String, Deque<Grabada>> pendientes = new HashMap<>();
+            for (Map.Entry<String, List<Grabada>> entrada : respuestas.entrySet()) {
+                pendientes.put(entrada.getKey(), new ArrayDeque<>(entrada.getValue()));
+            }
+
+            String linea;
+            while ((linea = in.readLine()) != null) {
+                JsonObject peticion = parsear(linea);
+                if (peticion == null) {
+                    continue;
+                }
+                String accion = peticion.has("action") ? peticion.get("action").getAsString() : "";
+                Deque<Grabada> cola = pendientes.get(accion);
+                Grabada grabada = cola != null ? cola.poll() : null;
+
+                JsonObject respuesta;
+                long espera = 0;
+                if (grabada != null) {
+                    respuesta = grabada.trama.deepCopy();
+                    espera = grabada.micros;
+                } else {
+                    sinGrabacion.incrementAndGet();
+                    respuesta = sinRespuesta(accion);
+                }
+                respuesta.remove("requestId");
+                if (peticion.has("requestId")) {
+                    respuesta.add("requestId", peticion.get("requestId"));
+                }
+                programar(() -> enviar(out, respuesta), espera);
+            }
+        } catch (SocketException e) {
+            // el cliente cerró la conexión
+        } catch (IOException e) {
+            System.err.println("Error en conexión de reproducción: " + e.getMessage());
+        } finally {
+            clientes.remove(cliente);
+        }
+    }
+
+    /**
+     * Ejecuta el envío tras el retardo grabado dividido por la velocidad
+     */
+    private void programar(Runnable envio, long micros) {
+        long retardo = velocidad > 0 ? (long) (micros / velocidad) : 0;
+        if (retardo <= 0) {
+            envio.run();
+        } else {
+            programador.schedule(envio, retardo, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    private void enviar(BufferedWriter out, JsonObject trama) {
+        synchronized (out) {
+            try {
+                out.write(trama.toString());
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                // la conexión se está cerrando; su hilo terminará
+            }
+        }
+    }
+
+    private static JsonObject sinRespuesta(String accion) {
+        JsonObject status = new JsonObject();
+        JsonObject respuesta = new JsonObject();
+        if ("PING".equals(accion)) {
+            status.addProperty("code", 200);
+            status.addProperty("description", "OK");
+            respuesta.addProperty("message", "OK");
+        } else {
+            status.addProperty("code", 404);
+            status.addProperty("description", "Not Found");
+            respuesta.addProperty("message", "Sin respuesta grabada para " + accion);
+        }
+        respuesta.add("status", status);
+        return respuesta;
+    }
+
+    private static String primera(Map<String, SessionLog.Entrada> enVuelo) {
+        Iterator<String> claves = enVuelo.keySet().iterator();
+        return claves.hasNext() ? claves.next() : null;
+    }
+
+    private static JsonObject parsear(String trama) {
+        try {
+            JsonElement json = JsonParser.parseString(trama);
+            return json.isJsonObject() ? json.getAsJsonObject() : null;
+        } catch (JsonParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reproduce una grabación: java ... ReplayServer grabacion.log [puerto] [velocidad]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.err.println("Uso: ReplayServer grabacion.log [puerto] [velocidad]");
+            return;
+        }
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 9000;
+        double velocidad = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+        ReplayServer server = new ReplayServer(SessionLog.leer(Paths.get(args[0])), velocidad);
+        int real = server.start(port);
+        System.out.println("Reproduciendo " + args[0] + " en el puerto " + real + " (velocidad " + velocidad + ")");
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,447 @@
+package com.elorrieta.elores.server;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.elorrieta.elores.model.Alumno;
+import com.elorrieta.elores.model.Horario;
+import com.elorrieta.elores.model.Reunion;
+import com.elorrieta.elores.model.Usuario;
+import com.elorrieta.elores.security.PasswordEncryptor;
+
+/**
+ * Datos en memoria que sirve el servidor local de pruebas
+ * Todos los accesos están sincronizados sobre la propia instancia
+ *
+ * Los cambios de reuniones y horarios se comunican a los observadores fuera del
+ * bloqueo, para que el servidor pueda enviar avisos sin frenar otras consultas.
+ */
+public class SchoolData {
+    private static final String[] DIAS = {"LUNES", "MARTES", "MIERCOLES", "JUEVES", "VIERNES"};
+    private static final String[] MODULOS = {"Programación", "Bases de Datos", "Entornos", "Sistemas", "Inglés"};
+    private static final String[] NOMBRES = {"Mikel", "Leire", "Unai", "Nerea", "Iker", "Maialen", "Ane", "Jon",
+        "Aitor", "Irati", "Gorka", "Uxue", "Asier", "Amaia", "Ibai", "June"};
+    private static final String[] APELLIDOS = {"Etxeberria", "Agirre", "Larrañaga", "Goikoetxea", "Zubizarreta",
+        "Urrutia", "Arrieta", "Bengoetxea", "Iturbe", "Otxoa", "Garmendia", "Elorza"};
+    private static final String[] ESTADOS = {"pendiente", "aceptada", "denegada", "cancelada"};
+
+    private final List<Usuario> profesores = new ArrayList<>();
+    private final Map<Integer, Alumno> alumnos = new HashMap<>(); // id -> alumno
+    private final Map<Integer, Reunion> reuniones = new HashMap<>(); // id -> reunión
+    private final Map<String, String> passwords = new HashMap<>(); // email -> hash bcrypt
+    private final Map<String, String> hashes = new HashMap<>(); // contraseña -> hash ya calculado
+    private final Map<Integer, List<Integer>> alumnosPorProfesor = new HashMap<>();
+    // Índices por profesor para que las consultas no recorran miles de registros
+    private final Map<Integer, List<Horario>> horariosPorProfesor = new HashMap<>();
+    private final Map<Integer, List<Reunion>> reunionesPorProfesor = new HashMap<>();
+    private int siguienteIdReunion = 1;
+
+    // Registro de cambios de reuniones para la sincronización incremental
+    private static final int MAX_BORRADAS = 1000;
+    private long secuencia;
+    private final Map<Integer, Long> secuenciaReunion = new HashMap<>();
+    private final List<Borrada> borradas = new ArrayList<>();
+    private long secuenciaMinima; // cursores anteriores ya no tienen todos sus borrados
+
+    private final List<Observador> observadores = new CopyOnWriteArrayList<>();
+
+    /**
+     * Recibe los cambios de datos que interesan a los clientes suscritos
+     */
+    public interface Observador {
+        default void reunionCambiada(Reunion reunion) {
+        }
+
+        default void reunionBorrada(Reunion reunion) {
+        }
+
+        default void horarioCambiado(int profesorId) {
+        }
+    }
+
+    /**
+     * Reunión eliminada, recordada para informar a los clientes que sincronizan por cursor
+     */
+    private static class Borrada {
+        private final int idReunion;
+        private final Integer profesorId;
+        private final long secuencia;
+
+        Borrada(int idReunion, Integer profesorId, long secuencia) {
+            this.idReunion = idReunion;
+            this.profesorId = profesorId;
+            this.secuencia = secuencia;
+        }
+    }
+
+    /**
+     * Cambios de reuniones de un profesor desde una secuencia dada
+     */
+    public static class CambiosReuniones {
+        public final List<Reunion> cambiadas = new ArrayList<>();
+        public final List<Integer> eliminadas = new ArrayList<>();
+        public long secuencia;
+        public boolean completa;
+    }
+
+    /**
+     * Conjunto pequeño de ejemplo: dos profesores con horario, alumnos y reuniones
+     * Contraseña de todos los usuarios: "1234"
+     */
+    public static SchoolData ejemplo() {
+        SchoolData datos = new SchoolData();
+
+        datos.addProfesor(crearProfesor(1, "Ane", "Etxeberria Goikoetxea", "ane@elorrieta.eus"), "1234");
+        datos.addProfesor(crearProfesor(2, "Jon", "Agirre Larrañaga", "jon@elorrieta.eus"), "1234");
+
+        String[] nombres = {"Mikel", "Leire", "Unai", "Nerea", "Iker", "Maialen"};
+        for (int i = 0; i < nombres.length; i++) {
+            Alumno alumno = new Alumno();
+            alumno.setId(100 + i);
+            alumno.setNombre(nombres[i]);
+            alumno.setApellidos("Ikaslea " + (i + 1));
+            alumno.setEmail(nombres[i].toLowerCase() + "@elorrieta.eus");
+            alumno.setCiclo(i % 2 == 0 ? "DAM" : "DAW");
+            alumno.setCurso(i < 3 ? "1" : "2");
+            alumno.setDni(String.format("%08dX", 45000000 + i));
+            alumno.setTelefono1("6000000" + (10 + i));
+            alumno.setDireccion("Calle Ejemplo " + (i + 1) + ", Bilbao");
+            datos.addAlumno(alumno, i % 2 == 0 ? 1 : 2);
+        }
+
+        int id = 1;
+        for (int profe = 1; profe <= 2; profe++) {
+            for (int d = 0; d < DIAS.length; d++) {
+                for (int hora = 1; hora <= 6; hora++) {
+                    if ((d + hora + profe) % 3 == 0) {
+                        continue; // huecos libres
+                    }
+                    Horario horario = new Horario();
+                    horario.setId(id++);
+                    horario.setDia(DIAS[d]);
+                    horario.setHora(hora);
+                    horario.setProfeId(profe);
+                    horario.setModuloId((d + hora) % MODULOS.length + 1);
+                    horario.setModuloNombre(MODULOS[(d + hora) % MODULOS.length]);
+                    horario.setAula("A" + (100 + d * 10 + hora));
+                    datos.guardarHorario(horario);
+                }
+            }
+        }
+
+        LocalDate lunes = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        datos.crearReunion(1, 100, "Tutoría", "Seguimiento del curso", "A101", lunes.atTime(9, 0), "pendiente");
+        datos.crearReunion(1, 102, "Evaluación", "Revisión de notas", "A203", lunes.plusDays(2).atTime(11, 0), "aceptada");
+        datos.crearReunion(2, 101, "Proyecto", "Entrega final", "A305", lunes.plusDays(3).atTime(10, 0), "pendiente");
+        return datos;
+    }
+
+    /**
+     * Conjunto sintético para pruebas de carga, siempre igual para la misma semilla
+     *
+     * Los profesores tienen id 1..profesores y email "profesorN@elorrieta.eus" (ver
+     * emailProfesor), todos con contraseña "1234". Cada alumno se asigna a un profesor
+     * al azar y las reuniones caen en la semana actual o la siguiente.
+     * @param semilla Semilla del generador
+     * @param profesores Número de profesores
+     * @param alumnos Número total de alumnos
+     * @param reunionesPorProfesor Reuniones de cada profesor
+     */
+    public static SchoolData generar(long semilla, int profesores, int alumnos, int reunionesPorProfesor) {
+        Random random = new Random(semilla);
+        SchoolData datos = new SchoolData();
+
+        for (int p = 1; p <= profesores; p++) {
+            String nombre = NOMBRES[random.nextInt(NOMBRES.length)];
+            String apellidos = APELLIDOS[random.nextInt(APELLIDOS.length)] + " " + APELLIDOS[random.nextInt(APELLIDOS.length)];
+            datos.addProfesor(crearProfesor(p, nombre, apellidos, emailProfesor(p)), "1234");
+        }
+
+        List<List<Integer>> alumnosDe = new ArrayList<>();
+        for (int p = 0; p < profesores; p++) {
+            alumnosDe.add(new ArrayList<>());
+        }
+        for (int i = 0; i < alumnos; i++) {
+            int id = 1000 + i;
+            Alumno alumno = new Alumno();
+            alumno.setId(id);
+            alumno.setNombre(NOMBRES[random.nextInt(NOMBRES.length)]);
+            alumno.setApellidos(APELLIDOS[random.nextInt(APELLIDOS.length)] + " " + APELLIDOS[random.nextInt(APELLIDOS.length)]);
+            alumno.setEmail("alumno" + id + "@elorrieta.eus");
+            alumno.setCiclo(random.nextBoolean() ? "DAM" : "DAW");
+            alumno.setCurso(random.nextBoolean() ? "1" : "2");
+            alumno.setDni(String.format("%08dX", 40000000 + random.nextInt(10000000)));
+            alumno.setTelefono1(String.valueOf(600000000 + random.nextInt(100000000)));
+            alumno.setDireccion("Calle Ejemplo " + (1 + random.nextInt(200)) + ", Bilbao");
+            int profesorId = profesores > 0 ? 1 + random.nextInt(profesores) : 0;
+            datos.addAlumno(alumno, profesorId);
+            if (profesorId > 0) {
+                alumnosDe.get(profesorId - 1).add(id);
+            }
+        }
+
+        int idHorario = 1;
+        for (int p = 1; p <= profesores; p++) {
+            for (int d = 0; d < DIAS.length; d++) {
+                for (int hora = 1; hora <= 6; hora++) {
+                    if (random.nextInt(3) == 0) {
+                        continue; // huecos libres
+                    }
+                    int modulo = random.nextInt(MODULOS.length);
+                    Horario horario = new Horario();
+                    horario.setId(idHorario++);
+                    horario.setDia(DIAS[d]);
+                    horario.setHora(hora);
+                    horario.setProfeId(p);
+                    horario.setModuloId(modulo + 1);
+                    horario.setModuloNombre(MODULOS[modulo]);
+                    horario.setAula("A" + (100 + random.nextInt(300)));
+                    datos.guardarHorario(horario);
+                }
+            }
+        }
+
+        LocalDate lunes = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        for (int p = 1; p <= profesores; p++) {
+            List<Integer> suyos = alumnosDe.get(p - 1);
+            for (int r = 0; r < reunionesPorProfesor && !suyos.isEmpty(); r++) {
+                int alumnoId = suyos.get(random.nextInt(suyos.size()));
+                LocalDateTime fecha = lunes.plusDays(random.nextInt(12) / 5 * 7 + random.nextInt(5))
+                    .atTime(8 + random.nextInt(7), random.nextBoolean() ? 0 : 30);
+                datos.insertarReunion(p, alumnoId, "Tutoría " + (r + 1), "Seguimiento del curso",
+                    "A" + (100 + random.nextInt(300)), fecha, ESTADOS[random.nextInt(ESTADOS.length)]);
+            }
+        }
+        return datos;
+    }
+
+    /**
+     * Email del profesor con ese id en los datos de generar
+     */
+    public static String emailProfesor(int id) {
+        return "profesor" + id + "@elorrieta.eus";
+    }
+
+    private static Usuario crearProfesor(int id, String nombre, String apellidos, String email) {
+        Usuario profesor = new Usuario();
+        profesor.setId(id);
+        profesor.setNombre(nombre);
+        profesor.setApellidos(apellidos);
+        profesor.setEmail(email);
+        profesor.setUsername(email.substring(0, email.indexOf('@')));
+        profesor.setTipoId(3);
+        profesor.setTipoNombre("profesor");
+        return profesor;
+    }
+
+    public synchronized void addProfesor(Usuario profesor, String password) {
+        profesores.add(profesor);
+        // bcrypt es caro a propósito; se reutiliza el hash para contraseñas repetidas
+        passwords.put(profesor.getEmail(), hashes.computeIfAbsent(password, PasswordEncryptor::hashPassword));
+    }
+
+    public synchronized void addAlumno(Alumno alumno, int profesorId) {
+        alumnos.put(alumno.getId(), alumno);
+        alumnosPorProfesor.computeIfAbsent(profesorId, k -> new ArrayList<>()).add(alumno.getId());
+    }
+
+    public void addHorario(Horario horario) {
+        guardarHorario(horario);
+        for (Observador observador : observadores) {
+            observador.horarioCambiado(horario.getProfeId());
+        }
+    }
+
+    private synchronized void guardarHorario(Horario horario) {
+        horariosPorProfesor.computeIfAbsent(horario.getProfeId(), k -> new ArrayList<>()).add(horario);
+    }
+
+    public void addObservador(Observador observador) {
+        observadores.add(observador);
+    }
+
+    public void removeObservador(Observador observador) {
+        observadores.remove(observador);
+    }
+
+    /**
+     * Devuelve el profesor si las credenciales son correctas, o null
+     * La comprobación bcrypt se hace fuera del bloqueo para no frenar otras consultas
+     */
+    public Usuario autenticar(String email, String password) {
+        String hash;
+        synchronized (this) {
+            hash = email != null ? passwords.get(email) : null;
+        }
+        if (hash == null || password == null || !PasswordEncryptor.checkPassword(password, hash)) {
+            return null;
+        }
+        return buscarPorEmail(email);
+    }
+
+    private synchronized Usuario buscarPorEmail(String email) {
+        for (Usuario profesor : profesores) {
+            if (email.equals(profesor.getEmail())) {
+                return profesor;
+            }
+        }
+        return null;
+    }
+
+    public synchronized Usuario getUsuario(int id) {
+        for (Usuario profesor : profesores) {
+            if (profesor.getId() == id) {
+                return profesor;
+            }
+        }
+        return null;
+    }
+
+    public synchronized List<Usuario> getProfesores() {
+        return new ArrayList<>(profesores);
+    }
+
+    public synchronized List<Horario> getHorarios(int profesorId) {
+        List<Horario> suyos = horariosPorProfesor.get(profesorId);
+        return suyos != null ? new ArrayList<>(suyos) : new ArrayList<>();
+    }
+
+    public synchronized List<Reunion> getReuniones(int profesorId) {
+        List<Reunion> suyas = reunionesPorProfesor.get(profesorId);
+        return suyas != null ? new ArrayList<>(suyas) : new ArrayList<>();
+    }
+
+    public synchronized List<Alumno> getAlumnos(int profesorId) {
+        List<Integer> ids = alumnosPorProfesor.get(profesorId);
+        List<Alumno> resultado = new ArrayList<>();
+        if (ids != null) {
+            for (Integer id : ids) {
+                resultado.add(alumnos.get(id));
+            }
+        }
+        return resultado;
+    }
+
+    public synchronized Alumno getAlumno(int alumnoId) {
+        return alumnos.get(alumnoId);
+    }
+
+    public Reunion crearReunion(int profesorId, int alumnoId, String titulo, String asunto,
+                                String aula, LocalDateTime fecha, String estado) {
+        Reunion reunion = insertarReunion(profesorId, alumnoId, titulo, asunto, aula, fecha, estado);
+        for (Observador observador : observadores) {
+            observador.reunionCambiada(reunion);
+        }
+        return reunion;
+    }
+
+    private synchronized Reunion insertarReunion(int profesorId, int alumnoId, String titulo, String asunto,
+                                                 String aula, LocalDateTime fecha, String estado) {
+        Reunion reunion = new Reunion();
+        reunion.setIdReunion(siguienteIdReunion++);
+        reunion.setProfesorId(profesorId);
+        reunion.setAlumnoId(alumnoId);
+        reunion.setTitulo(titulo);
+        reunion.setAsunto(asunto);
+        reunion.setAula(aula);
+        reunion.setFecha(fecha);
+        reunion.setEstado(estado);
+        reunion.setCreatedAt(LocalDateTime.now());
+        reunion.setUpdatedAt(reunion.getCreatedAt());
+        if (fecha != null) {
+            int dia = fecha.getDayOfWeek().getValue() - 1;
+            reunion.setDia(dia < DIAS.length ? DIAS[dia] : null);
+            reunion.setHora(Math.max(1, fecha.getHour() - 7));
+        }
+        reuniones.put(reunion.getIdReunion(), reunion);
+        reunionesPorProfesor.computeIfAbsent(profesorId, k -> new ArrayList<>()).add(reunion);
+        secuenciaReunion.put(reunion.getIdReunion(), ++secuencia);
+        return reunion;
+    }
+
+    /**
+     * @return La reunión actualizada, o null si no existe
+     */
+    public Reunion actualizarEstadoReunion(int reunionId, String estado) {
+        Reunion reunion = cambiarEstado(reunionId, estado);
+        if (reunion != null) {
+            for (Observador observador : observadores) {
+                observador.reunionCambiada(reunion);
+            }
+        }
+        return reunion;
+    }
+
+    private synchronized Reunion cambiarEstado(int reunionId, String estado) {
+        Reunion reunion = reuniones.get(reunionId);
+        if (reunion != null) {
+            reunion.setEstado(estado);
+            reunion.setUpdatedAt(LocalDateTime.now());
+            secuenciaReunion.put(reunionId, ++secuencia);
+        }
+        return reunion;
+    }
+
+    public boolean borrarReunion(int reunionId) {
+        Reunion borrada = quitarReunion(reunionId);
+        if (borrada == null) {
+            return false;
+        }
+        for (Observador observador : observadores) {
+            observador.reunionBorrada(borrada);
+        }
+        return true;
+    }
+
+    private synchronized Reunion quitarReunion(int reunionId) {
+        Reunion reunion = reuniones.remove(reunionId);
+        if (reunion == null) {
+            return null;
+        }
+        if (reunion.getProfesorId() != null) {
+            List<Reunion> suyas = reunionesPorProfesor.get(reunion.getProfesorId());
+            if (suyas != null) {
+                suyas.remove(reunion);
+            }
+        }
+        secuenciaReunion.remove(reunionId);
+        borradas.add(new Borrada(reunionId, reunion.getProfesorId(), ++secuencia));
+        if (borradas.size() > MAX_BORRADAS) {
+            secuenciaMinima = borradas.remove(0).secuencia;
+        }
+        return reunion;
+    }
+
+    /**
+     * Reuniones de un profesor creadas, modificadas o borradas después de una secuencia
+     * @param desde Secuencia del cursor del cliente, o -1 para una instantánea completa
+     */
+    public synchronized CambiosReuniones getCambiosReuniones(int profesorId, long desde) {
+        CambiosReuniones cambios = new CambiosReuniones();
+        cambios.secuencia = secuencia;
+        cambios.completa = desde < 0 || desde < secuenciaMinima || desde > secuencia;
+        long umbral = cambios.completa ? -1 : desde;
+
+        for (Reunion reunion : reunionesPorProfesor.getOrDefault(profesorId, new ArrayList<>())) {
+            if (secuenciaReunion.getOrDefault(reunion.getIdReunion(), 0L) > umbral) {
+                cambios.cambiadas.add(reunion);
+            }
+        }
+        if (!cambios.completa) {
+            for (Borrada borrada : borradas) {
+                if (borrada.secuencia > desde && borrada.profesorId != null && borrada.profesorId == profesorId) {
+                    cambios.eliminadas.add(borrada.idReunion);
+                }
+            }
+        }
+        return cambios;
+    }
+}
@@ -0,0 +1,778 @@
+package com.elorrieta.elores.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+
+import com.elorrieta.elores.model.Alumno;
+import com.elorrieta.elores.model.Reunion;
+import com.elorrieta.elores.model.Usuario;
+import com.elorrieta.elores.network.SocketOptions;
+import com.elorrieta.elores.network.TlsTransport;
+import com.elorrieta.elores.protocol.Batch;
+import com.elorrieta.elores.protocol.CommandType;
+import com.elorrieta.elores.protocol.DeltaSync;
+import com.elorrieta.elores.protocol.FieldProjection;
+import com.elorrieta.elores.protocol.Pagination;
+import com.elorrieta.elores.protocol.PayloadFormat;
+import com.elorrieta.elores.protocol.PushEvents;
+import com.elorrieta.elores.protocol.Response;
+import com.elorrieta.elores.protocol.adapter.ProtocolJson;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Servidor local que imita a ElorServ para pruebas y desarrollo sin la base de datos real
+ *
+ * Habla el mismo protocolo de líneas JSON: envía una bienvenida con sus capacidades,
+ * devuelve el requestId de cada petición y entiende BATCH. Un hilo por conexión.
+ * Como ElorServ, fuera de LOGIN, RESUME, PING y DISCONNECT cada petición tiene que
+ * llevar el sessionToken de la sesión asociada a la conexión; las subpeticiones de
+ * un BATCH heredan el de la petición externa.
+ * Las conexiones suscritas con SUBSCRIBE reciben tramas de evento cuando cambian
+ * las reuniones o el horario de su profesor.
+ *
+ * Para pruebas de carga puede añadir a cada petición una latencia aleatoria, contestar
+ * con un error 503 o cortar la conexión sin responder, con las probabilidades que se
+ * configuren. Con una semilla fija la secuencia de sorteos se repite, aunque con varias
+ * conexiones el reparto entre ellas depende del orden de llegada.
+ */
+public class StandInServer {
+    private final SchoolData datos;
+    private final Gson gson = ProtocolJson.gson();
+    private final Set<Socket> clientes = ConcurrentHashMap.newKeySet();
+    private final Map<String, Usuario> sesiones = new ConcurrentHashMap<>(); // token -> usuario
+    private final Set<Sesion> conectadas = ConcurrentHashMap.newKeySet();
+    private final SecureRandom random = new SecureRandom();
+    private ServerSocket serverSocket;
+    private volatile boolean activo;
+    private volatile SocketOptions socketOptions = new SocketOptions();
+
+    // Inyección de latencia y fallos
+    private volatile Random azar = new Random();
+    private volatile long latenciaMinima;
+    private volatile long latenciaMaxima;
+    private volatile double probabilidadError;
+    private volatile double probabilidadCorte;
+
+    public StandInServer(SchoolData datos) {
+        this.datos = datos;
+        datos.addObservador(new SchoolData.Observador() {
+            @Override
+            public void reunionCambiada(Reunion reunion) {
+                publicar(PushEvents.TOPIC_REUNIONES, reunion.getProfesorId(), PushEvents.REUNION_CHANGED, gson.toJsonTree(reunion));
+            }
+
+            @Override
+            public void reunionBorrada(Reunion reunion) {
+                JsonObject data = new JsonObject();
+                data.addProperty("idReunion", reunion.getIdReunion());
+                publicar(PushEvents.TOPIC_REUNIONES, reunion.getProfesorId(), PushEvents.REUNION_DELETED, data);
+            }
+
+            @Override
+            public void horarioCambiado(int profesorId) {
+                JsonObject data = new JsonObject();
+                data.addProperty("profesorId", profesorId);
+                publicar(PushEvents.TOPIC_HORARIO, profesorId, PushEvents.HORARIO_CHANGED, data);
+            }
+        });
+    }
+
+    /**
+     * Arranca el servidor en segundo plano
+     * @param port Puerto de escucha (0 para uno libre)
+     * @return Puerto en el que escucha
+     */
+    public synchronized int start(int port) throws IOException {
+        return start(port, null);
+    }
+
+    /**
+     * Arranca el servidor en segundo plano, cifrado si se indica un contexto TLS
+     * @param tls Contexto con la clave del servidor, o null para texto plano
+     * @return Puerto en el que escucha
+     */
+    public synchronized int start(int port, SSLContext tls) throws IOException {
+        if (tls != null) {
+            SSLServerSocket seguro = (SSLServerSocket) tls.getServerSocketFactory().createServerSocket(port);
+            seguro.setSSLParameters(TlsTransport.parametros(tls));
+            serverSocket = seguro;
+        } else {
+            serverSocket = new ServerSocket(port);
+        }
+        activo = true;
+        Thread aceptador = new Thread(this::aceptar, "StandIn-accept");
+        aceptador.setDaemon(true);
+        aceptador.start();
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Opciones TCP de las conexiones que se acepten a partir de ahora
+     */
+    public void setSocketOptions(SocketOptions socketOptions) {
+        this.socketOptions = socketOptions;
+    }
+
+    /**
+     * Retrasa cada petición un tiempo aleatorio entre los dos valores (0, 0 sin retraso)
+     */
+    public void configureLatency(long minMillis, long maxMillis) {
+        this.latenciaMinima = Math.max(0, minMillis);
+        this.latenciaMaxima = Math.max(latenciaMinima, maxMillis);
+    }
+
+    /**
+     * Probabilidades de fallo por petición, entre 0 y 1
+     * @param error Contestar con un error 503 en lugar de ejecutar el comando
+     * @param corte Cerrar la conexión sin contestar
+     */
+    public void configureFailures(double error, double corte) {
+        this.probabilidadError = error;
+        this.probabilidadCorte = corte;
+    }
+
+    /**
+     * Semilla de los sorteos de latencia y fallos
+     */
+    public void setSeed(long semilla) {
+        this.azar = new Random(semilla);
+    }
+
+    public int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : -1;
+    }
+
+    /**
+     * Detiene el servidor y cierra las conexiones abiertas
+     */
+    public synchronized void stop() {
+        activo = false;
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error cerrando servidor: " + e.getMessage());
+        }
+        for (Socket cliente : clientes) {
+            try {
+                cliente.close();
+            } catch (IOException e) {
+                // ya cerrado
+            }
+        }
+        clientes.clear();
+    }
+
+    private void aceptar() {
+        while (activo) {
+            try {
+                Socket cliente = serverSocket.accept();
+                socketOptions.aplicar(cliente);
+                clientes.add(cliente);
+                Thread hilo = new Thread(() -> atenderConexion(cliente), "StandIn-client-" + cliente.getPort());
+                hilo.setDaemon(true);
+                hilo.start();
+            } catch (IOException e) {
+                if (activo) {
+                    System.err.println("Error aceptando conexión: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Bucle de una conexión: bienvenida y una respuesta por cada línea recibida
+     */
+    private void atenderConexion(Socket cliente) {
+        try (Socket socket = cliente;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+
+            Sesion sesion = new Sesion(out);
+            conectadas.add(sesion);
+            try {
+                atenderPeticiones(in, sesion);
+            } finally {
+                conectadas.remove(sesion);
+            }
+        } catch (SocketException e) {
+            // el cliente cerró la conexión
+        } catch (IOException e) {
+            System.err.println("Error en conexión de cliente: " + e.getMessage());
+        } finally {
+            clientes.remove(cliente);
+        }
+    }
+
+    private void atenderPeticiones(BufferedReader in, Sesion sesion) throws IOException {
+        sesion.enviar(bienvenida());
+
+        String linea;
+        while ((linea = in.readLine()) != null) {
+            if (linea.isEmpty()) {
+                continue;
+            }
+            JsonObject respuesta;
+            JsonElement requestId = JsonNull.INSTANCE;
+            try {
+                JsonObject peticion = JsonParser.parseString(linea).getAsJsonObject();
+                if (peticion.has("requestId")) {
+                    requestId = peticion.get("requestId");
+                }
+                if (sortear(probabilidadCorte)) {
+                    break; // corte inyectado: se cierra sin responder
+                }
+                retrasar();
+                respuesta = sortear(probabilidadError)
+                    ? error(503, "Fallo inyectado por el servidor local")
+                    : ejecutar(leerAccion(peticion), leerPayload(peticion), texto(peticion, "ifNoneMatch"),
+                        texto(peticion, "sessionToken"), sesion);
+            } catch (JsonParseException | IllegalStateException e) {
+                respuesta = error(400, "Petición no válida: " + e.getMessage());
+            }
+            if (!requestId.isJsonNull()) {
+                respuesta.add("requestId", requestId);
+            }
+            sesion.enviar(respuesta);
+
+            if (sesion.desconectar) {
+                break;
+            }
+        }
+    }
+
+    private boolean sortear(double probabilidad) {
+        return probabilidad > 0 && azar.nextDouble() < probabilidad;
+    }
+
+    /**
+     * Espera la latencia inyectada; el hilo de la conexión no atiende nada mientras tanto
+     */
+    private void retrasar() throws InterruptedIOException {
+        long minima = latenciaMinima;
+        long maxima = latenciaMaxima;
+        if (maxima <= 0) {
+            return;
+        }
+        long espera = minima + (maxima > minima ? (long) (azar.nextDouble() * (maxima - minima + 1)) : 0);
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Conexión interrumpida");
+        }
+    }
+
+    /**
+     * Envía una trama de evento a las conexiones suscritas al tema del profesor indicado
+     */
+    private void publicar(String tema, Integer profesorId, String evento, JsonElement data) {
+        if (profesorId == null) {
+            return;
+        }
+        JsonObject trama = new JsonObject();
+        trama.addProperty("event", evento);
+        trama.add("data", data);
+        for (Sesion sesion : conectadas) {
+            Usuario usuario = sesion.usuario;
+            if (usuario != null && usuario.getId() == profesorId && sesion.temas.contains(tema)) {
+                try {
+                    sesion.enviar(trama);
+                } catch (IOException e) {
+                    // la conexión se está cerrando; su hilo la retirará
+                }
+            }
+        }
+    }
+
+    private JsonObject bienvenida() {
+        JsonArray capacidades = new JsonArray();
+        capacidades.add(PayloadFormat.CAPABILITY);
+        capacidades.add(Batch.CAPABILITY);
+        capacidades.add(DeltaSync.CAPABILITY);
+        capacidades.add(PushEvents.CAPABILITY);
+        capacidades.add(Pagination.CAPABILITY);
+        capacidades.add(FieldProjection.CAPABILITY);
+        JsonObject data = new JsonObject();
+        data.add("capabilities", capacidades);
+
+        JsonObject welcome = ok(data);
+        welcome.addProperty("message", "Bienvenido al servidor local ElorES");
+        return welcome;
+    }
+
+    private CommandType leerAccion(JsonObject peticion) {
+        try {
+            return CommandType.valueOf(peticion.get("action").getAsString());
+        } catch (RuntimeException e) {
+            return CommandType.OTHER;
+        }
+    }
+
+    /**
+     * Acepta el payload como objeto embebido o como cadena JSON (protocolo original)
+     */
+    private JsonObject leerPayload(JsonObject peticion) {
+        JsonElement payload = peticion.get("payload");
+        if (payload == null || payload.isJsonNull()) {
+            return new JsonObject();
+        }
+        if (payload.isJsonPrimitive()) {
+            String texto = payload.getAsString();
+            return texto.isEmpty() ? new JsonObject() : JsonParser.parseString(texto).getAsJsonObject();
+        }
+        return payload.getAsJsonObject();
+    }
+
+    /**
+     * Ejecuta un comando y construye la respuesta (sin requestId)
+     * @param ifNoneMatch Versión que ya tiene el cliente, o null
+     * @param token sessionToken que trae la petición, o null
+     */
+    private JsonObject ejecutar(CommandType accion, JsonObject payload, String ifNoneMatch, String token, Sesion sesion) {
+        switch (accion) {
+            case LOGIN:
+                return login(payload, sesion);
+            case RESUME:
+                return reanudar(payload, sesion);
+            case DISCONNECT:
+                if (sesion.token != null) {
+                    sesiones.remove(sesion.token);
+                }
+                sesion.desconectar = true;
+                return ok(null);
+            case PING:
+                return ok(null);
+            case BATCH:
+                return batch(payload, token, sesion);
+            default:
+                break;
+        }
+
+        if (sesion.usuario == null) {
+            return error(401, "Sesión no iniciada");
+        }
+        // El token tiene que seguir vivo y ser el de la sesión de esta conexión
+        Usuario propietario = token != null ? sesiones.get(token) : null;
+        if (propietario == null || propietario.getId() != sesion.usuario.getId()) {
+            return error(401, "Sesión caducada o no válida");
+        }
+
+        switch (accion) {
+            case SUBSCRIBE:
+                return suscribir(payload, sesion, true);
+            case UNSUBSCRIBE:
+                return suscribir(payload, sesion, false);
+            case GET_HORARIO:
+                return versionado(gson.toJsonTree(datos.getHorarios(entero(payload, "profesorId", sesion.usuario.getId()))), ifNoneMatch);
+            case GET_REUNIONES:
+                return reuniones(payload, sesion);
+            case GET_PROFESORES:
+                return versionado(paginar(datos.getProfesores(), Usuario::getId, payload), ifNoneMatch);
+            case GET_ALUMNOS:
+                return alumnos(payload, ifNoneMatch, sesion);
+            case GET_PERFIL:
+                Usuario perfil = datos.getUsuario(entero(payload, "userId", sesion.usuario.getId()));
+                return perfil != null ? ok(proyectar(gson.toJsonTree(perfil), payload)) : error(404, "Usuario no encontrado");
+            case UPDATE_PERFIL:
+                return ok(gson.toJsonTree(sesion.usuario));
+            case CREATE_REUNION:
+                return crearReunion(payload, sesion);
+            case UPDATE_REUNION:
+                Reunion actualizada = datos.actualizarEstadoReunion(entero(payload, "reunionId", -1), texto(payload, "estado"));
+                return actualizada != null ? ok(gson.toJsonTree(actualizada)) : error(404, "Reunión no encontrada");
+            case DELETE_REUNION:
+                return datos.borrarReunion(entero(payload, "reunionId", -1)) ? ok(null) : error(404, "Reunión no encontrada");
+            default:
+                return error(400, "Comando no soportado: " + accion);
+        }
+    }
+
+    private JsonObject login(JsonObject payload, Sesion sesion) {
+        Usuario usuario = datos.autenticar(texto(payload, "email"), texto(payload, "password"));
+        if (usuario == null) {
+            return error(401, "Credenciales incorrectas");
+        }
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sesiones.put(token, usuario);
+
+        sesion.usuario = usuario;
+        sesion.token = token;
+        JsonObject respuesta = ok(gson.toJsonTree(usuario));
+        respuesta.addProperty("sessionToken", token);
+        return respuesta;
+    }
+
+    /**
+     * Asocia la conexión a una sesión existente sin repetir la verificación de la contraseña
+     */
+    private JsonObject reanudar(JsonObject payload, Sesion sesion) {
+        String token = texto(payload, "sessionToken");
+        Usuario usuario = token != null ? sesiones.get(token) : null;
+        if (usuario == null) {
+            return error(401, "Sesión caducada o no válida");
+        }
+        sesion.usuario = usuario;
+        sesion.token = token;
+        return ok(gson.toJsonTree(usuario));
+    }
+
+    /**
+     * Apunta o borra la conexión de los temas de la lista "topics"
+     */
+    private JsonObject suscribir(JsonObject payload, Sesion sesion, boolean alta) {
+        if (!payload.has("topics") || !payload.get("topics").isJsonArray()) {
+            return error(400, "Falta la lista de temas");
+        }
+        for (JsonElement tema : payload.getAsJsonArray("topics")) {
+            if (alta) {
+                sesion.temas.add(tema.getAsString());
+            } else {
+                sesion.temas.remove(tema.getAsString());
+            }
+        }
+        return ok(null);
+    }
+
+    private JsonObject alumnos(JsonObject payload, String ifNoneMatch, Sesion sesion) {
+        if (payload.has("alumnoId")) {
+            Alumno alumno = datos.getAlumno(entero(payload, "alumnoId", -1));
+            return alumno != null ? ok(proyectar(gson.toJsonTree(alumno), payload)) : error(404, "Alumno no encontrado");
+        }
+        List<Alumno> alumnos = datos.getAlumnos(entero(payload, "profesorId", sesion.usuario.getId()));
+        String ciclo = texto(payload, "ciclo");
+        String curso = texto(payload, "curso");
+        if (ciclo != null || curso != null) {
+            List<Alumno> filtrados = new ArrayList<>();
+            for (Alumno alumno : alumnos) {
+                if ((ciclo == null || ciclo.equalsIgnoreCase(alumno.getCiclo()))
+                        && (curso == null || sinOrdinal(curso).equalsIgnoreCase(sinOrdinal(alumno.getCurso())))) {
+                    filtrados.add(alumno);
+                }
+            }
+            alumnos = filtrados;
+        }
+        return versionado(paginar(alumnos, Alumno::getId, payload), ifNoneMatch);
+    }
+
+    private static String sinOrdinal(String curso) {
+        return curso != null ? curso.replace("º", "") : "";
+    }
+
+    /**
+     * Lista completa, o una página si la petición trae "limit"
+     * El cursor es el último id entregado (en base64), así una inserción no desplaza las páginas
+     */
+    private <T> JsonElement paginar(List<T> lista, ToIntFunction<T> id, JsonObject payload) {
+        if (!payload.has(Pagination.LIMIT)) {
+            return proyectar(gson.toJsonTree(lista), payload);
+        }
+        int limit = Math.max(1, entero(payload, Pagination.LIMIT, Pagination.DEFAULT_LIMIT));
+        int despuesDe = Integer.MIN_VALUE;
+        String cursor = texto(payload, Pagination.CURSOR);
+        if (cursor != null) {
+            try {
+                despuesDe = Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                despuesDe = Integer.MIN_VALUE; // cursor no válido: desde el principio
+            }
+        }
+
+        List<T> ordenada = new ArrayList<>(lista);
+        ordenada.sort(Comparator.comparingInt(id));
+        List<T> items = new ArrayList<>();
+        boolean hayMas = false;
+        for (T elemento : ordenada) {
+            if (id.applyAsInt(elemento) <= despuesDe) {
+                continue;
+            }
+            if (items.size() == limit) {
+                hayMas = true;
+                break;
+            }
+            items.add(elemento);
+        }
+
+        JsonObject pagina = new JsonObject();
+        pagina.add(Pagination.ITEMS, proyectar(gson.toJsonTree(items), payload));
+        if (hayMas) {
+            String ultimo = String.valueOf(id.applyAsInt(items.get(items.size() - 1)));
+            pagina.addProperty(Pagination.NEXT_CURSOR,
+                Base64.getUrlEncoder().withoutPadding().encodeToString(ultimo.getBytes(StandardCharsets.UTF_8)));
+        }
+        return pagina;
+    }
+
+    /**
+     * Deja en cada registro solo los campos de la lista "fields", si la hay
+     */
+    private static JsonElement proyectar(JsonElement data, JsonObject payload) {
+        if (!payload.has(FieldProjection.FIELDS) || !payload.get(FieldProjection.FIELDS).isJsonArray()) {
+            return data;
+        }
+        Set<String> campos = new HashSet<>();
+        for (JsonElement campo : payload.getAsJsonArray(FieldProjection.FIELDS)) {
+            campos.add(campo.getAsString());
+        }
+        if (data.isJsonArray()) {
+            JsonArray proyectados = new JsonArray();
+            for (JsonElement registro : data.getAsJsonArray()) {
+                proyectados.add(proyectar(registro, campos));
+            }
+            return proyectados;
+        }
+        return proyectar(data, campos);
+    }
+
+    private static JsonElement proyectar(JsonElement registro, Set<String> campos) {
+        if (!registro.isJsonObject()) {
+            return registro;
+        }
+        JsonObject proyectado = new JsonObject();
+        for (Map.Entry<String, JsonElement> campo : registro.getAsJsonObject().entrySet()) {
+            if (campos.contains(campo.getKey())) {
+                proyectado.add(campo.getKey(), campo.getValue());
+            }
+        }
+        return proyectado;
+    }
+
+    /**
+     * Lista completa de reuniones o, si la petición trae "since", solo los cambios desde ese cursor
+     */
+    private JsonObject reuniones(JsonObject payload, Sesion sesion) {
+        int profesorId = entero(payload, "profesorId", sesion.usuario.getId());
+        if (!payload.has(DeltaSync.SINCE)) {
+            return ok(gson.toJsonTree(datos.getReuniones(profesorId)));
+        }
+
+        long desde;
+        try {
+            String cursor = texto(payload, DeltaSync.SINCE);
+            desde = cursor == null || cursor.isEmpty() ? -1 : Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            desde = -1; // cursor desconocido: se manda todo
+        }
+
+        SchoolData.CambiosReuniones cambios = datos.getCambiosReuniones(profesorId, desde);
+        JsonObject data = new JsonObject();
+        data.add(DeltaSync.CHANGED, gson.toJsonTree(cambios.cambiadas));
+        data.add(DeltaSync.DELETED, gson.toJsonTree(cambios.eliminadas));
+        data.addProperty(DeltaSync.CURSOR, Long.toString(cambios.secuencia));
+        data.addProperty(DeltaSync.FULL, cambios.completa);
+        return ok(data);
+    }
+
+    /**
+     * Respuesta con versión de contenido: 304 sin data si el cliente ya tiene esa versión
+     */
+    private JsonObject versionado(JsonElement data, String ifNoneMatch) {
+        String version = version(data);
+        JsonObject respuesta;
+        if (version.equals(ifNoneMatch)) {
+            respuesta = new JsonObject();
+            respuesta.add("status", estado(Response.NOT_MODIFIED, "NOT_MODIFIED"));
+            respuesta.addProperty("message", "Sin cambios");
+        } else {
+            respuesta = ok(data);
+        }
+        respuesta.addProperty("version", version);
+        return respuesta;
+    }
+
+    /**
+     * Versión del contenido: resumen SHA-256 de su forma serializada
+     */
+    private static String version(JsonElement data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(data.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 12));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JsonObject crearReunion(JsonObject payload, Sesion sesion) {
+        LocalDateTime fecha;
+        try {
+            fecha = LocalDateTime.parse(texto(payload, "fecha"));
+        } catch (RuntimeException e) {
+            return error(400, "Fecha no válida");
+        }
+        Reunion reunion = datos.crearReunion(
+            entero(payload, "profesorId", sesion.usuario.getId()),
+            entero(payload, "alumnoId", -1),
+            texto(payload, "titulo"),
+            texto(payload, "asunto"),
+            texto(payload, "aula"),
+            fecha,
+            "pendiente");
+        return ok(gson.toJsonTree(reunion));
+    }
+
+    /**
+     * Ejecuta las subpeticiones en orden y devuelve sus respuestas en un array
+     */
+    private JsonObject batch(JsonObject payload, String token, Sesion sesion) {
+        if (!payload.has("requests") || !payload.get("requests").isJsonArray()) {
+            return error(400, "BATCH sin lista de peticiones");
+        }
+        JsonArray respuestas = new JsonArray();
+        for (JsonElement elemento : payload.getAsJsonArray("requests")) {
+            JsonObject sub = elemento.getAsJsonObject();
+            CommandType accion = leerAccion(sub);
+            if (accion == CommandType.BATCH) {
+                respuestas.add(error(400, "BATCH anidado no permitido"));
+                continue;
+            }
+            respuestas.add(ejecutar(accion, leerPayload(sub), texto(sub, "ifNoneMatch"), token, sesion));
+        }
+        return ok(respuestas);
+    }
+
+    private static int entero(JsonObject payload, String campo, int porDefecto) {
+        JsonElement valor = payload.get(campo);
+        return valor != null && valor.isJsonPrimitive() ? valor.getAsInt() : porDefecto;
+    }
+
+    private static String texto(JsonObject payload, String campo) {
+        JsonElement valor = payload.get(campo);
+        return valor != null && valor.isJsonPrimitive() ? valor.getAsString() : null;
+    }
+
+    private static JsonObject ok(JsonElement data) {
+        JsonObject respuesta = new JsonObject();
+        respuesta.add("status", estado(200, "OK"));
+        respuesta.addProperty("message", "OK");
+        if (data != null) {
+            respuesta.add("data", data);
+        }
+        return respuesta;
+    }
+
+    private static JsonObject error(int codigo, String mensaje) {
+        JsonObject respuesta = new JsonObject();
+        respuesta.add("status", estado(codigo, "ERROR"));
+        respuesta.addProperty("message", mensaje);
+        return respuesta;
+    }
+
+    private static JsonObject estado(int codigo, String descripcion) {
+        JsonObject status = new JsonObject();
+        status.addProperty("code", codigo);
+        status.addProperty("description", descripcion);
+        return status;
+    }
+
+    /**
+     * Estado de una conexión de cliente
+     */
+    private static class Sesion {
+        private final BufferedWriter out;
+        private final Set<String> temas = ConcurrentHashMap.newKeySet();
+        private volatile Usuario usuario;
+        private String token;
+        private boolean desconectar;
+
+        Sesion(BufferedWriter out) {
+            this.out = out;
+        }
+
+        /**
+         * Escribe una trama completa; respuestas y eventos comparten el mismo flujo
+         */
+        synchronized void enviar(JsonObject trama) throws IOException {
+            out.write(trama.toString());
+            out.write('\n');
+            out.flush();
+        }
+    }
+
+    /**
+     * Arranca el servidor local: java ... StandInServer [puerto] [almacen.p12 clave] [opcion=valor ...]
+     * Con un almacén de claves escucha con TLS. Opciones:
+     * - profesores=N alumnos=N reuniones=N semilla=N: datos sintéticos (SchoolData.generar)
+     *   en lugar del conjunto de ejemplo; reuniones es por profesor
+     * - latencia=MIN-MAX (ms), error=P, corte=P: inyección de latencia y fallos
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<String> posicionales = new ArrayList<>();
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual > 0) {
+                opciones.put(arg.substring(0, igual), arg.substring(igual + 1));
+            } else {
+                posicionales.add(arg);
+            }
+        }
+        int port = posicionales.size() > 0 ? Integer.parseInt(posicionales.get(0)) : 9000;
+        SSLContext tls = posicionales.size() > 2
+            ? TlsTransport.contextoServidor(posicionales.get(1), posicionales.get(2).toCharArray())
+            : null;
+
+        long semilla = Long.parseLong(opciones.getOrDefault("semilla", "42"));
+        SchoolData datos;
+        if (opciones.containsKey("profesores")) {
+            int profesores = Integer.parseInt(opciones.get("profesores"));
+            datos = SchoolData.generar(semilla,
+                profesores,
+                Integer.parseInt(opciones.getOrDefault("alumnos", String.valueOf(profesores * 25))),
+                Integer.parseInt(opciones.getOrDefault("reuniones", "10")));
+        } else {
+            datos = SchoolData.ejemplo();
+        }
+
+        StandInServer server = new StandInServer(datos);
+        server.setSeed(semilla);
+        String latencia = opciones.get("latencia");
+        if (latencia != null) {
+            int guion = latencia.indexOf('-');
+            server.configureLatency(Long.parseLong(guion > 0 ? latencia.substring(0, guion) : latencia),
+                Long.parseLong(guion > 0 ? latencia.substring(guion + 1) : latencia));
+        }
+        server.configureFailures(Double.parseDouble(opciones.getOrDefault("error", "0")),
+            Double.parseDouble(opciones.getOrDefault("corte", "0")));
+
+        int real = server.start(port, tls);
+        System.out.println("Servidor local ElorES escuchando en el puerto " + real + (tls != null ? " (TLS)" : ""));
+        Thread.currentThread().join();
+    }
+}
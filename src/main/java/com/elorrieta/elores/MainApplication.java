@@ -1,12 +1,18 @@
 package com.elorrieta.elores;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+
 import javax.swing.JFrame;
+import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 
 import com.elorrieta.elores.config.AppConfig;
 import com.elorrieta.elores.controller.NavigationController;
+import com.elorrieta.elores.network.ProtocolLogger;
 import com.elorrieta.elores.network.SocketClient;
+import com.elorrieta.elores.service.AuthService;
 import com.elorrieta.elores.view.LoginPanel;
 import com.formdev.flatlaf.FlatLightLaf;
 
@@ -20,6 +26,29 @@ public class MainApplication {
     private static final int WINDOW_HEIGHT = 500;
 
     public static void main(String[] args) {
+        // Configurar cliente de sockets desde archivo de configuración
+        AppConfig config = AppConfig.getInstance();
+        ProtocolLogger.getInstance().setNivel(config.getProtocolLogLevel());
+        ProtocolLogger.getInstance().configureFlightRecorder(config.getFlightRecorderSize());
+        SocketClient.getInstance().configure(config.getServerHost(), config.getServerPort());
+        SocketClient.getInstance().setTransportType(config.getTransportType());
+        SocketClient.getInstance().setSocketOptions(config.getSocketOptions());
+        SocketClient.getInstance().configureHeartbeat(config.getHeartbeatIntervalMillis(), config.getHeartbeatTimeoutMillis());
+        SocketClient.getInstance().configureReconnect(config.getReconnectBackoffMinMillis(), config.getReconnectBackoffMaxMillis());
+        SocketClient.getInstance().configureDeadlines(config.getDeadlineMillis(), config.getDeadlinesPorComando());
+        
+        if (config.getRecordingFile() != null) {
+            try {
+                SocketClient.getInstance().startRecording(Paths.get(config.getRecordingFile()));
+                System.out.println("Grabando la sesión del protocolo en " + config.getRecordingFile());
+            } catch (IOException e) {
+                System.err.println("No se pudo iniciar la grabación: " + e.getMessage());
+            }
+        }
+        
+        // Conexión y bienvenida en segundo plano mientras se prepara la ventana de login
+        SocketClient.getInstance().preconnect();
+        
         // Establecer Look and Feel moderno
         try {
             FlatLightLaf.setup();
@@ -27,12 +56,9 @@ public class MainApplication {
             System.err.println("No se pudo cargar FlatLaf, usando Look and Feel por defecto");
         }
         
-        // Configurar cliente de sockets desde archivo de configuración
-        AppConfig config = AppConfig.getInstance();
-        SocketClient.getInstance().configure(config.getServerHost(), config.getServerPort());
-        
         System.out.println("=== ElorES - Framework Educativo Elorrieta ===");
-        System.out.println("Configuración del servidor: " + config.getServerHost() + ":" + config.getServerPort());
+        System.out.println("Configuración del servidor: " + config.getServerHost() + ":" + config.getServerPort()
+            + " (transporte " + config.getTransportType().name().toLowerCase() + ")");
         
         // Iniciar la aplicación en el hilo de eventos de Swing
         SwingUtilities.invokeLater(() -> {
@@ -60,9 +86,19 @@ public class MainApplication {
         LoginPanel loginPanel = new LoginPanel();
         mainFrame.add(loginPanel);
         
+        // Si el servidor rechaza la sesión tras una reconexión, se vuelve al login
+        AuthService.getInstance().addSessionListener(motivo -> SwingUtilities.invokeLater(() -> {
+            navigationController.navigateTo(new LoginPanel());
+            JOptionPane.showMessageDialog(mainFrame,
+                "La sesión ha terminado (" + motivo + "). Vuelve a iniciar sesión.",
+                "Sesión terminada",
+                JOptionPane.WARNING_MESSAGE);
+        }));
+        
         // Agregar hook de cierre para limpiar recursos
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             SocketClient.getInstance().disconnect();
+            SocketClient.getInstance().stopRecording();
         }));
         
         // Mostrar la ventana
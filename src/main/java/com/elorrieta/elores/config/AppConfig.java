@@ -2,8 +2,17 @@ package com.elorrieta.elores.config;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
 
+import com.elorrieta.elores.network.ProtocolLogger;
+import com.elorrieta.elores.network.SocketOptions;
+import com.elorrieta.elores.network.TlsTransport;
+import com.elorrieta.elores.network.TransportType;
+import com.elorrieta.elores.protocol.CommandType;
+
 /**
  * Gestión de configuración de la aplicación
  */
@@ -49,4 +58,103 @@ public class AppConfig {
     public int getServerPort() {
         return Integer.parseInt(properties.getProperty("server.port", "9999"));
     }
+    
+    /**
+     * Transporte de red: "blocking" (java.net.Socket), "nio" (SocketChannel + Selector)
+     * o "tls" (SSLSocket)
+     */
+    public TransportType getTransportType() {
+        return TransportType.fromString(properties.getProperty("network.transport", "blocking"));
+    }
+    
+    /**
+     * Opciones TCP del socket con el servidor (network.socket.*)
+     */
+    public SocketOptions getSocketOptions() {
+        SocketOptions opciones = new SocketOptions();
+        opciones.setTcpNoDelay(Boolean.parseBoolean(properties.getProperty("network.socket.tcp.nodelay", "true")));
+        opciones.setKeepAlive(Boolean.parseBoolean(properties.getProperty("network.socket.keepalive", "true")));
+        opciones.setSendBufferSize(Integer.parseInt(properties.getProperty("network.socket.send.buffer", "0")));
+        opciones.setReceiveBufferSize(Integer.parseInt(properties.getProperty("network.socket.receive.buffer", "0")));
+        opciones.setConnectTimeoutMillis(Integer.parseInt(properties.getProperty("network.socket.connect.timeout.ms", "5000")));
+        opciones.setWriteTimeoutMillis(Integer.parseInt(properties.getProperty("network.socket.write.timeout.ms", "10000")));
+        opciones.setReaderBufferSize(Integer.parseInt(properties.getProperty("network.socket.reader.buffer", "0")));
+        if (getTransportType() == TransportType.TLS) {
+            // Un único contexto para toda la sesión: así las reconexiones reanudan la sesión TLS
+            String almacen = properties.getProperty("network.tls.truststore", "").trim();
+            String clave = properties.getProperty("network.tls.truststore.password", "");
+            try {
+                opciones.setSslContext(TlsTransport.contextoCliente(almacen.isEmpty() ? null : almacen, clave.toCharArray()));
+            } catch (IOException e) {
+                System.err.println("Error cargando el almacén TLS, usando los certificados del JVM: " + e.getMessage());
+            }
+        }
+        return opciones;
+    }
+    
+    /**
+     * Intervalo del latido con PING en milisegundos (0 lo desactiva)
+     */
+    public long getHeartbeatIntervalMillis() {
+        return Long.parseLong(properties.getProperty("network.heartbeat.interval.ms", "5000"));
+    }
+    
+    /**
+     * Tiempo sin respuesta al PING tras el que la conexión se da por perdida
+     */
+    public long getHeartbeatTimeoutMillis() {
+        return Long.parseLong(properties.getProperty("network.heartbeat.timeout.ms", "3000"));
+    }
+    
+    public long getReconnectBackoffMinMillis() {
+        return Long.parseLong(properties.getProperty("network.reconnect.backoff.min.ms", "250"));
+    }
+    
+    public long getReconnectBackoffMaxMillis() {
+        return Long.parseLong(properties.getProperty("network.reconnect.backoff.max.ms", "15000"));
+    }
+    
+    /**
+     * Plazo de respuesta de las llamadas al servidor en milisegundos (0 sin límite)
+     */
+    public long getDeadlineMillis() {
+        return Long.parseLong(properties.getProperty("network.deadline.ms", "15000"));
+    }
+    
+    /**
+     * Plazos propios por comando, p. ej. network.deadline.get_alumnos.ms=20000
+     */
+    public Map<CommandType, Long> getDeadlinesPorComando() {
+        Map<CommandType, Long> plazos = new EnumMap<>(CommandType.class);
+        for (CommandType tipo : CommandType.values()) {
+            String valor = properties.getProperty("network.deadline." + tipo.name().toLowerCase(Locale.ROOT) + ".ms");
+            if (valor != null) {
+                plazos.put(tipo, Long.parseLong(valor.trim()));
+            }
+        }
+        return plazos;
+    }
+    
+    /**
+     * Fichero donde grabar la sesión del protocolo para reproducirla después, o null
+     * (con .gz se comprime; contraseñas y tokens se censuran)
+     */
+    public String getRecordingFile() {
+        String fichero = properties.getProperty("network.record.file", "").trim();
+        return fichero.isEmpty() ? null : fichero;
+    }
+    
+    /**
+     * Nivel del log del protocolo: off, error, warn, info, debug o trace
+     */
+    public ProtocolLogger.Nivel getProtocolLogLevel() {
+        return ProtocolLogger.Nivel.fromString(properties.getProperty("log.protocol.level", "off"));
+    }
+    
+    /**
+     * Tramas que guarda el registro en memoria que se vuelca al producirse un error (0 lo desactiva)
+     */
+    public int getFlightRecorderSize() {
+        return Integer.parseInt(properties.getProperty("log.protocol.recorder.size", "64"));
+    }
 }
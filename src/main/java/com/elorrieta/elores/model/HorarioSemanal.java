@@ -0,0 +1,39 @@
+package com.elorrieta.elores.model;
+
+import java.util.List;
+
+/**
+ * DTO que agrupa lo necesario para pintar la vista semanal de un profesor
+ * Se obtiene en un único viaje de ida y vuelta mediante BATCH
+ */
+public class HorarioSemanal {
+    private List<Horario> horarios;
+    private List<Reunion> reuniones;
+    private Pagina<Usuario> profesores; // primera página; null si no se ha pedido
+    
+    public HorarioSemanal() {}
+
+    public List<Horario> getHorarios() {
+        return horarios;
+    }
+
+    public void setHorarios(List<Horario> horarios) {
+        this.horarios = horarios;
+    }
+
+    public List<Reunion> getReuniones() {
+        return reuniones;
+    }
+
+    public void setReuniones(List<Reunion> reuniones) {
+        this.reuniones = reuniones;
+    }
+
+    public Pagina<Usuario> getProfesores() {
+        return profesores;
+    }
+
+    public void setProfesores(Pagina<Usuario> profesores) {
+        this.profesores = profesores;
+    }
+}
@@ -0,0 +1,70 @@
+package com.elorrieta.elores.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DTO con una página de una lista y el cursor para pedir la siguiente
+ * La lista de elementos no se puede modificar: una misma página puede llegar a
+ * varios paneles a la vez a través de ReadCoalescer
+ * @param <T> Tipo de los elementos
+ */
+public class Pagina<T> {
+    private List<T> items;
+    private String nextCursor; // null si es la última página
+    
+    public Pagina() {
+        this.items = Collections.emptyList();
+    }
+    
+    public Pagina(List<T> items, String nextCursor) {
+        this.items = soloLectura(items);
+        this.nextCursor = nextCursor;
+    }
+    
+    /**
+     * Página de una lista ya completa en memoria; el cursor es la posición de inicio
+     * Se usa cuando el servidor no admite paginación
+     */
+    public static <T> Pagina<T> deLista(List<T> todos, String cursor, int limit) {
+        int desde = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                desde = Math.max(0, Math.min(Integer.parseInt(cursor), todos.size()));
+            } catch (NumberFormatException e) {
+                desde = 0;
+            }
+        }
+        int hasta = Math.min(desde + limit, todos.size());
+        return new Pagina<>(new ArrayList<>(todos.subList(desde, hasta)),
+            hasta < todos.size() ? String.valueOf(hasta) : null);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = soloLectura(items);
+    }
+    
+    private static <T> List<T> soloLectura(List<T> items) {
+        return items != null ? Collections.unmodifiableList(items) : null;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    /**
+     * Indica si quedan más páginas por pedir
+     */
+    public boolean hayMas() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.elorrieta.elores.network;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Espera exponencial con jitter entre reintentos de conexión
+ *
+ * El techo se duplica en cada intento (min·2^n, limitado a max) y la espera real
+ * es la mitad del techo más una parte aleatoria, para que muchos clientes que
+ * pierden la red a la vez no reintenten todos al mismo tiempo.
+ */
+public class Backoff {
+    private final long minimoMillis;
+    private final long maximoMillis;
+
+    public Backoff(long minimoMillis, long maximoMillis) {
+        this.minimoMillis = Math.max(1, minimoMillis);
+        this.maximoMillis = Math.max(this.minimoMillis, maximoMillis);
+    }
+
+    /**
+     * @param intento Número de intento, empezando en 0
+     * @return Milisegundos a esperar antes de ese intento
+     */
+    public long espera(int intento) {
+        long techo = Math.min(maximoMillis, minimoMillis << Math.min(Math.max(intento, 0), 30));
+        long mitad = techo / 2;
+        return mitad + ThreadLocalRandom.current().nextLong(techo - mitad + 1);
+    }
+}
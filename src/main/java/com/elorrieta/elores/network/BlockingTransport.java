@@ -0,0 +1,157 @@
+package com.elorrieta.elores.network;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transporte clásico sobre java.net.Socket
+ * Un hilo lector bloqueado en readLine entrega las tramas recibidas
+ *
+ * Una escritura en un socket bloqueante no admite plazo: si el servidor deja de leer
+ * y se llena el buffer de envío, write se queda bloqueado con el cerrojo de escritura
+ * de SocketClient tomado. Un vigilante compartido revisa las escrituras en curso y
+ * cierra la conexión cuando una supera el plazo; la escritura falla con SocketException.
+ */
+public class BlockingTransport implements Transport {
+    private static final ScheduledExecutorService VIGILANTE = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "ElorES-write-watchdog");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private final SocketOptions opciones;
+    private Socket socket;
+    private BufferedReader in;
+    private BufferedWriter out;
+    private FrameListener listener;
+    private final AtomicBoolean cerrado = new AtomicBoolean(false);
+    private volatile long escribiendoDesde; // nanoTime del inicio de la escritura en curso, 0 si no hay
+    private volatile ScheduledFuture<?> vigilancia;
+
+    public BlockingTransport() {
+        this(new SocketOptions());
+    }
+
+    public BlockingTransport(SocketOptions opciones) {
+        this.opciones = opciones;
+    }
+
+    @Override
+    public void open(String host, int port, FrameListener listener) throws IOException {
+        this.listener = listener;
+        socket = conectar(host, port);
+        try {
+            InputStreamReader lector = new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8);
+            in = opciones.getReaderBufferSize() > 0
+                ? new BufferedReader(lector, opciones.getReaderBufferSize())
+                : new BufferedReader(lector);
+            out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+
+        long plazo = opciones.getWriteTimeoutMillis();
+        if (plazo > 0) {
+            long revision = Math.max(10, plazo / 4);
+            vigilancia = VIGILANTE.scheduleWithFixedDelay(() -> vigilarEscritura(plazo), revision, revision, TimeUnit.MILLISECONDS);
+        }
+
+        Thread lector = new Thread(this::leer, "ElorES-socket-reader");
+        lector.setDaemon(true);
+        lector.start();
+    }
+
+    /**
+     * Crea el socket y lo conecta aplicando las opciones
+     * Las subclases pueden envolverlo (p. ej. en un SSLSocket) antes de usarlo
+     */
+    protected Socket conectar(String host, int port) throws IOException {
+        Socket nuevo = new Socket();
+        try {
+            opciones.aplicar(nuevo);
+            nuevo.connect(new InetSocketAddress(host, port), opciones.getConnectTimeoutMillis());
+        } catch (IOException e) {
+            nuevo.close();
+            throw e;
+        }
+        return nuevo;
+    }
+
+    protected SocketOptions getOpciones() {
+        return opciones;
+    }
+
+    @Override
+    public void send(FrameWriter frame) throws IOException {
+        escribiendoDesde = System.nanoTime();
+        try {
+            frame.writeTo(out);
+            out.write('\n');
+            out.flush();
+        } finally {
+            escribiendoDesde = 0;
+        }
+    }
+
+    /**
+     * Cierra la conexión si la escritura en curso lleva más del plazo bloqueada
+     */
+    private void vigilarEscritura(long plazoMillis) {
+        long inicio = escribiendoDesde;
+        if (inicio != 0 && System.nanoTime() - inicio > TimeUnit.MILLISECONDS.toNanos(plazoMillis)) {
+            cerrar(new SocketTimeoutException("Escritura bloqueada más de " + plazoMillis + " ms: el servidor no lee"));
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return socket != null && socket.isConnected() && !socket.isClosed();
+    }
+
+    @Override
+    public void close() {
+        cerrar(new IOException("Conexión cerrada por el cliente"));
+    }
+
+    private void leer() {
+        IOException causa;
+        try {
+            String linea;
+            while ((linea = in.readLine()) != null) {
+                listener.onFrame(linea);
+            }
+            causa = new IOException("El servidor cerró la conexión");
+        } catch (IOException e) {
+            causa = e;
+        }
+        cerrar(causa);
+    }
+
+    private void cerrar(IOException causa) {
+        if (!cerrado.compareAndSet(false, true)) {
+            return;
+        }
+        if (vigilancia != null) {
+            vigilancia.cancel(false);
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar conexión: " + e.getMessage());
+        }
+        listener.onClosed(causa);
+    }
+}
@@ -0,0 +1,24 @@
+package com.elorrieta.elores.network;
+
+import java.io.IOException;
+
+/**
+ * Recibe los cambios de estado de la conexión gestionada por SocketClient
+ * Se invoca desde hilos de red: no hay que bloquear ni tocar Swing directamente
+ */
+public interface ConnectionListener {
+
+    /**
+     * La conexión se ha perdido sin que la cerrara el cliente; ya hay una reconexión en marcha
+     */
+    default void onConnectionLost(IOException cause) {
+    }
+
+    /**
+     * Se ha restablecido la conexión y el servidor ha enviado de nuevo la bienvenida
+     * La conexión no queda lista hasta que terminan todos los oyentes: las peticiones
+     * enviadas desde aquí salen antes que las de cualquier otro hilo, que esperan
+     */
+    default void onReconnected() {
+    }
+}
@@ -0,0 +1,163 @@
+package com.elorrieta.elores.network;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.elorrieta.elores.protocol.PayloadFormat;
+import com.elorrieta.elores.protocol.Request;
+import com.elorrieta.elores.protocol.RequestEncoder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Registro circular en memoria de las últimas tramas del protocolo
+ *
+ * Anotar una trama solo guarda una referencia en una casilla del anillo: no se
+ * copia, no se formatea y no se bloquea. El texto se construye (y se censura)
+ * únicamente al volcar el registro, lo que solo ocurre cuando hay un error.
+ */
+public class FlightRecorder {
+    private static final String CENSURADO = "***";
+
+    private final AtomicReferenceArray<Entrada> anillo;
+    private final AtomicLong siguiente = new AtomicLong();
+
+    /**
+     * Trama anotada: una Request enviada o el texto de una recibida
+     */
+    static class Entrada {
+        private final long instante = System.currentTimeMillis();
+        private final char sentido; // '>' enviada, '<' recibida
+        private final Object contenido;
+
+        Entrada(char sentido, Object contenido) {
+            this.sentido = sentido;
+            this.contenido = contenido;
+        }
+    }
+
+    /**
+     * @param capacidad Número de tramas que se conservan (0 desactiva el registro)
+     */
+    public FlightRecorder(int capacidad) {
+        anillo = new AtomicReferenceArray<>(Math.max(0, capacidad));
+    }
+
+    public int getCapacidad() {
+        return anillo.length();
+    }
+
+    void registrarEnviada(Request request) {
+        anotar(new Entrada('>', request));
+    }
+
+    void registrarRecibida(String trama) {
+        anotar(new Entrada('<', trama));
+    }
+
+    private void anotar(Entrada entrada) {
+        int n = anillo.length();
+        if (n > 0) {
+            anillo.set((int) (siguiente.getAndIncrement() % n), entrada);
+        }
+    }
+
+    /**
+     * Copia de las entradas actuales, de la más antigua a la más reciente
+     * Es barata (solo referencias); el formateo se hace después con formatear()
+     */
+    List<Entrada> instantanea() {
+        int n = anillo.length();
+        List<Entrada> entradas = new ArrayList<>(n);
+        long fin = siguiente.get();
+        for (long i = Math.max(0, fin - n); i < fin; i++) {
+            Entrada entrada = anillo.get((int) (i % n));
+            if (entrada != null) {
+                entradas.add(entrada);
+            }
+        }
+        return entradas;
+    }
+
+    /**
+     * Texto de una instantánea con contraseñas y tokens censurados
+     */
+    static String formatear(String motivo, List<Entrada> entradas) {
+        SimpleDateFormat hora = new SimpleDateFormat("HH:mm:ss.SSS", Locale.ROOT);
+        StringBuilder sb = new StringBuilder();
+        sb.append("--- Registro de protocolo (").append(entradas.size()).append(" tramas): ")
+          .append(motivo).append(" ---").append(System.lineSeparator());
+        for (Entrada entrada : entradas) {
+            sb.append(hora.format(new Date(entrada.instante))).append(' ')
+              .append(entrada.sentido).append(' ')
+              .append(texto(entrada.contenido)).append(System.lineSeparator());
+        }
+        sb.append("--- Fin del registro ---");
+        return sb.toString();
+    }
+
+    private static String texto(Object contenido) {
+        if (contenido instanceof Request) {
+            StringWriter out = new StringWriter();
+            try {
+                RequestEncoder.write((Request) contenido, PayloadFormat.EMBEDDED_JSON, out);
+            } catch (IOException | RuntimeException e) {
+                return "[petición no codificable: " + e.getMessage() + "]";
+            }
+            return censurar(out.toString());
+        }
+        return censurar(String.valueOf(contenido));
+    }
+
+    /**
+     * Sustituye los valores de contraseñas y tokens de una trama JSON
+     * Si la trama no es JSON válido no se muestra, por si contiene algún secreto
+     */
+    public static String censurar(String trama) {
+        try {
+            JsonElement json = JsonParser.parseString(trama);
+            return censurar(json).toString();
+        } catch (RuntimeException e) {
+            return "[trama no JSON de " + trama.length() + " caracteres]";
+        }
+    }
+
+    private static JsonElement censurar(JsonElement elemento) {
+        if (elemento.isJsonObject()) {
+            JsonObject objeto = elemento.getAsJsonObject();
+            for (Map.Entry<String, JsonElement> campo : objeto.entrySet()) {
+                if (esSecreto(campo.getKey())) {
+                    campo.setValue(new JsonPrimitive(CENSURADO));
+                } else {
+                    campo.setValue(censurar(campo.getValue()));
+                }
+            }
+        } else if (elemento.isJsonArray()) {
+            for (int i = 0; i < elemento.getAsJsonArray().size(); i++) {
+                elemento.getAsJsonArray().set(i, censurar(elemento.getAsJsonArray().get(i)));
+            }
+        } else if (elemento.isJsonPrimitive() && elemento.getAsJsonPrimitive().isString()) {
+            // Payload del protocolo original: JSON dentro de una cadena
+            String texto = elemento.getAsString();
+            if (texto.startsWith("{")) {
+                return new JsonPrimitive(censurar(texto));
+            }
+        }
+        return elemento;
+    }
+
+    private static boolean esSecreto(String campo) {
+        String nombre = campo.toLowerCase(Locale.ROOT);
+        return nombre.contains("password") || nombre.contains("token") || nombre.contains("contrasena");
+    }
+}
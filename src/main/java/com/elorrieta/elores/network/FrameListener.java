@@ -0,0 +1,21 @@
+package com.elorrieta.elores.network;
+
+import java.io.IOException;
+
+/**
+ * Receptor de las tramas que entrega un Transport
+ * Los métodos se invocan desde el hilo de E/S del transporte
+ */
+public interface FrameListener {
+
+    /**
+     * Se ha recibido una trama completa (sin el salto de línea)
+     */
+    void onFrame(String frame);
+
+    /**
+     * El transporte se ha cerrado
+     * @param cause Motivo del cierre
+     */
+    void onClosed(IOException cause);
+}
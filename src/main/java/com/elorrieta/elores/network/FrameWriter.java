@@ -0,0 +1,16 @@
+package com.elorrieta.elores.network;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escribe el contenido de una trama directamente en el buffer de salida del transporte
+ */
+@FunctionalInterface
+public interface FrameWriter {
+
+    /**
+     * Escribe la trama sin el salto de línea final
+     */
+    void writeTo(Writer out) throws IOException;
+}
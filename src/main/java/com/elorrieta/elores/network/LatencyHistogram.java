@@ -0,0 +1,109 @@
+package com.elorrieta.elores.network;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubetas fijas de escala logarítmica, sin bloqueos
+ *
+ * Cada potencia de dos de nanosegundos se divide en 8 cubetas lineales, así el error
+ * relativo de un percentil es como mucho del 12,5 % en cualquier rango (estilo HDR).
+ * Registrar es un incremento atómico; los percentiles se calculan al consultar.
+ */
+public class LatencyHistogram {
+    private static final int BITS_SUB = 3;
+    private static final int SUBCUBETAS = 1 << BITS_SUB;
+    // Hasta 2^40 ns (unos 18 minutos); lo que pase de ahí cae en la última cubeta
+    private static final int EXPONENTE_MAX = 40;
+    private static final int CUBETAS = (EXPONENTE_MAX - BITS_SUB + 2) * SUBCUBETAS;
+
+    private final AtomicLongArray cuentas = new AtomicLongArray(CUBETAS);
+    private final LongAdder muestras = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Long::max, 0);
+
+    /**
+     * Registra una muestra
+     * @param nanos Duración en nanosegundos (las negativas cuentan como 0)
+     */
+    public void registrar(long nanos) {
+        long valor = Math.max(0, nanos);
+        cuentas.incrementAndGet(cubeta(valor));
+        muestras.increment();
+        suma.add(valor);
+        maximo.accumulate(valor);
+    }
+
+    public long getMuestras() {
+        return muestras.sum();
+    }
+
+    public double getMediaMillis() {
+        long n = muestras.sum();
+        return n == 0 ? 0 : suma.sum() / (double) n / 1_000_000.0;
+    }
+
+    public double getMaximoMillis() {
+        return maximo.get() / 1_000_000.0;
+    }
+
+    /**
+     * Percentil aproximado (límite superior de su cubeta, nunca mayor que el máximo)
+     * @param percentil Entre 0 y 100, p. ej. 99.0
+     */
+    public double getPercentilMillis(double percentil) {
+        long total = 0;
+        long[] copia = new long[CUBETAS];
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = cuentas.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rango = Math.max(1, (long) Math.ceil(percentil / 100.0 * total));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= rango) {
+                return Math.min(limiteSuperior(i), maximo.get()) / 1_000_000.0;
+            }
+        }
+        return getMaximoMillis();
+    }
+
+    /**
+     * Borra todas las muestras (no es atómico respecto a registros simultáneos)
+     */
+    public void reiniciar() {
+        for (int i = 0; i < CUBETAS; i++) {
+            cuentas.set(i, 0);
+        }
+        muestras.reset();
+        suma.reset();
+        maximo.reset();
+    }
+
+    static int cubeta(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        if (exponente > EXPONENTE_MAX) {
+            return CUBETAS - 1;
+        }
+        int sub = (int) ((valor >>> (exponente - BITS_SUB)) & (SUBCUBETAS - 1));
+        return (exponente - BITS_SUB + 1) * SUBCUBETAS + sub;
+    }
+
+    static long limiteSuperior(int cubeta) {
+        if (cubeta < SUBCUBETAS) {
+            return cubeta;
+        }
+        int exponente = cubeta / SUBCUBETAS + BITS_SUB - 1;
+        long sub = cubeta % SUBCUBETAS;
+        long inferior = (SUBCUBETAS + sub) << (exponente - BITS_SUB);
+        return inferior + (1L << (exponente - BITS_SUB)) - 1;
+    }
+}
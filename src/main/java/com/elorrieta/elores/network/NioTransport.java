@@ -0,0 +1,239 @@
+package com.elorrieta.elores.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transporte no bloqueante sobre SocketChannel y Selector
+ *
+ * Un único hilo de E/S atiende lecturas y escrituras de la conexión. Los hilos
+ * llamantes solo codifican la trama y la encolan, sin quedarse bloqueados por
+ * petición. El enmarcado por salto de línea se hace directamente sobre los bytes
+ * recibidos en un ByteBuffer directo reutilizable.
+ */
+public class NioTransport implements Transport {
+    private static final int TAM_BUFFER = 64 * 1024;
+    private static final byte FIN_LINEA = '\n';
+    private static final ThreadLocal<BufferTrama> BUFFER_TRAMA = ThreadLocal.withInitial(BufferTrama::new);
+
+    private SocketChannel channel;
+    private Selector selector;
+    private SelectionKey key;
+    private FrameListener listener;
+
+    private final SocketOptions opciones;
+    private final ByteBuffer lectura;
+    private final ByteBuffer escritura = ByteBuffer.allocateDirect(TAM_BUFFER);
+    private final Queue<ByteBuffer> salida = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean cerrado = new AtomicBoolean(false);
+
+    // Acumulador de la línea en curso cuando una trama llega en varios fragmentos
+    private byte[] linea = new byte[1024];
+    private int lineaLen;
+
+    public NioTransport() {
+        this(new SocketOptions());
+    }
+
+    public NioTransport(SocketOptions opciones) {
+        this.opciones = opciones;
+        int tamLectura = opciones.getReaderBufferSize() > 0 ? opciones.getReaderBufferSize() : TAM_BUFFER;
+        lectura = ByteBuffer.allocateDirect(tamLectura);
+    }
+
+    @Override
+    public void open(String host, int port, FrameListener listener) throws IOException {
+        this.listener = listener;
+        channel = SocketChannel.open();
+        try {
+            opciones.aplicar(channel);
+            // El canal aún es bloqueante: la conexión a través del socket admite plazo
+            channel.socket().connect(new InetSocketAddress(host, port), opciones.getConnectTimeoutMillis());
+            channel.configureBlocking(false);
+            selector = Selector.open();
+            key = channel.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            channel.close();
+            if (selector != null) {
+                selector.close();
+            }
+            throw e;
+        }
+
+        Thread io = new Thread(this::bucleEventos, "ElorES-nio-io");
+        io.setDaemon(true);
+        io.start();
+    }
+
+    @Override
+    public void send(FrameWriter frame) throws IOException {
+        if (!isOpen()) {
+            throw new IOException("No hay conexión con el servidor");
+        }
+        BufferTrama buffer = BUFFER_TRAMA.get();
+        buffer.bytes.reset();
+        frame.writeTo(buffer.writer);
+        buffer.writer.write(FIN_LINEA);
+        buffer.writer.flush();
+        salida.add(ByteBuffer.wrap(buffer.bytes.toByteArray()));
+        selector.wakeup();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel != null && channel.isOpen() && !cerrado.get();
+    }
+
+    @Override
+    public void close() {
+        cerrar(new IOException("Conexión cerrada por el cliente"));
+    }
+
+    /**
+     * Bucle del hilo de E/S
+     */
+    private void bucleEventos() {
+        IOException causa = null;
+        try {
+            while (!cerrado.get()) {
+                // Las escrituras pendientes activan OP_WRITE desde este mismo hilo
+                if (!salida.isEmpty() || escritura.position() > 0) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+
+                selector.select();
+                if (key.isValid() && key.isReadable()) {
+                    if (!leer()) {
+                        causa = new IOException("El servidor cerró la conexión");
+                        break;
+                    }
+                }
+                if (key.isValid() && key.isWritable()) {
+                    escribir();
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException e) {
+            causa = e;
+        } catch (RuntimeException e) {
+            causa = new IOException("Error en el hilo de E/S", e);
+        }
+        cerrar(causa != null ? causa : new IOException("Conexión cerrada por el cliente"));
+    }
+
+    /**
+     * Lee lo disponible y entrega cada línea completa
+     * @return false si el servidor ha cerrado el canal
+     */
+    private boolean leer() throws IOException {
+        int leidos = channel.read(lectura);
+        if (leidos < 0) {
+            return false;
+        }
+
+        lectura.flip();
+        while (lectura.hasRemaining()) {
+            int inicio = lectura.position();
+            int fin = -1;
+            for (int i = inicio; i < lectura.limit(); i++) {
+                if (lectura.get(i) == FIN_LINEA) {
+                    fin = i;
+                    break;
+                }
+            }
+
+            int hasta = fin >= 0 ? fin : lectura.limit();
+            acumular(hasta - inicio);
+            if (fin < 0) {
+                break;
+            }
+
+            lectura.get(); // consumir el salto de línea
+            entregarLinea();
+        }
+        lectura.clear();
+        return true;
+    }
+
+    private void acumular(int n) {
+        if (lineaLen + n > linea.length) {
+            linea = Arrays.copyOf(linea, Math.max(linea.length * 2, lineaLen + n));
+        }
+        lectura.get(linea, lineaLen, n);
+        lineaLen += n;
+    }
+
+    private void entregarLinea() {
+        int len = lineaLen;
+        if (len > 0 && linea[len - 1] == '\r') {
+            len--;
+        }
+        String frame = new String(linea, 0, len, StandardCharsets.UTF_8);
+        lineaLen = 0;
+        listener.onFrame(frame);
+    }
+
+    /**
+     * Vuelca al canal las tramas encoladas a través del buffer directo
+     */
+    private void escribir() throws IOException {
+        ByteBuffer siguiente;
+        while (escritura.hasRemaining() && (siguiente = salida.peek()) != null) {
+            int n = Math.min(siguiente.remaining(), escritura.remaining());
+            ByteBuffer trozo = siguiente.duplicate();
+            trozo.limit(trozo.position() + n);
+            escritura.put(trozo);
+            siguiente.position(siguiente.position() + n);
+            if (!siguiente.hasRemaining()) {
+                salida.poll();
+            }
+        }
+
+        escritura.flip();
+        channel.write(escritura);
+        escritura.compact();
+
+        if (escritura.position() == 0 && salida.isEmpty()) {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    private void cerrar(IOException causa) {
+        if (!cerrado.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (selector != null) {
+                selector.wakeup();
+                selector.close();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error al cerrar conexión: " + e.getMessage());
+        }
+        salida.clear();
+        listener.onClosed(causa);
+    }
+
+    /**
+     * Buffer reutilizable por hilo donde se codifica cada trama en UTF-8
+     */
+    private static class BufferTrama {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        private final Writer writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,197 @@
+package com.elorrieta.elores.network;
+
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Log del protocolo asíncrono y filtrado por nivel
+ *
+ * Los hilos de red y de servicio solo comprueban el nivel (una lectura volátil) y,
+ * si está activo, encolan el mensaje; un hilo aparte lo formatea y lo escribe en
+ * consola. Los mensajes caros se pasan como Supplier y se construyen en ese hilo.
+ * Si la cola se llena se descartan líneas en lugar de frenar a quien registra.
+ *
+ * Por defecto el nivel es OFF. El FlightRecorder guarda las últimas tramas y se
+ * vuelca con volcarRegistro() cuando hay un error, sea cual sea el nivel.
+ */
+public class ProtocolLogger {
+    private static final int CAPACIDAD_COLA = 4096;
+    private static final int TRAMAS_REGISTRO = 64;
+
+    private static ProtocolLogger instance;
+
+    /**
+     * Niveles de detalle, de menos a más
+     */
+    public enum Nivel {
+        OFF, ERROR, WARN, INFO, DEBUG, TRACE;
+
+        /**
+         * Convierte un texto de configuración; los valores desconocidos desactivan el log
+         */
+        public static Nivel fromString(String valor) {
+            if (valor != null) {
+                for (Nivel nivel : values()) {
+                    if (nivel.name().equalsIgnoreCase(valor.trim())) {
+                        return nivel;
+                    }
+                }
+            }
+            return OFF;
+        }
+    }
+
+    /**
+     * Línea pendiente de escribir; el texto se construye en el hilo del log
+     */
+    private static class Linea {
+        private final long instante = System.currentTimeMillis();
+        private final Nivel nivel;
+        private final Supplier<String> mensaje;
+        private final Throwable error;
+
+        Linea(Nivel nivel, Supplier<String> mensaje, Throwable error) {
+            this.nivel = nivel;
+            this.mensaje = mensaje;
+            this.error = error;
+        }
+    }
+
+    private volatile Nivel nivel = Nivel.OFF;
+    private volatile FlightRecorder registro = new FlightRecorder(TRAMAS_REGISTRO);
+    private final BlockingQueue<Linea> cola = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+    private final LongAdder descartadas = new LongAdder();
+    private final SimpleDateFormat hora = new SimpleDateFormat("HH:mm:ss.SSS", Locale.ROOT);
+
+    private ProtocolLogger() {
+        Thread escritor = new Thread(this::escribir, "ElorES-log");
+        escritor.setDaemon(true);
+        escritor.start();
+        // Lo que quede en la cola al salir (p. ej. el volcado de un error) se escribe igualmente
+        Runtime.getRuntime().addShutdownHook(new Thread(this::vaciar, "ElorES-log-salida"));
+    }
+
+    public static synchronized ProtocolLogger getInstance() {
+        if (instance == null) {
+            instance = new ProtocolLogger();
+        }
+        return instance;
+    }
+
+    public void setNivel(Nivel nivel) {
+        this.nivel = nivel != null ? nivel : Nivel.OFF;
+    }
+
+    public Nivel getNivel() {
+        return nivel;
+    }
+
+    /**
+     * Indica si los mensajes del nivel dado se van a escribir
+     */
+    public boolean isEnabled(Nivel nivelMensaje) {
+        return nivelMensaje != Nivel.OFF && nivelMensaje.ordinal() <= nivel.ordinal();
+    }
+
+    /**
+     * Cambia el tamaño del registro de tramas (0 lo desactiva); se pierde lo anotado
+     */
+    public void configureFlightRecorder(int tramas) {
+        registro = new FlightRecorder(tramas);
+    }
+
+    public FlightRecorder getFlightRecorder() {
+        return registro;
+    }
+
+    /** Líneas perdidas porque la cola estaba llena */
+    public long getDescartadas() {
+        return descartadas.sum();
+    }
+
+    public void error(String mensaje) {
+        log(Nivel.ERROR, () -> mensaje, null);
+    }
+
+    public void error(String mensaje, Throwable error) {
+        log(Nivel.ERROR, () -> mensaje, error);
+    }
+
+    public void warn(String mensaje) {
+        log(Nivel.WARN, () -> mensaje, null);
+    }
+
+    public void info(String mensaje) {
+        log(Nivel.INFO, () -> mensaje, null);
+    }
+
+    public void debug(Supplier<String> mensaje) {
+        log(Nivel.DEBUG, mensaje, null);
+    }
+
+    public void trace(Supplier<String> mensaje) {
+        log(Nivel.TRACE, mensaje, null);
+    }
+
+    /**
+     * Vuelca el registro de las últimas tramas, censurado, por la salida de errores
+     * Se escribe aunque el log esté en OFF: solo ocurre cuando algo ha ido mal
+     * @param motivo Descripción del error que provoca el volcado
+     */
+    public void volcarRegistro(String motivo) {
+        FlightRecorder actual = registro;
+        if (actual.getCapacidad() == 0) {
+            return;
+        }
+        // En el hilo que falla solo se copian referencias; el texto se arma en el hilo del log
+        List<FlightRecorder.Entrada> entradas = actual.instantanea();
+        encolar(new Linea(Nivel.ERROR, () -> FlightRecorder.formatear(motivo, entradas), null));
+    }
+
+    private void log(Nivel nivelMensaje, Supplier<String> mensaje, Throwable error) {
+        if (isEnabled(nivelMensaje)) {
+            encolar(new Linea(nivelMensaje, mensaje, error));
+        }
+    }
+
+    private void encolar(Linea linea) {
+        if (!cola.offer(linea)) {
+            descartadas.increment();
+        }
+    }
+
+    private void escribir() {
+        while (true) {
+            try {
+                emitir(cola.take());
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // Un Supplier que falla no debe parar el hilo del log
+                System.err.println("Error escribiendo log: " + e.getMessage());
+            }
+        }
+    }
+
+    private void vaciar() {
+        Linea linea;
+        while ((linea = cola.poll()) != null) {
+            emitir(linea);
+        }
+    }
+
+    private synchronized void emitir(Linea linea) {
+        PrintStream salida = linea.nivel.ordinal() <= Nivel.WARN.ordinal() ? System.err : System.out;
+        salida.println(hora.format(new Date(linea.instante)) + " " + linea.nivel + " " + linea.mensaje.get());
+        if (linea.error != null) {
+            linea.error.printStackTrace(salida);
+        }
+    }
+}
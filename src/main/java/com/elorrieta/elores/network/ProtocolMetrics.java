@@ -0,0 +1,282 @@
+package com.elorrieta.elores.network;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.elorrieta.elores.protocol.CommandType;
+
+/**
+ * Métricas del protocolo por comando, sin bloqueos en el camino de las peticiones
+ *
+ * Para cada CommandType se cuentan peticiones, fallos y bytes en cada sentido, y se
+ * reparte el tiempo de cada llamada en tres histogramas:
+ * - serialización: codificar la petición en el hilo llamante
+ * - espera: desde que sale la trama hasta que llega la respuesta (servidor + red;
+ *   el RTT del PING da la parte de red)
+ * - parseo: convertir la trama recibida en Response
+ * El histograma total va desde la llamada hasta que se completa la respuesta.
+ */
+public class ProtocolMetrics {
+    private final Map<CommandType, Medidas> porComando = new EnumMap<>(CommandType.class);
+    private final LongAdder eventos = new LongAdder();
+    private final LongAdder bytesEventos = new LongAdder();
+    private final LongAdder sinPeticion = new LongAdder();
+    private final LongAdder tardias = new LongAdder();
+
+    /**
+     * Contadores e histogramas de un comando
+     */
+    public static class Medidas {
+        private final LongAdder peticiones = new LongAdder();
+        private final LongAdder fallos = new LongAdder();
+        private final LongAdder abandonadas = new LongAdder();
+        private final LongAdder respuestasError = new LongAdder();
+        private final LongAdder bytesEnviados = new LongAdder();
+        private final LongAdder bytesRecibidos = new LongAdder();
+        private final LatencyHistogram serializacion = new LatencyHistogram();
+        private final LatencyHistogram espera = new LatencyHistogram();
+        private final LatencyHistogram parseo = new LatencyHistogram();
+        private final LatencyHistogram total = new LatencyHistogram();
+
+        /** Peticiones enviadas */
+        public long getPeticiones() {
+            return peticiones.sum();
+        }
+
+        /** Peticiones sin respuesta: error al enviar o conexión perdida */
+        public long getFallos() {
+            return fallos.sum();
+        }
+
+        /** Peticiones que se dejaron de esperar: plazo vencido o cancelación */
+        public long getAbandonadas() {
+            return abandonadas.sum();
+        }
+
+        /** Respuestas con estado de error (un 304 no cuenta como error) */
+        public long getRespuestasError() {
+            return respuestasError.sum();
+        }
+
+        public long getBytesEnviados() {
+            return bytesEnviados.sum();
+        }
+
+        public long getBytesRecibidos() {
+            return bytesRecibidos.sum();
+        }
+
+        public LatencyHistogram getSerializacion() {
+            return serializacion;
+        }
+
+        public LatencyHistogram getEspera() {
+            return espera;
+        }
+
+        public LatencyHistogram getParseo() {
+            return parseo;
+        }
+
+        public LatencyHistogram getTotal() {
+            return total;
+        }
+
+        void reiniciar() {
+            peticiones.reset();
+            fallos.reset();
+            abandonadas.reset();
+            respuestasError.reset();
+            bytesEnviados.reset();
+            bytesRecibidos.reset();
+            serializacion.reiniciar();
+            espera.reiniciar();
+            parseo.reiniciar();
+            total.reiniciar();
+        }
+    }
+
+    public ProtocolMetrics() {
+        // El mapa se llena una vez y después solo se lee: no necesita sincronización
+        for (CommandType tipo : CommandType.values()) {
+            porComando.put(tipo, new Medidas());
+        }
+    }
+
+    /**
+     * Medidas de un comando
+     */
+    public Medidas get(CommandType accion) {
+        return porComando.get(accion != null ? accion : CommandType.OTHER);
+    }
+
+    /** Tramas de evento recibidas (push del servidor) */
+    public long getEventos() {
+        return eventos.sum();
+    }
+
+    public long getBytesEventos() {
+        return bytesEventos.sum();
+    }
+
+    /** Respuestas que no correspondían a ninguna petición en vuelo */
+    public long getRespuestasSinPeticion() {
+        return sinPeticion.sum();
+    }
+
+    /** Respuestas que llegaron después de abandonar su petición y se descartaron */
+    public long getRespuestasTardias() {
+        return tardias.sum();
+    }
+
+    public void reiniciar() {
+        for (Medidas medidas : porComando.values()) {
+            medidas.reiniciar();
+        }
+        eventos.reset();
+        bytesEventos.reset();
+        sinPeticion.reset();
+        tardias.reset();
+    }
+
+    /**
+     * Tabla legible con los comandos usados: recuentos, bytes y p50/p99 en milisegundos
+     */
+    public String resumen() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-16s %7s %5s %5s %10s %10s %15s %15s %15s %15s%n",
+            "comando", "n", "fallo", "aband", "bytes-out", "bytes-in", "serial p50/p99", "espera p50/p99", "parseo p50/p99", "total p50/p99"));
+        for (Map.Entry<CommandType, Medidas> entrada : porComando.entrySet()) {
+            Medidas m = entrada.getValue();
+            if (m.getPeticiones() == 0) {
+                continue;
+            }
+            sb.append(String.format(Locale.ROOT, "%-16s %7d %5d %5d %10d %10d %15s %15s %15s %15s%n",
+                entrada.getKey(), m.getPeticiones(), m.getFallos(), m.getAbandonadas(), m.getBytesEnviados(), m.getBytesRecibidos(),
+                p50p99(m.serializacion), p50p99(m.espera), p50p99(m.parseo), p50p99(m.total)));
+        }
+        if (getEventos() > 0) {
+            sb.append(String.format(Locale.ROOT, "eventos %d (%d bytes)%n", getEventos(), getBytesEventos()));
+        }
+        if (getRespuestasTardias() > 0) {
+            sb.append(String.format(Locale.ROOT, "respuestas tardías descartadas %d%n", getRespuestasTardias()));
+        }
+        return sb.toString();
+    }
+
+    private static String p50p99(LatencyHistogram h) {
+        return String.format(Locale.ROOT, "%.2f/%.2f", h.getPercentilMillis(50), h.getPercentilMillis(99));
+    }
+
+    void registrarEnvio(CommandType accion, long bytes, long serializacionNanos) {
+        Medidas m = get(accion);
+        m.peticiones.increment();
+        m.bytesEnviados.add(bytes);
+        m.serializacion.registrar(serializacionNanos);
+    }
+
+    void registrarRespuesta(CommandType accion, boolean error, long bytes, long esperaNanos, long parseoNanos, long totalNanos) {
+        Medidas m = get(accion);
+        if (error) {
+            m.respuestasError.increment();
+        }
+        m.bytesRecibidos.add(bytes);
+        m.espera.registrar(esperaNanos);
+        m.parseo.registrar(parseoNanos);
+        m.total.registrar(totalNanos);
+    }
+
+    void registrarFallo(CommandType accion) {
+        get(accion).fallos.increment();
+    }
+
+    void registrarAbandono(CommandType accion) {
+        get(accion).abandonadas.increment();
+    }
+
+    void registrarTardia() {
+        tardias.increment();
+    }
+
+    void registrarEvento(long bytes) {
+        eventos.increment();
+        bytesEventos.add(bytes);
+    }
+
+    void registrarSinPeticion() {
+        sinPeticion.increment();
+    }
+
+    /**
+     * Longitud en UTF-8 de un texto, sin codificarlo
+     */
+    static long bytesUtf8(CharSequence texto) {
+        long bytes = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            bytes += bytesUtf8(texto.charAt(i));
+        }
+        return bytes;
+    }
+
+    private static int bytesUtf8(char c) {
+        if (c < 0x80) {
+            return 1;
+        }
+        if (c < 0x800 || Character.isSurrogate(c)) {
+            return 2; // cada mitad de un par suplente aporta 2 de los 4 bytes
+        }
+        return 3;
+    }
+
+    /**
+     * Writer que cuenta los bytes UTF-8 que pasan hacia el transporte
+     */
+    static class ContadorEscritura extends Writer {
+        private final Writer destino;
+        private long bytes;
+
+        ContadorEscritura(Writer destino) {
+            this.destino = destino;
+        }
+
+        long getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            bytes += bytesUtf8((char) c);
+            destino.write(c);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                bytes += bytesUtf8(cbuf[i]);
+            }
+            destino.write(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                bytes += bytesUtf8(str.charAt(i));
+            }
+            destino.write(str, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            destino.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            destino.close();
+        }
+    }
+}
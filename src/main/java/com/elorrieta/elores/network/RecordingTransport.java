@@ -0,0 +1,102 @@
+package com.elorrieta.elores.network;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Decorador de Transport que graba en un SessionLog cada trama enviada y recibida
+ *
+ * La trama enviada se copia mientras se escribe en el buffer del transporte, así que
+ * grabar añade una copia por petición pero no cambia lo que viaja. Se usa para
+ * capturar sesiones reales y reproducirlas después con ReplayServer (módulo benchmarks).
+ *
+ * Cada trama se anota con el instante en que empezó a enviarse, pero la línea puede
+ * escribirse después de la respuesta: quien lea la grabación debe usar los tiempos
+ * y los requestId, no el orden de las líneas.
+ */
+public class RecordingTransport implements Transport {
+    private final Transport delegado;
+    private final SessionLog grabacion;
+
+    public RecordingTransport(Transport delegado, SessionLog grabacion) {
+        this.delegado = delegado;
+        this.grabacion = grabacion;
+    }
+
+    @Override
+    public void open(String host, int port, FrameListener listener) throws IOException {
+        grabacion.anotar(SessionLog.CONEXION, host + ":" + port);
+        delegado.open(host, port, new FrameListener() {
+            @Override
+            public void onFrame(String frame) {
+                grabacion.anotar(SessionLog.RECIBIDA, frame);
+                listener.onFrame(frame);
+            }
+
+            @Override
+            public void onClosed(IOException cause) {
+                grabacion.flush();
+                listener.onClosed(cause);
+            }
+        });
+    }
+
+    @Override
+    public void send(FrameWriter frame) throws IOException {
+        StringBuilder copia = new StringBuilder(256);
+        long instante = System.nanoTime();
+        delegado.send(out -> frame.writeTo(new Copia(out, copia)));
+        grabacion.anotar(SessionLog.ENVIADA, copia.toString(), instante);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return delegado.isOpen();
+    }
+
+    @Override
+    public void close() {
+        delegado.close();
+    }
+
+    /**
+     * Writer que pasa los caracteres al transporte y guarda una copia
+     */
+    private static class Copia extends Writer {
+        private final Writer destino;
+        private final StringBuilder copia;
+
+        Copia(Writer destino, StringBuilder copia) {
+            this.destino = destino;
+            this.copia = copia;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            copia.append((char) c);
+            destino.write(c);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            copia.append(cbuf, off, len);
+            destino.write(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            copia.append(str, off, off + len);
+            destino.write(str, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            destino.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            destino.close();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.elorrieta.elores.network;
+
+/**
+ * Estimación suavizada del tiempo de ida y vuelta (RTT) con el servidor
+ *
+ * Sigue el esquema clásico de TCP: media móvil exponencial del RTT
+ * (srtt = 7/8·srtt + 1/8·muestra) y de su desviación (rttvar = 3/4·rttvar + 1/4·|srtt - muestra|).
+ */
+public class RttEstimator {
+    private static final double ALFA = 1.0 / 8;
+    private static final double BETA = 1.0 / 4;
+
+    private double srttNanos = -1;
+    private double rttvarNanos;
+    private long muestras;
+
+    /**
+     * Registra una nueva muestra de RTT
+     */
+    public synchronized void registrar(long muestraNanos) {
+        if (muestraNanos < 0) {
+            return;
+        }
+        if (srttNanos < 0) {
+            srttNanos = muestraNanos;
+            rttvarNanos = muestraNanos / 2.0;
+        } else {
+            rttvarNanos = (1 - BETA) * rttvarNanos + BETA * Math.abs(srttNanos - muestraNanos);
+            srttNanos = (1 - ALFA) * srttNanos + ALFA * muestraNanos;
+        }
+        muestras++;
+    }
+
+    /**
+     * @return RTT suavizado en milisegundos, o -1 si todavía no hay muestras
+     */
+    public synchronized double getSmoothedRttMillis() {
+        return srttNanos < 0 ? -1 : srttNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return Desviación suavizada del RTT en milisegundos
+     */
+    public synchronized double getRttVarianceMillis() {
+        return rttvarNanos / 1_000_000.0;
+    }
+
+    /**
+     * Tiempo de espera razonable para una respuesta: srtt + 4·rttvar, nunca por debajo del mínimo
+     */
+    public synchronized long getTimeoutMillis(long minimoMillis) {
+        if (srttNanos < 0) {
+            return minimoMillis;
+        }
+        long rto = (long) Math.ceil((srttNanos + 4 * rttvarNanos) / 1_000_000.0);
+        return Math.max(minimoMillis, rto);
+    }
+
+    public synchronized long getSamples() {
+        return muestras;
+    }
+}
@@ -0,0 +1,15 @@
+package com.elorrieta.elores.network;
+
+import com.elorrieta.elores.protocol.Response;
+
+/**
+ * Recibe las tramas de evento que el servidor envía sin petición previa
+ * Se invoca desde el hilo lector: hay que volver rápido y no tocar Swing directamente
+ */
+public interface ServerEventListener {
+
+    /**
+     * @param event Trama recibida; el tipo está en getEvent() y el contenido en getData()
+     */
+    void onEvent(Response event);
+}
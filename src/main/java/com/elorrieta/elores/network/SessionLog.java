@@ -0,0 +1,168 @@
+package com.elorrieta.elores.network;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Grabación de una sesión del protocolo en un fichero de texto compacto
+ *
+ * Una línea por trama: sentido, microsegundos desde el inicio de la grabación y la
+ * trama tal cual viaja, separados por tabuladores. Los sentidos son '>' (enviada por
+ * el cliente), '<' (recibida del servidor) y '#' (se abre una conexión nueva).
+ * Contraseñas y tokens se censuran antes de escribir. Si el nombre del fichero
+ * termina en .gz se comprime con GZIP.
+ */
+public class SessionLog implements AutoCloseable {
+    public static final char ENVIADA = '>';
+    public static final char RECIBIDA = '<';
+    public static final char CONEXION = '#';
+
+    private final Writer out;
+    private final long inicio = System.nanoTime();
+    private boolean cerrado;
+
+    /**
+     * Trama grabada
+     */
+    public static class Entrada {
+        private final char sentido;
+        private final long micros;
+        private final String trama;
+
+        public Entrada(char sentido, long micros, String trama) {
+            this.sentido = sentido;
+            this.micros = micros;
+            this.trama = trama;
+        }
+
+        public char getSentido() {
+            return sentido;
+        }
+
+        /** Instante de la trama en microsegundos desde el inicio de la grabación */
+        public long getMicros() {
+            return micros;
+        }
+
+        public String getTrama() {
+            return trama;
+        }
+    }
+
+    private SessionLog(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Empieza una grabación nueva (sobrescribe el fichero)
+     */
+    public static SessionLog crear(Path fichero) throws IOException {
+        OutputStream salida = Files.newOutputStream(fichero);
+        if (comprimido(fichero)) {
+            salida = new GZIPOutputStream(salida, 64 * 1024);
+        }
+        return new SessionLog(new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), 64 * 1024));
+    }
+
+    /**
+     * Lee todas las tramas de una grabación
+     */
+    public static List<Entrada> leer(Path fichero) throws IOException {
+        List<Entrada> entradas = new ArrayList<>();
+        InputStream entrada = Files.newInputStream(fichero);
+        if (comprimido(fichero)) {
+            entrada = new GZIPInputStream(entrada, 64 * 1024);
+        }
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            String linea;
+            int numero = 0;
+            while ((linea = in.readLine()) != null) {
+                numero++;
+                if (linea.isEmpty()) {
+                    continue;
+                }
+                int tab1 = linea.indexOf('\t');
+                int tab2 = tab1 > 0 ? linea.indexOf('\t', tab1 + 1) : -1;
+                if (tab1 != 1 || tab2 < 0) {
+                    throw new IOException("Línea " + numero + " de la grabación no válida");
+                }
+                try {
+                    long micros = Long.parseLong(linea.substring(tab1 + 1, tab2));
+                    entradas.add(new Entrada(linea.charAt(0), micros, linea.substring(tab2 + 1)));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Línea " + numero + " de la grabación no válida", e);
+                }
+            }
+        }
+        return entradas;
+    }
+
+    /**
+     * Anota una trama en el instante actual
+     */
+    public void anotar(char sentido, String trama) {
+        anotar(sentido, trama, System.nanoTime());
+    }
+
+    /**
+     * Anota una trama; las tramas no llevan saltos de línea, así que caben en una línea
+     * @param instante System.nanoTime() del momento en que viajó la trama
+     */
+    public synchronized void anotar(char sentido, String trama, long instante) {
+        if (cerrado) {
+            return;
+        }
+        long micros = (instante - inicio) / 1000;
+        try {
+            out.write(sentido);
+            out.write('\t');
+            out.write(Long.toString(micros));
+            out.write('\t');
+            out.write(sentido == CONEXION ? trama : FlightRecorder.censurar(trama));
+            out.write('\n');
+        } catch (IOException e) {
+            // Una grabación que falla no debe afectar a la conexión
+            cerrado = true;
+            ProtocolLogger.getInstance().error("Error escribiendo la grabación, se detiene: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Vuelca al fichero lo anotado hasta ahora
+     */
+    public synchronized void flush() {
+        if (cerrado) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            ProtocolLogger.getInstance().error("Error escribiendo la grabación: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!cerrado) {
+            cerrado = true;
+            out.close();
+        }
+    }
+
+    private static boolean comprimido(Path fichero) {
+        return fichero.getFileName().toString().endsWith(".gz");
+    }
+}
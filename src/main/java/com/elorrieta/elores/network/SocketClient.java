@@ -1,34 +1,103 @@
 package com.elorrieta.elores.network;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
-import java.net.Socket;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.elorrieta.elores.protocol.Batch;
+import com.elorrieta.elores.protocol.CommandType;
+import com.elorrieta.elores.protocol.PayloadFormat;
 import com.elorrieta.elores.protocol.Request;
+import com.elorrieta.elores.protocol.RequestEncoder;
 import com.elorrieta.elores.protocol.Response;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.elorrieta.elores.protocol.ResponseDecoder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
 
 /**
  * Cliente TCP para comunicación con el servidor ElorServ
- * Implementa patrón Singleton para gestionar una única conexión
+ * La aplicación usa una única conexión (getInstance); las herramientas de carga
+ * crean una instancia por cada sesión que simulan
+ *
+ * La conexión está multiplexada: cada petición lleva un requestId y un único
+ * hilo lector entrega cada respuesta al CompletableFuture que la espera, de modo
+ * que varias peticiones pueden estar en vuelo a la vez sobre el mismo socket.
+ * Si el servidor no devuelve el requestId, las respuestas se asocian por orden de envío.
+ * El socket en sí lo gestiona un Transport (bloqueante o NIO) elegido por configuración.
+ *
+ * Un latido periódico (PING) mide el RTT y detecta conexiones muertas; si la conexión
+ * se pierde sin que la cierre el cliente, se reconecta en segundo plano con espera
+ * exponencial y se repite la bienvenida. Cualquier trama recibida prueba que la
+ * conexión vive: con peticiones en vuelo no se envía PING (el servidor atiende cada
+ * conexión en orden y lo contestaría detrás de ellas) y solo se da por muerta si no
+ * llega nada durante el plazo de la más lenta.
+ *
+ * Una conexión recién abierta no admite peticiones normales hasta estar lista: tras
+ * la bienvenida y, en una reconexión, cuando los oyentes de onReconnected (RESUME de
+ * la sesión, suscripciones) han terminado. Lo que se envíe antes queda en espera y
+ * sale en ese momento, así ninguna petición llega al servidor sin sesión.
+ *
+ * Cada llamada síncrona tiene un plazo (configurable por comando). Si vence, o si se
+ * interrumpe el hilo que espera, la petición se abandona: su future falla y se retira
+ * de las peticiones en vuelo; su respuesta, si llega, se descarta. Con un servidor que
+ * no devuelve el requestId se conserva su hueco en el orden de envío para que esa
+ * respuesta tardía no desplace a las demás.
  */
 public class SocketClient {
     private static SocketClient instance;
-    private Socket socket;
-    private PrintWriter out;
-    private BufferedReader in;
-    private Gson gson;
-    
+    private volatile Conexion conexion;
+
     private String host = "localhost";
     private int port = 9000; // Puerto actualizado a 9000
-    
-    private SocketClient() {
-        gson = new GsonBuilder().create();
+    private TransportType transportType = TransportType.BLOCKING;
+    private SocketOptions socketOptions = new SocketOptions();
+    private volatile SessionLog grabacion;
+
+    private final AtomicLong nextRequestId = new AtomicLong(1);
+    private volatile String sessionToken;
+
+    // Plazos de las llamadas síncronas (0 = sin límite)
+    private final Map<CommandType, Long> plazos = new ConcurrentHashMap<>();
+    private volatile long plazoPorDefecto = 15000;
+
+    // Latido y reconexión
+    private final RttEstimator rtt = new RttEstimator();
+    private final ProtocolMetrics metrics = new ProtocolMetrics();
+    private final ProtocolLogger log = ProtocolLogger.getInstance();
+    private final List<ConnectionListener> connectionListeners = new CopyOnWriteArrayList<>();
+    private final List<ServerEventListener> eventListeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService supervisor;
+    private final Object reconexion = new Object();
+    private long heartbeatIntervalMillis = 0; // 0 = sin latido
+    private long heartbeatTimeoutMillis = 3000;
+    private boolean latidoProgramado;
+    private Backoff backoff = new Backoff(250, 15000);
+    private volatile boolean reconexionAutomatica;
+    private boolean reconexionProgramada;
+    private CompletableFuture<Conexion> reconexionEnCurso; // reconexión lanzada por un envío
+    private int intentosReconexion;
+
+    public SocketClient() {
     }
-    
+
     /**
      * Obtiene la instancia única del cliente
      */
@@ -38,7 +107,7 @@ public class SocketClient {
         }
         return instance;
     }
-    
+
     /**
      * Configura el host y puerto del servidor
      */
@@ -48,104 +117,911 @@ public class SocketClient {
     }
     
     /**
-     * Conecta al servidor
+     * Selecciona la implementación de transporte para las próximas conexiones
+     */
+    public void setTransportType(TransportType transportType) {
+        this.transportType = transportType;
+    }
+
+    /**
+     * Opciones TCP (Nagle, buffers, plazo de conexión...) de las próximas conexiones
+     */
+    public void setSocketOptions(SocketOptions socketOptions) {
+        this.socketOptions = socketOptions;
+    }
+
+    public SocketOptions getSocketOptions() {
+        return socketOptions;
+    }
+
+    /**
+     * Graba las tramas de las próximas conexiones en un fichero (ver SessionLog)
+     * La grabación se puede reproducir después con ReplayServer (módulo benchmarks)
+     */
+    public synchronized void startRecording(Path fichero) throws IOException {
+        stopRecording();
+        grabacion = SessionLog.crear(fichero);
+    }
+
+    /**
+     * Termina la grabación en curso y cierra su fichero
+     */
+    public synchronized void stopRecording() {
+        if (grabacion != null) {
+            try {
+                grabacion.close();
+            } catch (IOException e) {
+                log.error("Error cerrando la grabación: " + e.getMessage());
+            }
+            grabacion = null;
+        }
+    }
+
+    /**
+     * Configura el latido periódico con PING
+     * @param intervalMillis Intervalo entre latidos (0 lo desactiva)
+     * @param timeoutMillis Tiempo sin recibir nada tras el que una conexión sin peticiones
+     *        en vuelo se da por muerta (con peticiones, el plazo de la más lenta)
+     */
+    public synchronized void configureHeartbeat(long intervalMillis, long timeoutMillis) {
+        this.heartbeatIntervalMillis = intervalMillis;
+        this.heartbeatTimeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Configura la espera entre intentos de reconexión
+     */
+    public synchronized void configureReconnect(long backoffMinMillis, long backoffMaxMillis) {
+        this.backoff = new Backoff(backoffMinMillis, backoffMaxMillis);
+    }
+
+    /**
+     * Configura los plazos de respuesta de las llamadas síncronas
+     * @param porDefectoMillis Plazo de los comandos sin uno propio (0 sin límite)
+     * @param porComando Plazos propios de algunos comandos
+     */
+    public void configureDeadlines(long porDefectoMillis, Map<CommandType, Long> porComando) {
+        this.plazoPorDefecto = porDefectoMillis;
+        plazos.clear();
+        plazos.putAll(porComando);
+    }
+
+    /**
+     * Plazo de respuesta de un comando en milisegundos (0 sin límite)
+     */
+    public long getDeadlineMillis(CommandType accion) {
+        Long plazo = accion != null ? plazos.get(accion) : null;
+        return plazo != null ? plazo : plazoPorDefecto;
+    }
+
+    public void addConnectionListener(ConnectionListener listener) {
+        connectionListeners.add(listener);
+    }
+
+    public void removeConnectionListener(ConnectionListener listener) {
+        connectionListeners.remove(listener);
+    }
+
+    public void addEventListener(ServerEventListener listener) {
+        eventListeners.add(listener);
+    }
+
+    public void removeEventListener(ServerEventListener listener) {
+        eventListeners.remove(listener);
+    }
+
+    /**
+     * Estimación del RTT medida por el latido
+     */
+    public RttEstimator getRtt() {
+        return rtt;
+    }
+
+    /**
+     * Métricas del protocolo por comando (latencias, bytes, fallos)
+     */
+    public ProtocolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return RTT suavizado en milisegundos, o -1 si aún no hay medidas
+     */
+    public double getSmoothedRttMillis() {
+        return rtt.getSmoothedRttMillis();
+    }
+
+    /**
+     * Token de sesión que se adjunta a todas las peticiones (null si no hay sesión)
+     */
+    public void setSessionToken(String sessionToken) {
+        this.sessionToken = sessionToken;
+    }
+
+    public String getSessionToken() {
+        return sessionToken;
+    }
+
+    /**
+     * Conecta al servidor; el transporte entrega las respuestas desde su hilo de E/S
      */
     public boolean connect() throws IOException {
+        return conectar(false);
+    }
+
+    /**
+     * @param reanudacion Si es una reconexión: la conexión no queda lista con la
+     *        bienvenida sino cuando terminan los oyentes de onReconnected
+     */
+    private synchronized boolean conectar(boolean reanudacion) throws IOException {
         if (isConnected()) {
             return true;
         }
-        
+
+        Transport transporte = transportType.create(socketOptions);
+        SessionLog g = grabacion;
+        if (g != null) {
+            transporte = new RecordingTransport(transporte, g);
+        }
+        Conexion nueva = new Conexion(transporte, reanudacion);
         try {
-            socket = new Socket(host, port);
-            out = new PrintWriter(socket.getOutputStream(), true);
-            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            return true;
+            nueva.transport.open(host, port, nueva);
         } catch (IOException e) {
-            disconnect();
             throw new IOException("No se pudo conectar al servidor en " + host + ":" + port, e);
         }
+        conexion = nueva;
+        if (!reanudacion) {
+            reconexionAutomatica = true;
+        } else if (!reconexionAutomatica) {
+            // disconnect mientras se reconectaba: la conexión nueva no se usa
+            nueva.cerradaPorCliente = true;
+            olvidarConexion(nueva);
+            nueva.transport.close();
+            throw new IOException("Reconexión cancelada");
+        }
+        iniciarLatido();
+        return true;
     }
-    
+
+    /**
+     * Abre la conexión y espera la bienvenida en segundo plano, sin bloquear al llamante
+     * Pensado para el arranque: cuando el usuario pulsa entrar, el socket y la bienvenida
+     * ya están hechos y el LOGIN sale directamente. Si falla se reintenta en silencio
+     * con la misma espera exponencial que la reconexión.
+     */
+    public void preconnect() {
+        synchronized (this) {
+            reconexionAutomatica = true;
+        }
+        supervisor().execute(() -> {
+            try {
+                abrir(false);
+                log.info("Conexión preparada con " + host + ":" + port);
+            } catch (IOException e) {
+                log.debug(() -> "Preconexión fallida, se reintentará: " + e.getMessage());
+                programarReconexion();
+            }
+        });
+    }
+
+    /**
+     * Asegura una conexión abierta con la bienvenida ya recibida
+     * Si hay una preconexión o reconexión en marcha se espera a ella en lugar de abrir otra
+     */
+    public void ensureConnected() throws IOException {
+        abrir(false);
+    }
+
     /**
      * Lee el mensaje de bienvenida del servidor
+     * El hilo lector trata siempre la primera línea recibida como bienvenida
      */
     public void readWelcomeMessage() throws IOException {
-        if (!isConnected()) {
+        Conexion c = conexion;
+        if (c == null || !c.isOpen()) {
             throw new IOException("No hay conexión con el servidor");
         }
-        
+
         try {
-            String welcomeJson = in.readLine();
-            if (welcomeJson != null) {
-                Response welcome = gson.fromJson(welcomeJson, Response.class);
-                System.out.println("Servidor: " + welcome.getMessage());
+            Response welcome = c.bienvenida.get();
+            if (welcome != null) {
+                log.info("Servidor: " + welcome.getMessage());
             }
-        } catch (IOException e) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new IOException("Error leyendo mensaje de bienvenida", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error leyendo mensaje de bienvenida", e.getCause());
         }
     }
-    
+
+    /**
+     * Espera la bienvenida de una conexión recién abierta con tiempo máximo
+     */
+    private void esperarBienvenida(Conexion c, long timeoutMillis) throws IOException {
+        try {
+            c.bienvenida.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Error leyendo mensaje de bienvenida", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error leyendo mensaje de bienvenida", e.getCause());
+        } catch (TimeoutException e) {
+            c.transport.close();
+            throw new IOException("El servidor no envió la bienvenida en " + timeoutMillis + " ms");
+        }
+    }
+
     /**
      * Verifica si hay conexión activa
      */
     public boolean isConnected() {
-        return socket != null && socket.isConnected() && !socket.isClosed();
+        Conexion c = conexion;
+        return c != null && c.isOpen();
     }
-    
+
     /**
-     * Envía una petición y espera respuesta
+     * Envía una petición y espera respuesta dentro del plazo de su comando
      */
     public Response sendRequest(Request request) throws IOException {
-        if (!isConnected()) {
-            throw new IOException("No hay conexión con el servidor");
+        return sendRequest(request, getDeadlineMillis(request.getAction()));
+    }
+
+    /**
+     * Envía una petición y espera respuesta
+     * @param plazoMillis Tiempo máximo de espera (0 sin límite)
+     * @throws SocketTimeoutException si vence el plazo
+     * @throws InterruptedIOException si se interrumpe el hilo que espera
+     */
+    public Response sendRequest(Request request, long plazoMillis) throws IOException {
+        return esperar(sendRequestAsync(request), request.getAction(), plazoMillis);
+    }
+
+    /**
+     * Envía varias peticiones en un único viaje de ida y vuelta
+     * Si el servidor anuncia BATCH se agrupan en un solo comando; si no, se envían
+     * encadenadas sobre la conexión multiplexada y se esperan juntas
+     * @return Respuestas en el mismo orden que las peticiones
+     */
+    public List<Response> sendBatch(List<Request> requests) throws IOException {
+        // El lote tiene el plazo de su comando más lento
+        long plazo = getDeadlineMillis(CommandType.BATCH);
+        for (Request request : requests) {
+            long propio = getDeadlineMillis(request.getAction());
+            plazo = plazo <= 0 || propio <= 0 ? 0 : Math.max(plazo, propio);
+        }
+
+        if (hasCapability(Batch.CAPABILITY)) {
+            Response response = sendRequest(Batch.crear(requests), plazo);
+            if (!response.isSuccess()) {
+                throw new IOException(response.getMessage() != null ? response.getMessage() : "Error en la petición BATCH");
+            }
+            try {
+                return Batch.separar(response, requests.size());
+            } catch (RuntimeException e) {
+                throw new IOException("Respuesta BATCH no válida", e);
+            }
+        }
+
+        List<CompletableFuture<Response>> futures = new ArrayList<>(requests.size());
+        for (Request request : requests) {
+            futures.add(sendRequestAsync(request));
+        }
+        List<Response> responses = new ArrayList<>(requests.size());
+        long fin = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(plazo);
+        for (int i = 0; i < futures.size(); i++) {
+            long restante = plazo > 0 ? Math.max(1, TimeUnit.NANOSECONDS.toMillis(fin - System.nanoTime())) : 0;
+            try {
+                responses.add(esperar(futures.get(i), requests.get(i).getAction(), restante));
+            } catch (IOException e) {
+                // Si una falla o vence, el resto del lote tampoco se espera
+                for (int j = i + 1; j < futures.size(); j++) {
+                    abandonar(futures.get(j), requests.get(j).getAction(), e);
+                }
+                throw e;
+            }
         }
-        
+        return responses;
+    }
+
+    /**
+     * Indica si el servidor de la conexión actual anunció una capacidad en la bienvenida
+     */
+    public boolean hasCapability(String capability) {
+        Conexion c = conexion;
+        return c != null && c.capacidades.contains(capability);
+    }
+
+    /**
+     * Espera una respuesta traduciendo los fallos a IOException
+     * Si vence el plazo o se interrumpe el hilo, la petición se abandona
+     */
+    private Response esperar(CompletableFuture<Response> future, CommandType accion, long plazoMillis) throws IOException {
         try {
-            // Serializar y enviar request
-            String jsonRequest = gson.toJson(request);
-            System.out.println("Enviando: " + jsonRequest);
-            out.println(jsonRequest);
-            
-            // Leer respuesta
-            String jsonResponse = in.readLine();
-            if (jsonResponse == null) {
-                throw new IOException("El servidor cerró la conexión");
-            }
-            
-            System.out.println("Recibido: " + jsonResponse);
-            
-            // Deserializar respuesta
-            Response response = gson.fromJson(jsonResponse, Response.class);
-            return response;
-            
+            return plazoMillis > 0 ? future.get(plazoMillis, TimeUnit.MILLISECONDS) : future.get();
+        } catch (TimeoutException e) {
+            SocketTimeoutException vencido = new SocketTimeoutException(
+                "El servidor no ha respondido en " + plazoMillis + " ms");
+            log.warn("Plazo vencido esperando " + accion + " (" + plazoMillis + " ms)");
+            abandonar(future, accion, vencido);
+            throw vencido;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException cancelada = new InterruptedIOException("Petición cancelada");
+            cancelada.initCause(e);
+            log.debug(() -> "Petición " + accion + " cancelada por el llamante");
+            abandonar(future, accion, cancelada);
+            throw cancelada;
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof IOException) {
+                throw (IOException) causa;
+            }
+            throw new IOException("Error en la comunicación con el servidor", causa);
+        }
+    }
+
+    /**
+     * Abandona una petición de sendRequestAsync que ya no espera nadie
+     * Su future falla con la causa, sale de las peticiones en vuelo y su respuesta,
+     * si llega, se descarta; cuenta como abandonada en las métricas
+     */
+    public void abandonRequest(CompletableFuture<Response> future, CommandType accion, IOException causa) {
+        abandonar(future, accion, causa);
+    }
+
+    /**
+     * Deja de esperar una petición en vuelo
+     * Al fallar su future se retira de pendientes (ver retirar)
+     */
+    private void abandonar(CompletableFuture<Response> future, CommandType accion, IOException causa) {
+        if (future.completeExceptionally(causa)) {
+            metrics.registrarAbandono(accion);
+        }
+    }
+
+    /**
+     * Envía una petición sin bloquear al llamante
+     * Quien cancele el future abandona la petición; su respuesta se descartará al llegar.
+     * Si la conexión se perdió y hay reconexión automática, la reconexión se lanza en
+     * segundo plano y la petición sale cuando termina; si falla, el future falla.
+     * @return Future que se completa cuando el hilo lector recibe la respuesta asociada
+     */
+    public CompletableFuture<Response> sendRequestAsync(Request request) {
+        Conexion c = conexion;
+        if (c != null && c.isOpen()) {
+            return enviar(c, request);
+        }
+        if (!reconexionAutomatica || Thread.holdsLock(reconexion)) {
+            return CompletableFuture.failedFuture(new IOException("No hay conexión con el servidor"));
+        }
+
+        CompletableFuture<Response> resultado = new CompletableFuture<>();
+        reconexionEnSegundoPlano().whenComplete((nueva, error) -> {
+            if (error != null) {
+                resultado.completeExceptionally(new IOException("No hay conexión con el servidor", error));
+                return;
+            }
+            if (resultado.isDone()) {
+                // Abandonada mientras se reconectaba
+                return;
+            }
+            CompletableFuture<Response> enviada = enviar(nueva, request);
+            enviada.whenComplete((respuesta, fallo) -> {
+                if (fallo != null) {
+                    resultado.completeExceptionally(fallo);
+                } else {
+                    resultado.complete(respuesta);
+                }
+            });
+            // Quien abandone el resultado abandona también la petición enviada
+            resultado.whenComplete((respuesta, fallo) -> {
+                if (fallo != null) {
+                    enviada.completeExceptionally(fallo);
+                }
+            });
+        });
+        return resultado;
+    }
+
+    /**
+     * Envía una petición por una conexión abierta
+     */
+    private CompletableFuture<Response> enviar(Conexion c, Request request) {
+        long id = nextRequestId.getAndIncrement();
+        request.setRequestId(id);
+        if (request.getSessionToken() == null) {
+            request.setSessionToken(sessionToken);
+        }
+        Pendiente pendiente = new Pendiente(request.getAction());
+        c.pendientes.put(id, pendiente);
+        // Abandonada, cancelada o fallida: nadie espera ya la respuesta
+        pendiente.future.whenComplete((respuesta, error) -> {
+            if (error != null) {
+                retirar(c, id);
+            }
+        });
+        if (request.getAction() == CommandType.DISCONNECT) {
+            // El servidor cierra tras responder: no es una conexión perdida
+            c.cerradaPorCliente = true;
+        }
+
+        if (c.lista.isDone() || Thread.holdsLock(reconexion)) {
+            // Conexión lista, o petición de un oyente de onReconnected que la está preparando
+            escribir(c, id, request, pendiente);
+        } else {
+            // Si la conexión falla antes de estar lista, fallarPendientes completa el future
+            c.lista.thenRun(() -> escribir(c, id, request, pendiente));
+        }
+        return pendiente.future;
+    }
+
+    /**
+     * Escribe una petición ya anotada en pendientes
+     */
+    private void escribir(Conexion c, long id, Request request, Pendiente pendiente) {
+        if (pendiente.future.isDone()) {
+            // Abandonada mientras esperaba a que la conexión estuviera lista
+            return;
+        }
+        try {
+            log.getFlightRecorder().registrarEnviada(request);
+            log.debug(() -> "Enviando: " + request.getAction() + " (requestId=" + id + ")");
+
+            // La petición se codifica en una sola pasada sobre el buffer de salida del transporte
+            PayloadFormat formato = c.formatoPayload;
+            synchronized (c.escritura) {
+                c.ordenEnvio.add(id);
+                c.transport.send(out -> {
+                    ProtocolMetrics.ContadorEscritura contador = new ProtocolMetrics.ContadorEscritura(out);
+                    long inicio = System.nanoTime();
+                    RequestEncoder.write(request, formato, contador);
+                    pendiente.serializacion = System.nanoTime() - inicio;
+                    pendiente.bytes = contador.getBytes();
+                });
+            }
+            pendiente.enviado = System.nanoTime();
+            metrics.registrarEnvio(pendiente.accion, pendiente.bytes + 1, pendiente.serializacion);
         } catch (IOException e) {
-            disconnect();
-            throw new IOException("Error en la comunicación con el servidor", e);
+            c.pendientes.remove(id);
+            c.ordenEnvio.remove(id);
+            metrics.registrarFallo(pendiente.accion);
+            log.error("Error enviando " + request.getAction() + ": " + e.getMessage());
+            log.volcarRegistro("error enviando " + request.getAction());
+            // Se cierra solo esta conexión; la reconexión automática sigue activa
+            c.transport.close();
+            pendiente.future.completeExceptionally(new IOException("Error en la comunicación con el servidor", e));
         }
     }
-    
+
     /**
-     * Cierra la conexión con el servidor
+     * Procesa una trama recibida: la primera es la bienvenida; después, eventos o respuestas
      */
-    public void disconnect() {
+    private void procesarTrama(Conexion c, String jsonResponse) {
+        long llegada = System.nanoTime();
+        c.ultimaTrama = llegada;
+        log.getFlightRecorder().registrarRecibida(jsonResponse);
+        log.trace(() -> "Recibido: " + FlightRecorder.censurar(jsonResponse));
+
+        Response response;
+        try {
+            response = ResponseDecoder.decode(jsonResponse);
+        } catch (JsonParseException e) {
+            log.error("Respuesta no válida del servidor: " + e.getMessage());
+            log.volcarRegistro("respuesta no válida");
+            return;
+        }
+        long parseo = System.nanoTime() - llegada;
+        long bytes = ProtocolMetrics.bytesUtf8(jsonResponse) + 1;
+
+        if (!c.bienvenida.isDone()) {
+            c.capacidades = leerCapacidades(response);
+            c.formatoPayload = c.capacidades.contains(PayloadFormat.CAPABILITY)
+                ? PayloadFormat.EMBEDDED_JSON
+                : PayloadFormat.LEGACY_STRING;
+            c.bienvenida.complete(response);
+            if (!c.reanudacion) {
+                c.lista.complete(null);
+            }
+        } else if (response.isEvent()) {
+            // Los eventos no consumen el orden de envío de las peticiones sin requestId
+            metrics.registrarEvento(bytes);
+            entregarEvento(response);
+        } else {
+            entregarRespuesta(c, response, llegada, parseo, bytes);
+        }
+    }
+
+    /**
+     * Lee las capacidades anunciadas en la bienvenida ("capabilities" en data)
+     * Un servidor que no anuncia nada se trata con el protocolo original
+     */
+    private Set<String> leerCapacidades(Response welcome) {
+        Set<String> capacidades = new HashSet<>();
+        JsonElement data = welcome != null ? welcome.getDataAsJson() : null;
+        if (data != null && data.isJsonObject() && data.getAsJsonObject().has("capabilities")) {
+            JsonElement lista = data.getAsJsonObject().get("capabilities");
+            if (lista.isJsonArray()) {
+                for (JsonElement capacidad : lista.getAsJsonArray()) {
+                    if (capacidad.isJsonPrimitive()) {
+                        capacidades.add(capacidad.getAsString());
+                    }
+                }
+            }
+        }
+        return capacidades;
+    }
+
+    /**
+     * El transporte se ha cerrado: se fallan las peticiones en vuelo y, si no lo
+     * cerró el cliente, se programa la reconexión
+     */
+    private void conexionCerrada(Conexion c, IOException causa) {
+        c.bienvenida.completeExceptionally(causa);
+        c.lista.completeExceptionally(causa);
+        olvidarConexion(c);
+        fallarPendientes(c, new IOException("Error en la comunicación con el servidor", causa));
+
+        if (!c.cerradaPorCliente && reconexionAutomatica) {
+            log.warn("Conexión perdida: " + causa.getMessage());
+            log.volcarRegistro("conexión perdida (" + causa.getMessage() + ")");
+            for (ConnectionListener listener : connectionListeners) {
+                listener.onConnectionLost(causa);
+            }
+            programarReconexion();
+        }
+    }
+
+    /**
+     * Lanza la reconexión en el hilo supervisor, o devuelve la que ya esté en marcha
+     * Se reconecta en el momento, sin esperar al backoff, pero nunca en el hilo del
+     * llamante: puede ser el EDT o el hilo lector
+     * @return Future con la conexión abierta; falla si no se pudo reconectar
+     */
+    private synchronized CompletableFuture<Conexion> reconexionEnSegundoPlano() {
+        if (reconexionEnCurso != null) {
+            return reconexionEnCurso;
+        }
+        CompletableFuture<Conexion> enCurso = new CompletableFuture<>();
+        reconexionEnCurso = enCurso;
+        supervisor().execute(() -> {
+            try {
+                reconectar();
+                Conexion c = conexion;
+                if (c == null) {
+                    throw new IOException("No hay conexión con el servidor");
+                }
+                terminarReconexion(enCurso);
+                enCurso.complete(c);
+            } catch (IOException e) {
+                log.warn("Reconexión fallida: " + e.getMessage());
+                programarReconexion();
+                terminarReconexion(enCurso);
+                enCurso.completeExceptionally(e);
+            }
+        });
+        return enCurso;
+    }
+
+    private synchronized void terminarReconexion(CompletableFuture<Conexion> enCurso) {
+        if (reconexionEnCurso == enCurso) {
+            reconexionEnCurso = null;
+        }
+    }
+
+    /**
+     * Abre una conexión nueva, repite la bienvenida y avisa a los oyentes
+     * Se serializa para que un llamante concurrente espere a que la reconexión
+     * (incluidos los oyentes) termine en lugar de abrir otra. La conexión no queda
+     * lista hasta que terminan los oyentes: las peticiones de otros hilos esperan
+     * al RESUME en lugar de llegar al servidor sin sesión.
+     */
+    private void reconectar() throws IOException {
+        synchronized (reconexion) {
+            if (isConnected()) {
+                return;
+            }
+            Conexion c = abrir(true);
+            synchronized (this) {
+                intentosReconexion = 0;
+            }
+            log.info("Reconectado a " + host + ":" + port);
+            try {
+                for (ConnectionListener listener : connectionListeners) {
+                    listener.onReconnected();
+                }
+            } finally {
+                c.lista.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Conecta si hace falta y espera la bienvenida, serializado con la reconexión
+     * @param reanudacion Si es una reconexión (ver conectar)
+     * @return La conexión abierta
+     */
+    private Conexion abrir(boolean reanudacion) throws IOException {
+        synchronized (reconexion) {
+            if (!isConnected()) {
+                conectar(reanudacion);
+            }
+            Conexion c = conexion;
+            if (c == null) {
+                throw new IOException("No hay conexión con el servidor");
+            }
+            esperarBienvenida(c, Math.max(heartbeatTimeoutMillis, 1000));
+            return c;
+        }
+    }
+
+    /**
+     * Programa el siguiente intento de reconexión con espera exponencial y jitter
+     */
+    private synchronized void programarReconexion() {
+        if (reconexionProgramada || !reconexionAutomatica) {
+            return;
+        }
+        reconexionProgramada = true;
+        long espera = backoff.espera(intentosReconexion++);
+        supervisor().schedule(this::intentarReconexion, espera, TimeUnit.MILLISECONDS);
+    }
+
+    private void intentarReconexion() {
+        synchronized (this) {
+            reconexionProgramada = false;
+            if (!reconexionAutomatica || isConnected()) {
+                return;
+            }
+        }
         try {
-            if (in != null) in.close();
-            if (out != null) out.close();
-            if (socket != null) socket.close();
+            reconectar();
         } catch (IOException e) {
-            System.err.println("Error al cerrar conexión: " + e.getMessage());
-        } finally {
-            socket = null;
-            in = null;
-            out = null;
+            log.warn("Reintento de conexión fallido: " + e.getMessage());
+            programarReconexion();
         }
     }
-    
+
+    /**
+     * Arranca el latido la primera vez que se conecta, si está configurado
+     * El supervisor puede existir ya (preconnect y la reconexión lo crean), así que
+     * lo que se comprueba es si el latido está programado, no si hay supervisor
+     */
+    private synchronized void iniciarLatido() {
+        if (heartbeatIntervalMillis <= 0 || latidoProgramado) {
+            return;
+        }
+        latidoProgramado = true;
+        supervisor().scheduleWithFixedDelay(this::latido,
+            heartbeatIntervalMillis, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Comprueba que la conexión sigue viva
+     * Sin peticiones en vuelo envía un PING y registra su RTT; si no responde a tiempo
+     * y tampoco ha llegado ninguna otra trama, la conexión se da por muerta. Con peticiones
+     * en vuelo el PING esperaría detrás de ellas, así que no se envía: basta con que llegue
+     * algo dentro del plazo de la más lenta.
+     */
+    private void latido() {
+        Conexion c = conexion;
+        if (c == null || !c.isOpen() || !c.lista.isDone()) {
+            return;
+        }
+
+        if (!c.pendientes.isEmpty()) {
+            // El silencio se cuenta desde la última trama o desde que se envió la más antigua
+            long desde = c.ultimaTrama;
+            long limite = heartbeatTimeoutMillis;
+            for (Pendiente pendiente : c.pendientes.values()) {
+                if (pendiente.inicio - desde > 0) {
+                    desde = pendiente.inicio;
+                }
+                long plazo = getDeadlineMillis(pendiente.accion);
+                limite = Math.max(limite, plazo > 0 ? plazo : plazoPorDefecto);
+            }
+            long silencio = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - desde);
+            if (silencio >= limite) {
+                log.warn("Nada recibido en " + silencio + " ms con peticiones en vuelo, se da la conexión por perdida");
+                c.transport.close();
+            }
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        CompletableFuture<Response> ping = sendRequestAsync(new Request(CommandType.PING));
+        try {
+            ping.get(heartbeatTimeoutMillis, TimeUnit.MILLISECONDS);
+            rtt.registrar(System.nanoTime() - inicio);
+        } catch (TimeoutException e) {
+            abandonar(ping, CommandType.PING, new SocketTimeoutException(
+                "Sin respuesta al PING en " + heartbeatTimeoutMillis + " ms"));
+            if (c.ultimaTrama - inicio < 0) {
+                log.warn("Sin respuesta al PING en " + heartbeatTimeoutMillis + " ms, se da la conexión por perdida");
+                c.transport.close();
+            }
+            // Si ha llegado otra trama la conexión vive: el PING iba detrás de otra petición
+        } catch (ExecutionException e) {
+            // La conexión ya se ha cerrado y la reconexión está en marcha
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized ScheduledExecutorService supervisor() {
+        if (supervisor == null) {
+            supervisor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread hilo = new Thread(r, "ElorES-heartbeat");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+        }
+        return supervisor;
+    }
+
+    /**
+     * Retira una petición que ya no espera nadie
+     * Con un servidor que devuelve el requestId sale también del orden de envío; si no,
+     * su hueco se conserva para emparejar y descartar su respuesta cuando llegue
+     */
+    private void retirar(Conexion c, long id) {
+        c.pendientes.remove(id);
+        if (c.devuelveRequestId) {
+            c.ordenEnvio.remove(id);
+        }
+    }
+
+    /**
+     * Entrega la respuesta a la petición que la espera y anota sus tiempos
+     * @param llegada Instante (nanoTime) en que se recibió la trama
+     */
+    private void entregarRespuesta(Conexion c, Response response, long llegada, long parseo, long bytes) {
+        Long id = response.getRequestId();
+        if (id != null) {
+            if (!c.devuelveRequestId) {
+                // Primera respuesta con requestId: los huecos de las abandonadas ya no hacen falta
+                c.devuelveRequestId = true;
+                c.ordenEnvio.removeIf(enviada -> !c.pendientes.containsKey(enviada));
+            }
+            c.ordenEnvio.remove(id);
+        } else {
+            // Servidor sin soporte de requestId: respuestas en orden de envío
+            id = c.ordenEnvio.poll();
+        }
+
+        Pendiente pendiente = id != null ? c.pendientes.remove(id) : null;
+        if (pendiente != null) {
+            // Si el hilo lector se adelanta al que envió, la espera se mide desde el inicio
+            long enviado = pendiente.enviado != 0 ? pendiente.enviado : pendiente.inicio;
+            metrics.registrarRespuesta(pendiente.accion, !response.isSuccess() && !response.isNotModified(),
+                bytes, llegada - enviado, parseo, System.nanoTime() - pendiente.inicio);
+            if (!pendiente.future.complete(response)) {
+                // Petición abandonada por plazo o cancelada: la respuesta ya no la espera nadie
+                metrics.registrarTardia();
+                log.debug(() -> "Respuesta tardía descartada: " + pendiente.accion + " (requestId=" + response.getRequestId() + ")");
+            }
+        } else if (id != null) {
+            // Petición ya retirada (abandonada por plazo o cancelada): se descarta
+            metrics.registrarTardia();
+            Long retirada = id;
+            log.debug(() -> "Respuesta tardía descartada (requestId=" + retirada + ")");
+        } else {
+            metrics.registrarSinPeticion();
+            log.error("Respuesta sin petición asociada (requestId=" + response.getRequestId() + ")");
+            log.volcarRegistro("respuesta sin petición asociada");
+        }
+    }
+
+    /**
+     * Reparte un evento del servidor; un oyente que falla no impide avisar al resto
+     */
+    private void entregarEvento(Response event) {
+        for (ServerEventListener listener : eventListeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                log.error("Error procesando evento " + event.getEvent(), e);
+            }
+        }
+    }
+
+    /**
+     * Falla todas las peticiones en vuelo
+     */
+    private void fallarPendientes(Conexion c, IOException causa) {
+        for (Long id : c.pendientes.keySet()) {
+            Pendiente pendiente = c.pendientes.remove(id);
+            if (pendiente != null) {
+                metrics.registrarFallo(pendiente.accion);
+                pendiente.future.completeExceptionally(causa);
+            }
+        }
+        c.ordenEnvio.clear();
+    }
+
+    /**
+     * Olvida una conexión si sigue siendo la actual
+     */
+    private synchronized void olvidarConexion(Conexion c) {
+        if (conexion == c) {
+            conexion = null;
+        }
+    }
+
+    /**
+     * Cierra la conexión con el servidor y desactiva la reconexión automática
+     * Una reconexión ya programada no llega a abrir, y la que esté en marcha cierra
+     * la conexión nueva en cuanto la abre (ver conectar)
+     */
+    public void disconnect() {
+        reconexionAutomatica = false;
+        Conexion c = conexion;
+        if (c != null) {
+            c.cerradaPorCliente = true;
+            olvidarConexion(c);
+            c.transport.close();
+        }
+    }
+
     public String getHost() {
         return host;
     }
-    
+
     public int getPort() {
         return port;
     }
-}
\ No newline at end of file
+
+    /**
+     * Petición en vuelo: el future que la espera y sus tiempos para las métricas
+     */
+    private static class Pendiente {
+        private final CompletableFuture<Response> future = new CompletableFuture<>();
+        private final CommandType accion;
+        private final long inicio = System.nanoTime();
+        private volatile long enviado;
+        private long serializacion;
+        private long bytes;
+
+        Pendiente(CommandType accion) {
+            this.accion = accion;
+        }
+    }
+
+    /**
+     * Estado de una conexión abierta: transporte, bienvenida y peticiones en vuelo
+     */
+    private class Conexion implements FrameListener {
+        private final Transport transport;
+        private final boolean reanudacion;
+        // Se completa cuando la conexión admite peticiones normales (ver reconectar)
+        private final CompletableFuture<Void> lista = new CompletableFuture<>();
+        private final Map<Long, Pendiente> pendientes = new ConcurrentHashMap<>();
+        private final Deque<Long> ordenEnvio = new ConcurrentLinkedDeque<>();
+        private final Object escritura = new Object();
+        private final CompletableFuture<Response> bienvenida = new CompletableFuture<>();
+        private volatile PayloadFormat formatoPayload = PayloadFormat.LEGACY_STRING;
+        private volatile Set<String> capacidades = Collections.emptySet();
+        private volatile boolean cerradaPorCliente;
+        private volatile boolean devuelveRequestId;
+        private volatile long ultimaTrama = System.nanoTime();
+
+        Conexion(Transport transport, boolean reanudacion) {
+            this.transport = transport;
+            this.reanudacion = reanudacion;
+        }
+
+        boolean isOpen() {
+            return transport.isOpen();
+        }
+
+        @Override
+        public void onFrame(String frame) {
+            procesarTrama(this, frame);
+        }
+
+        @Override
+        public void onClosed(IOException cause) {
+            conexionCerrada(this, cause);
+        }
+    }
+}
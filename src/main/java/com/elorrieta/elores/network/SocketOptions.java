@@ -0,0 +1,140 @@
+package com.elorrieta.elores.network;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SocketChannel;
+
+import javax.net.ssl.SSLContext;
+
+/**
+ * Opciones TCP del socket con ElorServ
+ *
+ * Por defecto se desactiva Nagle (TCP_NODELAY): las tramas del protocolo son líneas
+ * JSON pequeñas de petición y respuesta, justo el caso en el que Nagle, sumado al ACK
+ * retardado del otro extremo, puede retener una trama parcial unos 40 ms.
+ * Los tamaños a 0 dejan el valor del sistema operativo o del transporte.
+ */
+public class SocketOptions {
+    private boolean tcpNoDelay = true;
+    private boolean keepAlive = true;
+    private int sendBufferSize;
+    private int receiveBufferSize;
+    private int connectTimeoutMillis = 5000;
+    private int writeTimeoutMillis = 10000;
+    private int readerBufferSize;
+    private SSLContext sslContext;
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    /** SO_SNDBUF en bytes (0 = valor del sistema) */
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    public void setSendBufferSize(int sendBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+    }
+
+    /** SO_RCVBUF en bytes (0 = valor del sistema) */
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public void setReceiveBufferSize(int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    /** Tiempo máximo para establecer la conexión (0 = sin límite) */
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    /**
+     * Tiempo máximo de una escritura bloqueada (0 = sin límite)
+     * Si el servidor deja de leer y el buffer de envío se llena, el transporte
+     * bloqueante cierra la conexión en lugar de retener el cerrojo de escritura
+     */
+    public int getWriteTimeoutMillis() {
+        return writeTimeoutMillis;
+    }
+
+    public void setWriteTimeoutMillis(int writeTimeoutMillis) {
+        this.writeTimeoutMillis = writeTimeoutMillis;
+    }
+
+    /** Buffer de lectura del transporte en caracteres o bytes (0 = el del transporte) */
+    public int getReaderBufferSize() {
+        return readerBufferSize;
+    }
+
+    public void setReaderBufferSize(int readerBufferSize) {
+        this.readerBufferSize = readerBufferSize;
+    }
+
+    /**
+     * Contexto del transporte TLS (null = el del JVM)
+     * Debe ser el mismo en todas las conexiones para que se reanude la sesión TLS
+     */
+    public SSLContext getSslContext() {
+        return sslContext;
+    }
+
+    public void setSslContext(SSLContext sslContext) {
+        this.sslContext = sslContext;
+    }
+
+    /**
+     * Aplica las opciones a un socket; SO_RCVBUF debe fijarse antes de conectar
+     * para que se negocie el escalado de ventana
+     */
+    public void aplicar(Socket socket) throws IOException {
+        socket.setTcpNoDelay(tcpNoDelay);
+        socket.setKeepAlive(keepAlive);
+        if (sendBufferSize > 0) {
+            socket.setSendBufferSize(sendBufferSize);
+        }
+        if (receiveBufferSize > 0) {
+            socket.setReceiveBufferSize(receiveBufferSize);
+        }
+    }
+
+    /**
+     * Aplica las opciones a un canal NIO antes de conectarlo
+     */
+    public void aplicar(SocketChannel channel) throws IOException {
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, tcpNoDelay);
+        channel.setOption(StandardSocketOptions.SO_KEEPALIVE, keepAlive);
+        if (sendBufferSize > 0) {
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, sendBufferSize);
+        }
+        if (receiveBufferSize > 0) {
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferSize);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "nodelay=" + tcpNoDelay + " keepalive=" + keepAlive + " sndbuf=" + sendBufferSize
+            + " rcvbuf=" + receiveBufferSize + " connect=" + connectTimeoutMillis + "ms write=" + writeTimeoutMillis
+            + "ms reader=" + readerBufferSize;
+    }
+}
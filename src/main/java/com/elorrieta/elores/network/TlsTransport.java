@@ -0,0 +1,144 @@
+package com.elorrieta.elores.network;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+
+/**
+ * Transporte cifrado sobre SSLSocket
+ *
+ * Es el transporte bloqueante con el socket envuelto en TLS antes de empezar a leer.
+ * El SSLContext se toma de las SocketOptions y debe reutilizarse entre conexiones:
+ * su caché de sesiones, indexada por host y puerto, permite que una reconexión
+ * reanude la sesión (tickets o PSK en TLS 1.3) en lugar de repetir el handshake completo.
+ *
+ * Solo se ofrecen TLS 1.3 y 1.2 con suites AEAD y secreto perfecto hacia adelante,
+ * y se comprueba que el certificado corresponde al host.
+ */
+public class TlsTransport extends BlockingTransport {
+    private static final List<String> PROTOCOLOS = Arrays.asList("TLSv1.3", "TLSv1.2");
+
+    public TlsTransport() {
+        super();
+    }
+
+    public TlsTransport(SocketOptions opciones) {
+        super(opciones);
+    }
+
+    @Override
+    protected Socket conectar(String host, int port) throws IOException {
+        Socket tcp = super.conectar(host, port);
+        try {
+            SSLContext contexto = getOpciones().getSslContext() != null
+                ? getOpciones().getSslContext()
+                : SSLContext.getDefault();
+            // host y port identifican la sesión en la caché del contexto
+            SSLSocket ssl = (SSLSocket) contexto.getSocketFactory().createSocket(tcp, host, port, true);
+            SSLParameters parametros = parametros(contexto);
+            parametros.setEndpointIdentificationAlgorithm("HTTPS");
+            ssl.setSSLParameters(parametros);
+
+            // El handshake también respeta el plazo de conexión; después se lee sin límite
+            ssl.setSoTimeout(getOpciones().getConnectTimeoutMillis());
+            ssl.startHandshake();
+            ssl.setSoTimeout(0);
+            return ssl;
+        } catch (NoSuchAlgorithmException e) {
+            tcp.close();
+            throw new IOException("TLS no disponible en este JVM", e);
+        } catch (IOException | RuntimeException e) {
+            tcp.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Parámetros TLS comunes a cliente y servidor: protocolos y suites permitidos
+     * Se prefiere AES-128-GCM (barato con AES-NI) y después AES-256-GCM y ChaCha20
+     */
+    public static SSLParameters parametros(SSLContext contexto) {
+        SSLParameters parametros = contexto.getDefaultSSLParameters();
+
+        List<String> protocolos = new ArrayList<>();
+        List<String> soportados = Arrays.asList(contexto.getSupportedSSLParameters().getProtocols());
+        for (String protocolo : PROTOCOLOS) {
+            if (soportados.contains(protocolo)) {
+                protocolos.add(protocolo);
+            }
+        }
+        parametros.setProtocols(protocolos.toArray(new String[0]));
+
+        List<String> suites = new ArrayList<>();
+        for (String suite : parametros.getCipherSuites()) {
+            if (esAead(suite)) {
+                suites.add(suite);
+            }
+        }
+        suites.sort(Comparator.comparingInt(TlsTransport::preferencia));
+        parametros.setCipherSuites(suites.toArray(new String[0]));
+        parametros.setUseCipherSuitesOrder(true);
+        return parametros;
+    }
+
+    /**
+     * Contexto de cliente que confía en los certificados de un almacén
+     * @param almacen Fichero del almacén (PKCS12 o JKS), o null para los certificados del JVM
+     */
+    public static SSLContext contextoCliente(String almacen, char[] clave) throws IOException {
+        try {
+            TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            tmf.init(almacen != null ? KeyStore.getInstance(new File(almacen), clave) : null);
+            SSLContext contexto = SSLContext.getInstance("TLS");
+            contexto.init(null, tmf.getTrustManagers(), null);
+            return contexto;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("No se pudo preparar TLS con el almacén " + almacen, e);
+        }
+    }
+
+    /**
+     * Contexto de servidor con la clave y el certificado de un almacén
+     */
+    public static SSLContext contextoServidor(String almacen, char[] clave) throws IOException {
+        try {
+            KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            kmf.init(KeyStore.getInstance(new File(almacen), clave), clave);
+            SSLContext contexto = SSLContext.getInstance("TLS");
+            contexto.init(kmf.getKeyManagers(), null, null);
+            return contexto;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("No se pudo preparar TLS con el almacén " + almacen, e);
+        }
+    }
+
+    private static boolean esAead(String suite) {
+        if (suite.startsWith("TLS_AES_") || suite.startsWith("TLS_CHACHA20_")) {
+            return true; // suites de TLS 1.3
+        }
+        return suite.startsWith("TLS_ECDHE_") && (suite.contains("_GCM_") || suite.contains("CHACHA20"));
+    }
+
+    private static int preferencia(String suite) {
+        if (suite.contains("AES_128_GCM")) {
+            return 0;
+        }
+        if (suite.contains("AES_256_GCM")) {
+            return 1;
+        }
+        return 2;
+    }
+}
@@ -0,0 +1,33 @@
+package com.elorrieta.elores.network;
+
+import java.io.IOException;
+
+/**
+ * Transporte de tramas de texto con ElorServ
+ * Cada trama es una línea JSON; el transporte se encarga del socket y del
+ * enmarcado por salto de línea, y entrega las tramas recibidas a un FrameListener
+ */
+public interface Transport {
+
+    /**
+     * Abre la conexión y empieza a entregar tramas al listener
+     */
+    void open(String host, int port, FrameListener listener) throws IOException;
+
+    /**
+     * Envía una trama; el FrameWriter escribe su contenido directamente en el
+     * buffer de salida y el transporte añade el salto de línea
+     * Las llamadas concurrentes deben serializarse desde fuera
+     */
+    void send(FrameWriter frame) throws IOException;
+
+    /**
+     * Verifica si el transporte sigue abierto
+     */
+    boolean isOpen();
+
+    /**
+     * Cierra el transporte; el listener recibe onClosed una única vez
+     */
+    void close();
+}
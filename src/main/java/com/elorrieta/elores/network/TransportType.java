@@ -0,0 +1,46 @@
+package com.elorrieta.elores.network;
+
+/**
+ * Implementaciones de transporte disponibles para SocketClient
+ */
+public enum TransportType {
+    BLOCKING,
+    NIO,
+    TLS;
+
+    /**
+     * Crea una instancia nueva del transporte con las opciones por defecto
+     */
+    public Transport create() {
+        return create(new SocketOptions());
+    }
+
+    /**
+     * Crea una instancia nueva del transporte con las opciones de socket indicadas
+     */
+    public Transport create(SocketOptions opciones) {
+        switch (this) {
+            case NIO:
+                return new NioTransport(opciones);
+            case TLS:
+                return new TlsTransport(opciones);
+            case BLOCKING:
+            default:
+                return new BlockingTransport(opciones);
+        }
+    }
+
+    /**
+     * Convierte el valor de configuración, usando BLOCKING si no se reconoce
+     */
+    public static TransportType fromString(String value) {
+        if (value != null) {
+            for (TransportType type : values()) {
+                if (type.name().equalsIgnoreCase(value.trim())) {
+                    return type;
+                }
+            }
+        }
+        return BLOCKING;
+    }
+}
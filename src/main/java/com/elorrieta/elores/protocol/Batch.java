@@ -0,0 +1,55 @@
+package com.elorrieta.elores.protocol;
+
+import java.util.List;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Codificación del comando BATCH
+ *
+ * Petición: payload {"requests":[{"action":..., "payload":{...}, "ifNoneMatch":...}, ...]}
+ * Respuesta: data [{"status":..., "message":..., "data":...}, ...] en el mismo orden
+ */
+public final class Batch {
+    /** Capacidad que anuncia el servidor en la bienvenida si entiende BATCH */
+    public static final String CAPABILITY = "batch";
+
+    private Batch() {}
+
+    /**
+     * Agrupa varias peticiones en una única petición BATCH
+     * Las subpeticiones heredan el sessionToken de la petición externa
+     */
+    public static Request crear(List<Request> peticiones) {
+        JsonArray lista = new JsonArray();
+        for (Request peticion : peticiones) {
+            JsonObject sub = new JsonObject();
+            sub.addProperty("action", peticion.getAction().name());
+            sub.add("payload", peticion.getPayloadJson());
+            if (peticion.getIfNoneMatch() != null) {
+                sub.addProperty("ifNoneMatch", peticion.getIfNoneMatch());
+            }
+            lista.add(sub);
+        }
+
+        JsonObject payload = new JsonObject();
+        payload.add("requests", lista);
+        return new Request(CommandType.BATCH, payload);
+    }
+
+    /**
+     * Separa la respuesta de un BATCH en las respuestas individuales
+     * @param respuesta Respuesta del servidor al BATCH
+     * @param esperadas Número de subpeticiones enviadas
+     * @return Respuestas en el mismo orden que las peticiones
+     */
+    public static List<Response> separar(Response respuesta, int esperadas) {
+        List<Response> respuestas = ResponseDecoder.decodeLista(respuesta.getDataAsString());
+        if (respuestas.size() != esperadas) {
+            throw new IllegalArgumentException("Respuesta BATCH con " + respuestas.size() +
+                " elementos, se esperaban " + esperadas);
+        }
+        return respuestas;
+    }
+}
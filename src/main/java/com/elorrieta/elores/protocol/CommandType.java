@@ -17,5 +17,9 @@ public enum CommandType {
     GET_PERFIL,
     UPDATE_PERFIL,
     PING,
+    RESUME,
+    SUBSCRIBE,
+    UNSUBSCRIBE,
+    BATCH,
     OTHER
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.elorrieta.elores.protocol;
+
+/**
+ * Sincronización incremental de colecciones (por ahora, GET_REUNIONES)
+ *
+ * Petición: payload con "since" = cursor de la última sincronización ("" para empezar).
+ * Respuesta: data {"changed":[...], "deleted":[ids], "cursor":"...", "full":bool}.
+ * Con "full" a true la respuesta es una instantánea completa que sustituye a la copia
+ * local (primer uso o cursor demasiado antiguo). El cursor es opaco para el cliente.
+ */
+public final class DeltaSync {
+    /** Capacidad que anuncia el servidor en la bienvenida si entiende "since" */
+    public static final String CAPABILITY = "delta-sync";
+
+    public static final String SINCE = "since";
+    public static final String CHANGED = "changed";
+    public static final String DELETED = "deleted";
+    public static final String CURSOR = "cursor";
+    public static final String FULL = "full";
+
+    private DeltaSync() {}
+}
@@ -0,0 +1,34 @@
+package com.elorrieta.elores.protocol;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Proyección de campos en los comandos de lectura (GET_ALUMNOS, GET_PROFESORES, GET_PERFIL)
+ *
+ * Petición: payload con "fields" = nombres de los campos que se quieren de cada registro.
+ * El servidor devuelve solo esos campos; sin "fields" devuelve el registro completo.
+ * Las vistas de lista piden solo las columnas que pintan y el detalle pide el registro entero.
+ */
+public final class FieldProjection {
+    /** Capacidad que anuncia el servidor en la bienvenida si entiende "fields" */
+    public static final String CAPABILITY = "fields";
+
+    public static final String FIELDS = "fields";
+
+    private FieldProjection() {}
+
+    /**
+     * Añade la lista de campos al payload; sin campos no se añade nada (registro completo)
+     */
+    public static void proyectar(JsonObject payload, String... campos) {
+        if (campos == null || campos.length == 0) {
+            return;
+        }
+        JsonArray lista = new JsonArray();
+        for (String campo : campos) {
+            lista.add(campo);
+        }
+        payload.add(FIELDS, lista);
+    }
+}
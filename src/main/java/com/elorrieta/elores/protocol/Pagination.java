@@ -0,0 +1,23 @@
+package com.elorrieta.elores.protocol;
+
+/**
+ * Lectura paginada de listas grandes (GET_ALUMNOS y GET_PROFESORES)
+ *
+ * Petición: payload con "limit" = tamaño de página y "cursor" = valor de la página
+ * anterior (se omite en la primera). Respuesta: data {"items":[...], "nextCursor":"..."};
+ * sin "nextCursor" no quedan más páginas. El cursor es opaco para el cliente.
+ */
+public final class Pagination {
+    /** Capacidad que anuncia el servidor en la bienvenida si entiende "limit" */
+    public static final String CAPABILITY = "paging";
+
+    public static final String LIMIT = "limit";
+    public static final String CURSOR = "cursor";
+    public static final String ITEMS = "items";
+    public static final String NEXT_CURSOR = "nextCursor";
+
+    /** Tamaño de página por defecto: lo que cabe en pantalla con algo de margen */
+    public static final int DEFAULT_LIMIT = 50;
+
+    private Pagination() {}
+}
@@ -0,0 +1,14 @@
+package com.elorrieta.elores.protocol;
+
+/**
+ * Formato de codificación del campo "payload" de las peticiones
+ */
+public enum PayloadFormat {
+    /** Payload serializado dentro de un string JSON (formato original de Reto2ElorServ) */
+    LEGACY_STRING,
+    /** Payload embebido como objeto JSON, sin doble escapado */
+    EMBEDDED_JSON;
+
+    /** Capacidad que anuncia el servidor en la bienvenida para aceptar EMBEDDED_JSON */
+    public static final String CAPABILITY = "json-payload";
+}
@@ -0,0 +1,26 @@
+package com.elorrieta.elores.protocol;
+
+/**
+ * Notificaciones que el servidor envía por iniciativa propia en la misma conexión
+ *
+ * Trama de evento: {"event":"reunion-changed","data":{...}} sin requestId ni status.
+ * El cliente se apunta a un tema con SUBSCRIBE {"topics":["reuniones"]} y se borra
+ * con UNSUBSCRIBE; las suscripciones son por conexión.
+ */
+public final class PushEvents {
+    /** Capacidad que anuncia el servidor en la bienvenida si admite SUBSCRIBE */
+    public static final String CAPABILITY = "push";
+
+    /** Temas de suscripción */
+    public static final String TOPIC_REUNIONES = "reuniones";
+    public static final String TOPIC_HORARIO = "horario";
+
+    /** Reunión creada o modificada; data es la reunión completa */
+    public static final String REUNION_CHANGED = "reunion-changed";
+    /** Reunión eliminada; data es {"idReunion": n} */
+    public static final String REUNION_DELETED = "reunion-deleted";
+    /** El horario de un profesor ha cambiado; data es {"profesorId": n} */
+    public static final String HORARIO_CHANGED = "horario-changed";
+
+    private PushEvents() {}
+}
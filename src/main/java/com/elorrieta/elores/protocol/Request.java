@@ -1,29 +1,40 @@
 package com.elorrieta.elores.protocol;
 
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 
 /**
  * Clase para encapsular peticiones al servidor
  * Compatible con el protocolo de Reto2ElorServ
  */
 public class Request {
+    private Long requestId;      // Identificador de correlación asignado por SocketClient
     private CommandType action;  // Cambiado de "command" a "action" para compatibilidad
     private String sessionToken;
-    private String payload;      // Cambiado de "data" a "payload"
+    private String ifNoneMatch;  // Versión de la copia local: el servidor contesta 304 si no ha cambiado
+    private JsonObject payload;  // Cambiado de "data" a "payload"; se serializa con RequestEncoder
     
     public Request(CommandType action) {
         this.action = action;
-        this.payload = "{}";
+        this.payload = new JsonObject();
     }
     
     public Request(CommandType action, String payload) {
         this.action = action;
-        this.payload = payload;
+        setPayload(payload);
     }
     
     public Request(CommandType action, JsonObject data) {
         this.action = action;
-        this.payload = data.toString();
+        this.payload = data;
+    }
+
+    public Long getRequestId() {
+        return requestId;
+    }
+
+    public void setRequestId(Long requestId) {
+        this.requestId = requestId;
     }
 
     public CommandType getAction() {
@@ -42,15 +53,32 @@ public class Request {
         this.sessionToken = sessionToken;
     }
 
+    public String getIfNoneMatch() {
+        return ifNoneMatch;
+    }
+
+    public void setIfNoneMatch(String ifNoneMatch) {
+        this.ifNoneMatch = ifNoneMatch;
+    }
+
     public String getPayload() {
+        return payload.toString();
+    }
+    
+    /**
+     * Obtiene el payload como objeto JSON, sin serializarlo
+     */
+    public JsonObject getPayloadJson() {
         return payload;
     }
 
     public void setPayload(String payload) {
-        this.payload = payload;
+        this.payload = payload != null && !payload.isEmpty()
+            ? JsonParser.parseString(payload).getAsJsonObject()
+            : new JsonObject();
     }
     
     public void setPayload(JsonObject data) {
-        this.payload = data.toString();
+        this.payload = data;
     }
 }
\ No newline at end of file
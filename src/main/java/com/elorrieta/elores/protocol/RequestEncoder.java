@@ -0,0 +1,46 @@
+package com.elorrieta.elores.protocol;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Codifica peticiones en una sola pasada directamente sobre un Writer
+ * Evita construir el String intermedio de la petición y, con EMBEDDED_JSON,
+ * el doble escapado del payload
+ */
+public final class RequestEncoder {
+    private static final Gson GSON = new Gson();
+
+    private RequestEncoder() {}
+
+    /**
+     * Escribe la petición como un objeto JSON (sin salto de línea final)
+     * @param request Petición a codificar
+     * @param format Formato del payload negociado con el servidor
+     * @param out Destino; no se cierra ni se vacía
+     */
+    public static void write(Request request, PayloadFormat format, Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginObject();
+        if (request.getRequestId() != null) {
+            writer.name("requestId").value(request.getRequestId());
+        }
+        writer.name("action").value(request.getAction().name());
+        if (request.getSessionToken() != null) {
+            writer.name("sessionToken").value(request.getSessionToken());
+        }
+        if (request.getIfNoneMatch() != null) {
+            writer.name("ifNoneMatch").value(request.getIfNoneMatch());
+        }
+        writer.name("payload");
+        if (format == PayloadFormat.EMBEDDED_JSON) {
+            GSON.toJson(request.getPayloadJson(), writer);
+        } else {
+            writer.value(request.getPayload());
+        }
+        writer.endObject();
+    }
+}
@@ -1,29 +1,118 @@
 package com.elorrieta.elores.protocol;
 
+import java.io.Reader;
+
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
 /**
  * Clase para encapsular respuestas del servidor
  * Compatible con el protocolo de Reto2ElorServ
+ *
+ * data se guarda como el trozo de la trama donde está su texto JSON, sin copiarlo ni
+ * construir el árbol: los lectores de la capa de servicios lo enlazan en streaming
+ * con getDataReader. Se
+ * normaliza una sola vez al construir la respuesta (ver ResponseDecoder) y no cambia
+ * después: la misma Response se comparte entre hilos (ReadCoalescer, eventos).
  */
 public class Response {
+    /** Código con el que el servidor indica que la versión enviada en ifNoneMatch sigue vigente */
+    public static final int NOT_MODIFIED = 304;
+    
+    private Long requestId;      // Eco del requestId de la petición (null en servidores antiguos)
     private StatusCode status;
     private String message;
-    private Object data;
+    private final String texto;  // Texto que contiene data (normalmente la trama entera); null si no hay data
+    private final int inicioData;
+    private final int finData;
+    private String sessionToken; // Token de sesión emitido en LOGIN (null en el resto)
+    private String version;      // Versión del contenido de data, para peticiones condicionales
+    private String event;        // Tipo de evento en las tramas enviadas por el servidor sin petición
     
-    public Response() {}
+    public Response() {
+        this(null, 0, 0);
+    }
     
-    public Response(StatusCode status, String message, Object data) {
+    public Response(StatusCode status, String message, JsonElement data) {
+        this(normalizar(data));
         this.status = status;
         this.message = message;
-        this.data = data;
+    }
+
+    private Response(String data) {
+        this(data, 0, data != null ? data.length() : 0);
+    }
+
+    /**
+     * Respuesta cuyo data ocupa texto[inicio, fin), ya normalizado por ResponseDecoder
+     * @param texto Trama (o texto desenvuelto de un servidor antiguo); null si no hay data
+     */
+    Response(String texto, int inicio, int fin) {
+        this.texto = texto;
+        this.inicioData = inicio;
+        this.finData = fin;
+    }
+
+    /**
+     * Texto de data listo para enlazar: null si no hay y, si un servidor antiguo envía
+     * los datos serializados dentro de un string, ese string
+     */
+    private static String normalizar(JsonElement data) {
+        if (data == null || data.isJsonNull()) {
+            return null;
+        }
+        if (data.isJsonPrimitive() && data.getAsJsonPrimitive().isString()) {
+            String texto = data.getAsString().trim();
+            if (texto.startsWith("{") || texto.startsWith("[")) {
+                return texto;
+            }
+        }
+        return data.toString();
+    }
+
+    public Long getRequestId() {
+        return requestId;
+    }
+
+    public void setRequestId(Long requestId) {
+        this.requestId = requestId;
     }
 
     public boolean isSuccess() {
         return status != null && status.getCode() == 200;
     }
 
+    /**
+     * El contenido no ha cambiado respecto a la versión enviada; no trae data
+     */
+    public boolean isNotModified() {
+        return status != null && status.getCode() == NOT_MODIFIED;
+    }
+
+    /**
+     * Indica si la trama es un evento del servidor y no la respuesta a una petición
+     */
+    public boolean isEvent() {
+        return event != null;
+    }
+
+    public String getEvent() {
+        return event;
+    }
+
+    public void setEvent(String event) {
+        this.event = event;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
     public StatusCode getStatus() {
         return status;
     }
@@ -40,19 +129,70 @@ public class Response {
         this.message = message;
     }
 
-    public Object getData() {
-        return data;
+    public String getSessionToken() {
+        return sessionToken;
+    }
+
+    public void setSessionToken(String sessionToken) {
+        this.sessionToken = sessionToken;
     }
 
-    public void setData(Object data) {
-        this.data = data;
+    public JsonElement getData() {
+        return getDataAsJson();
+    }
+    
+    /**
+     * Indica si la respuesta trae datos
+     */
+    public boolean hasData() {
+        return texto != null;
+    }
+    
+    /**
+     * Obtiene los datos como árbol JSON
+     * Cada llamada parsea el texto de nuevo: para listas grandes, getDataReader
+     * @return Datos de la respuesta o null si no hay
+     */
+    public JsonElement getDataAsJson() {
+        return texto != null ? JsonParser.parseReader(new TrozoReader()) : null;
     }
     
+    /**
+     * Lector en streaming sobre los datos, para enlazarlos sin construir el árbol
+     * Cada llamada devuelve un lector nuevo situado al principio de data
+     * @return Lector o null si no hay datos
+     */
+    public JsonReader getDataReader() {
+        return texto != null ? new JsonReader(new TrozoReader()) : null;
+    }
+    
+    /**
+     * Texto JSON de los datos, o null si no hay
+     */
     public String getDataAsString() {
-        if (data != null) {
-            return data.toString();
+        return texto != null ? texto.substring(inicioData, finData) : null;
+    }
+    
+    /**
+     * Lee el trozo de data directamente de la trama, sin copiarlo antes a otro String
+     */
+    private class TrozoReader extends Reader {
+        private int pos = inicioData;
+        
+        @Override
+        public int read(char[] destino, int desde, int cuantos) {
+            if (pos >= finData) {
+                return -1;
+            }
+            int n = Math.min(cuantos, finData - pos);
+            texto.getChars(pos, pos + n, destino, desde);
+            pos += n;
+            return n;
+        }
+        
+        @Override
+        public void close() {
         }
-        return null;
     }
     
     /**
@@ -0,0 +1,392 @@
+package com.elorrieta.elores.protocol;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonParseException;
+
+/**
+ * Decodificación de las tramas de respuesta del servidor
+ *
+ * La trama se recorre una sola vez: los campos pequeños (status, message, requestId...)
+ * se leen al pasar y de data solo se localizan sus límites, sin construir el árbol ni
+ * copiarla. La Response se queda con la trama y esos límites, y los lectores de la capa
+ * de servicios enlazan data en streaming con los TypeAdapter de ProtocolJson.
+ *
+ * Se construye la Response con su constructor en lugar de rellenarla por reflexión,
+ * así data queda normalizada una sola vez antes de que la vea ningún otro hilo.
+ * data se valida cuando se enlaza; aquí solo se comprueba que sus corchetes cierran.
+ */
+public final class ResponseDecoder {
+
+    private ResponseDecoder() {}
+
+    /**
+     * Decodifica una trama recibida
+     * @throws JsonParseException si la trama no es un objeto JSON válido
+     */
+    public static Response decode(String trama) {
+        Escaner escaner = new Escaner(trama);
+        Response response = escaner.respuesta();
+        escaner.fin();
+        return response;
+    }
+
+    /**
+     * Decodifica un array de respuestas (la data de una respuesta BATCH)
+     * @throws JsonParseException si no es un array de objetos JSON
+     */
+    public static List<Response> decodeLista(String texto) {
+        List<Response> respuestas = new ArrayList<>();
+        if (texto == null) {
+            return respuestas;
+        }
+        Escaner escaner = new Escaner(texto);
+        escaner.espacios();
+        escaner.esperar('[');
+        escaner.espacios();
+        if (!escaner.consumir(']')) {
+            do {
+                escaner.espacios();
+                respuestas.add(escaner.respuesta());
+                escaner.espacios();
+            } while (escaner.consumir(','));
+            escaner.esperar(']');
+        }
+        escaner.fin();
+        return respuestas;
+    }
+
+    /**
+     * Recorrido de un texto JSON por posiciones
+     */
+    private static final class Escaner {
+        private final String texto;
+        private int pos;
+
+        Escaner(String texto) {
+            this.texto = texto;
+        }
+
+        Response respuesta() {
+            espacios();
+            esperar('{');
+            Response.StatusCode status = null;
+            String message = null;
+            String textoData = null;
+            int inicioData = 0;
+            int finData = 0;
+            Long requestId = null;
+            String sessionToken = null;
+            String version = null;
+            String event = null;
+
+            espacios();
+            if (!consumir('}')) {
+                do {
+                    espacios();
+                    String campo = cadena();
+                    espacios();
+                    esperar(':');
+                    espacios();
+                    switch (campo) {
+                        case "data":
+                            int inicio = pos;
+                            if (actual() == '"') {
+                                // Servidor antiguo: si el string contiene JSON, data es su contenido
+                                String contenido = cadena().trim();
+                                if (contenido.startsWith("{") || contenido.startsWith("[")) {
+                                    textoData = contenido;
+                                    inicioData = 0;
+                                    finData = contenido.length();
+                                    break;
+                                }
+                            } else if (literalNull()) {
+                                textoData = null;
+                                break;
+                            } else {
+                                saltarValor();
+                            }
+                            textoData = texto;
+                            inicioData = inicio;
+                            finData = pos;
+                            break;
+                        case "status":
+                            status = status();
+                            break;
+                        case "requestId":
+                            requestId = numero();
+                            break;
+                        case "message":
+                            message = cadenaONull();
+                            break;
+                        case "sessionToken":
+                            sessionToken = cadenaONull();
+                            break;
+                        case "version":
+                            version = cadenaONull();
+                            break;
+                        case "event":
+                            event = cadenaONull();
+                            break;
+                        default:
+                            saltarValor(); // campos que este cliente no conoce
+                            break;
+                    }
+                    espacios();
+                } while (consumir(','));
+                esperar('}');
+            }
+
+            Response response = new Response(textoData, inicioData, finData);
+            response.setStatus(status);
+            response.setMessage(message);
+            response.setRequestId(requestId);
+            response.setSessionToken(sessionToken);
+            response.setVersion(version);
+            response.setEvent(event);
+            return response;
+        }
+
+        private Response.StatusCode status() {
+            if (literalNull()) {
+                return null;
+            }
+            esperar('{');
+            int code = 0;
+            String description = null;
+            espacios();
+            if (!consumir('}')) {
+                do {
+                    espacios();
+                    String campo = cadena();
+                    espacios();
+                    esperar(':');
+                    espacios();
+                    if ("code".equals(campo)) {
+                        Long valor = numero();
+                        code = valor != null ? valor.intValue() : 0;
+                    } else if ("description".equals(campo)) {
+                        description = cadenaONull();
+                    } else {
+                        saltarValor();
+                    }
+                    espacios();
+                } while (consumir(','));
+                esperar('}');
+            }
+            return new Response.StatusCode(code, description);
+        }
+
+        /**
+         * Número entero, también si llega entre comillas
+         */
+        private Long numero() {
+            if (literalNull()) {
+                return null;
+            }
+            String valor;
+            if (actual() == '"') {
+                valor = cadena();
+            } else {
+                int inicio = pos;
+                saltarValor();
+                valor = texto.substring(inicio, pos);
+            }
+            try {
+                return Long.parseLong(valor);
+            } catch (NumberFormatException e) {
+                throw error("número no válido '" + valor + "'");
+            }
+        }
+
+        private String cadenaONull() {
+            if (literalNull()) {
+                return null;
+            }
+            if (actual() != '"') {
+                // Un valor que no es string (número, booleano) se conserva como texto
+                int inicio = pos;
+                saltarValor();
+                return texto.substring(inicio, pos);
+            }
+            return cadena();
+        }
+
+        private boolean literalNull() {
+            if (texto.startsWith("null", pos)) {
+                pos += 4;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Lee un string JSON; sin secuencias de escape no copia más que el resultado
+         */
+        private String cadena() {
+            esperar('"');
+            int inicio = pos;
+            while (pos < texto.length()) {
+                char c = texto.charAt(pos);
+                if (c == '"') {
+                    return texto.substring(inicio, pos++);
+                }
+                if (c == '\\') {
+                    return cadenaConEscapes(inicio);
+                }
+                pos++;
+            }
+            throw error("string sin cerrar");
+        }
+
+        private String cadenaConEscapes(int inicio) {
+            StringBuilder sb = new StringBuilder(texto.length() - inicio);
+            sb.append(texto, inicio, pos);
+            while (pos < texto.length()) {
+                char c = texto.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= texto.length()) {
+                    break;
+                }
+                char escape = texto.charAt(pos++);
+                switch (escape) {
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'u':
+                        if (pos + 4 > texto.length()) {
+                            throw error("escape \\u incompleto");
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(texto.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("escape \\u no válido");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        sb.append(escape); // \" \\ \/
+                        break;
+                }
+            }
+            throw error("string sin cerrar");
+        }
+
+        /**
+         * Salta un string sin decodificarlo
+         */
+        private void saltarCadena() {
+            esperar('"');
+            while (pos < texto.length()) {
+                char c = texto.charAt(pos++);
+                if (c == '"') {
+                    return;
+                }
+                if (c == '\\') {
+                    pos++;
+                }
+            }
+            throw error("string sin cerrar");
+        }
+
+        /**
+         * Salta un valor cualquiera; en objetos y arrays solo se siguen strings y corchetes
+         */
+        private void saltarValor() {
+            char c = actual();
+            if (c == '"') {
+                saltarCadena();
+                return;
+            }
+            if (c == '{' || c == '[') {
+                int profundidad = 0;
+                while (pos < texto.length()) {
+                    c = texto.charAt(pos);
+                    if (c == '"') {
+                        saltarCadena();
+                        continue;
+                    }
+                    if (c == '{' || c == '[') {
+                        profundidad++;
+                    } else if (c == '}' || c == ']') {
+                        profundidad--;
+                        if (profundidad == 0) {
+                            pos++;
+                            return;
+                        }
+                    }
+                    pos++;
+                }
+                throw error("objeto o array sin cerrar");
+            }
+            int inicio = pos;
+            while (pos < texto.length()) {
+                c = texto.charAt(pos);
+                if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                    break;
+                }
+                pos++;
+            }
+            if (pos == inicio) {
+                throw error("se esperaba un valor");
+            }
+        }
+
+        void espacios() {
+            while (pos < texto.length() && Character.isWhitespace(texto.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        boolean consumir(char c) {
+            if (pos < texto.length() && texto.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void esperar(char c) {
+            if (!consumir(c)) {
+                throw error("se esperaba '" + c + "'");
+            }
+        }
+
+        void fin() {
+            espacios();
+            if (pos < texto.length()) {
+                throw error("texto sobrante");
+            }
+        }
+
+        private char actual() {
+            if (pos >= texto.length()) {
+                throw error("fin inesperado");
+            }
+            return texto.charAt(pos);
+        }
+
+        private JsonParseException error(String motivo) {
+            return new JsonParseException("Respuesta no válida en la posición " + pos + ": " + motivo);
+        }
+    }
+}
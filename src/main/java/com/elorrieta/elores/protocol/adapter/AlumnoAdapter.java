@@ -0,0 +1,90 @@
+package com.elorrieta.elores.protocol.adapter;
+
+import java.io.IOException;
+
+import com.elorrieta.elores.model.Alumno;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Lectura en streaming de Alumno en una sola pasada
+ */
+public class AlumnoAdapter extends TypeAdapter<Alumno> {
+
+    @Override
+    public Alumno read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Alumno alumno = new Alumno();
+        Integer entero;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    if ((entero = Campos.entero(in)) != null) alumno.setId(entero);
+                    break;
+                case "nombre":
+                    alumno.setNombre(Campos.texto(in));
+                    break;
+                case "apellidos":
+                    alumno.setApellidos(Campos.texto(in));
+                    break;
+                case "email":
+                    alumno.setEmail(Campos.texto(in));
+                    break;
+                case "dni":
+                    alumno.setDni(Campos.texto(in));
+                    break;
+                case "telefono1":
+                    alumno.setTelefono1(Campos.texto(in));
+                    break;
+                case "telefono2":
+                    alumno.setTelefono2(Campos.texto(in));
+                    break;
+                case "direccion":
+                    alumno.setDireccion(Campos.texto(in));
+                    break;
+                case "argazkiaUrl":
+                    alumno.setArgazkiaUrl(Campos.texto(in));
+                    break;
+                case "ciclo":
+                    alumno.setCiclo(Campos.texto(in));
+                    break;
+                case "curso":
+                    alumno.setCurso(Campos.texto(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return alumno;
+    }
+
+    @Override
+    public void write(JsonWriter out, Alumno alumno) throws IOException {
+        if (alumno == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(alumno.getId());
+        Campos.escribir(out, "nombre", alumno.getNombre());
+        Campos.escribir(out, "apellidos", alumno.getApellidos());
+        Campos.escribir(out, "email", alumno.getEmail());
+        Campos.escribir(out, "dni", alumno.getDni());
+        Campos.escribir(out, "telefono1", alumno.getTelefono1());
+        Campos.escribir(out, "telefono2", alumno.getTelefono2());
+        Campos.escribir(out, "direccion", alumno.getDireccion());
+        Campos.escribir(out, "argazkiaUrl", alumno.getArgazkiaUrl());
+        Campos.escribir(out, "ciclo", alumno.getCiclo());
+        Campos.escribir(out, "curso", alumno.getCurso());
+        out.endObject();
+    }
+}
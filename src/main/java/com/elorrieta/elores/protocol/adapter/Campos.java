@@ -0,0 +1,121 @@
+package com.elorrieta.elores.protocol.adapter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Utilidades comunes de lectura tolerante para los TypeAdapter del protocolo
+ *
+ * Los campos con alias conservan la prioridad de los antiguos parse*: cuando un
+ * objeto trae varios alias del mismo campo gana el de menor prioridad, sin
+ * importar el orden en que aparezcan.
+ */
+final class Campos {
+    static final int SIN_VALOR = Integer.MAX_VALUE;
+
+    private Campos() {}
+
+    /**
+     * Crea el registro de prioridades para un objeto con n campos con alias
+     */
+    static int[] prioridades(int n) {
+        int[] p = new int[n];
+        Arrays.fill(p, SIN_VALOR);
+        return p;
+    }
+
+    /**
+     * Decide si el alias con la prioridad dada debe sobrescribir el valor actual
+     * Si no, consume el valor para dejar el lector en el siguiente nombre
+     */
+    static boolean acepta(JsonReader in, int[] prioridades, int campo, int prioridad) throws IOException {
+        if (prioridad < prioridades[campo] && in.peek() != JsonToken.NULL) {
+            prioridades[campo] = prioridad;
+            return true;
+        }
+        in.skipValue();
+        return false;
+    }
+
+    /**
+     * Lee un valor escalar como texto; null, objetos y arrays se descartan
+     */
+    static String texto(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return in.nextString();
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(in.nextBoolean());
+        }
+        in.skipValue();
+        return null;
+    }
+
+    /**
+     * Lee un entero aceptando números y cadenas numéricas; en otro caso devuelve null
+     * El valor se consume siempre como texto: si nextInt falla deja el token sin
+     * consumir y el resto del objeto se leería desplazado
+     */
+    static Integer entero(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+            String valor = in.nextString();
+            try {
+                return Integer.parseInt(valor);
+            } catch (NumberFormatException e) {
+                // Como nextInt: también "7.0" o "7e0", si el valor es entero
+                try {
+                    double numero = Double.parseDouble(valor);
+                    int entero = (int) numero;
+                    return entero == numero ? entero : null;
+                } catch (NumberFormatException noNumerico) {
+                    return null;
+                }
+            }
+        }
+        in.skipValue();
+        return null;
+    }
+
+    /**
+     * Lee una fecha ISO o con el formato de MySQL ("yyyy-MM-dd HH:mm:ss")
+     */
+    static LocalDateTime fecha(JsonReader in) throws IOException {
+        String valor = texto(in);
+        if (valor == null || valor.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(valor.replace(' ', 'T'), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            System.err.println("Error parseando fecha: " + e.getMessage());
+            return null;
+        }
+    }
+
+    static void escribir(JsonWriter out, String nombre, String valor) throws IOException {
+        if (valor != null) {
+            out.name(nombre).value(valor);
+        }
+    }
+
+    static void escribir(JsonWriter out, String nombre, Integer valor) throws IOException {
+        if (valor != null) {
+            out.name(nombre).value(valor);
+        }
+    }
+
+    static void escribir(JsonWriter out, String nombre, LocalDateTime valor) throws IOException {
+        if (valor != null) {
+            out.name(nombre).value(valor.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.elorrieta.elores.protocol.adapter;
+
+import java.io.IOException;
+
+import com.elorrieta.elores.model.Horario;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Lectura en streaming de Horario en una sola pasada
+ * Estructura esperada de la BD:
+ * - id, dia, hora, profe_id, modulo_id, aula, observaciones, ciclo_id, curso
+ * - Puede incluir: modulo_nombre, ciclo_nombre (desde JOIN)
+ */
+public class HorarioAdapter extends TypeAdapter<Horario> {
+    private static final int DIA = 0;
+    private static final int PROFE_ID = 1;
+    private static final int MODULO_ID = 2;
+    private static final int MODULO_NOMBRE = 3;
+    private static final int CICLO_ID = 4;
+    private static final int CICLO_NOMBRE = 5;
+    private static final int NUM_ALIAS = 6;
+
+    @Override
+    public Horario read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Horario horario = new Horario();
+        int[] prioridades = Campos.prioridades(NUM_ALIAS);
+        Integer entero;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    if ((entero = Campos.entero(in)) != null) horario.setId(entero);
+                    break;
+                case "dia":
+                    if (Campos.acepta(in, prioridades, DIA, 0)) horario.setDia(Campos.texto(in));
+                    break;
+                case "diaSemana":
+                    if (Campos.acepta(in, prioridades, DIA, 1)) horario.setDia(Campos.texto(in));
+                    break;
+                case "hora":
+                    if ((entero = Campos.entero(in)) != null) horario.setHora(entero);
+                    break;
+                case "profe_id":
+                    if (Campos.acepta(in, prioridades, PROFE_ID, 0) && (entero = Campos.entero(in)) != null) horario.setProfeId(entero);
+                    break;
+                case "profeId":
+                    if (Campos.acepta(in, prioridades, PROFE_ID, 1) && (entero = Campos.entero(in)) != null) horario.setProfeId(entero);
+                    break;
+                case "profesorId":
+                    if (Campos.acepta(in, prioridades, PROFE_ID, 2) && (entero = Campos.entero(in)) != null) horario.setProfeId(entero);
+                    break;
+                case "modulo_id":
+                    if (Campos.acepta(in, prioridades, MODULO_ID, 0) && (entero = Campos.entero(in)) != null) horario.setModuloId(entero);
+                    break;
+                case "moduloId":
+                    if (Campos.acepta(in, prioridades, MODULO_ID, 1) && (entero = Campos.entero(in)) != null) horario.setModuloId(entero);
+                    break;
+                case "modulo_nombre":
+                    if (Campos.acepta(in, prioridades, MODULO_NOMBRE, 0)) horario.setModuloNombre(Campos.texto(in));
+                    break;
+                case "moduloNombre":
+                    if (Campos.acepta(in, prioridades, MODULO_NOMBRE, 1)) horario.setModuloNombre(Campos.texto(in));
+                    break;
+                case "modulo":
+                    if (Campos.acepta(in, prioridades, MODULO_NOMBRE, 2)) horario.setModuloNombre(Campos.texto(in));
+                    break;
+                case "aula":
+                    horario.setAula(Campos.texto(in));
+                    break;
+                case "observaciones":
+                    horario.setObservaciones(Campos.texto(in));
+                    break;
+                case "ciclo_id":
+                    if (Campos.acepta(in, prioridades, CICLO_ID, 0)) horario.setCicloId(Campos.entero(in));
+                    break;
+                case "cicloId":
+                    if (Campos.acepta(in, prioridades, CICLO_ID, 1)) horario.setCicloId(Campos.entero(in));
+                    break;
+                case "curso":
+                    horario.setCurso(Campos.entero(in));
+                    break;
+                case "ciclo_nombre":
+                    if (Campos.acepta(in, prioridades, CICLO_NOMBRE, 0)) horario.setCicloNombre(Campos.texto(in));
+                    break;
+                case "cicloNombre":
+                    if (Campos.acepta(in, prioridades, CICLO_NOMBRE, 1)) horario.setCicloNombre(Campos.texto(in));
+                    break;
+                case "ciclo":
+                    if (Campos.acepta(in, prioridades, CICLO_NOMBRE, 2)) horario.setCicloNombre(Campos.texto(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return horario;
+    }
+
+    @Override
+    public void write(JsonWriter out, Horario horario) throws IOException {
+        if (horario == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(horario.getId());
+        Campos.escribir(out, "dia", horario.getDia());
+        out.name("hora").value(horario.getHora());
+        out.name("profe_id").value(horario.getProfeId());
+        out.name("modulo_id").value(horario.getModuloId());
+        Campos.escribir(out, "modulo_nombre", horario.getModuloNombre());
+        Campos.escribir(out, "aula", horario.getAula());
+        Campos.escribir(out, "observaciones", horario.getObservaciones());
+        Campos.escribir(out, "ciclo_id", horario.getCicloId());
+        Campos.escribir(out, "curso", horario.getCurso());
+        Campos.escribir(out, "ciclo_nombre", horario.getCicloNombre());
+        out.endObject();
+    }
+}
@@ -0,0 +1,36 @@
+package com.elorrieta.elores.protocol.adapter;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import com.elorrieta.elores.model.Alumno;
+import com.elorrieta.elores.model.Horario;
+import com.elorrieta.elores.model.Reunion;
+import com.elorrieta.elores.model.Usuario;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Instancia Gson compartida con los TypeAdapter de los modelos registrados
+ * Gson es thread-safe, así que todos los servicios usan la misma
+ */
+public final class ProtocolJson {
+    public static final Type LISTA_HORARIOS = new TypeToken<List<Horario>>() {}.getType();
+    public static final Type LISTA_REUNIONES = new TypeToken<List<Reunion>>() {}.getType();
+    public static final Type LISTA_ALUMNOS = new TypeToken<List<Alumno>>() {}.getType();
+    public static final Type LISTA_USUARIOS = new TypeToken<List<Usuario>>() {}.getType();
+
+    private static final Gson GSON = new GsonBuilder()
+        .registerTypeAdapter(Horario.class, new HorarioAdapter())
+        .registerTypeAdapter(Reunion.class, new ReunionAdapter())
+        .registerTypeAdapter(Alumno.class, new AlumnoAdapter())
+        .registerTypeAdapter(Usuario.class, new UsuarioAdapter())
+        .create();
+
+    private ProtocolJson() {}
+
+    public static Gson gson() {
+        return GSON;
+    }
+}
@@ -0,0 +1,145 @@
+package com.elorrieta.elores.protocol.adapter;
+
+import java.io.IOException;
+
+import com.elorrieta.elores.model.Reunion;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Lectura en streaming de Reunion en una sola pasada
+ * Estructura esperada de la BD:
+ * - id_reunion, estado, estado_eus, profesor_id, alumno_id, id_centro, titulo, asunto, aula, fecha
+ * - created_at, updated_at
+ * - Campos adicionales calculados: dia, hora
+ */
+public class ReunionAdapter extends TypeAdapter<Reunion> {
+    private static final int ID = 0;
+    private static final int PROFESOR_ID = 1;
+    private static final int ALUMNO_ID = 2;
+    private static final int DIA = 3;
+    private static final int ESTADO_EUS = 4;
+    private static final int ID_CENTRO = 5;
+    private static final int CREATED_AT = 6;
+    private static final int UPDATED_AT = 7;
+    private static final int NUM_ALIAS = 8;
+
+    @Override
+    public Reunion read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Reunion reunion = new Reunion();
+        int[] prioridades = Campos.prioridades(NUM_ALIAS);
+        Integer entero;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id_reunion":
+                    if (Campos.acepta(in, prioridades, ID, 0) && (entero = Campos.entero(in)) != null) reunion.setIdReunion(entero);
+                    break;
+                case "idReunion":
+                    if (Campos.acepta(in, prioridades, ID, 1) && (entero = Campos.entero(in)) != null) reunion.setIdReunion(entero);
+                    break;
+                case "id":
+                    if (Campos.acepta(in, prioridades, ID, 2) && (entero = Campos.entero(in)) != null) reunion.setIdReunion(entero);
+                    break;
+                case "estado":
+                    reunion.setEstado(Campos.texto(in));
+                    break;
+                case "estado_eus":
+                    if (Campos.acepta(in, prioridades, ESTADO_EUS, 0)) reunion.setEstadoEus(Campos.texto(in));
+                    break;
+                case "estadoEus":
+                    if (Campos.acepta(in, prioridades, ESTADO_EUS, 1)) reunion.setEstadoEus(Campos.texto(in));
+                    break;
+                case "profesor_id":
+                    if (Campos.acepta(in, prioridades, PROFESOR_ID, 0)) reunion.setProfesorId(Campos.entero(in));
+                    break;
+                case "profesorId":
+                    if (Campos.acepta(in, prioridades, PROFESOR_ID, 1)) reunion.setProfesorId(Campos.entero(in));
+                    break;
+                case "alumno_id":
+                    if (Campos.acepta(in, prioridades, ALUMNO_ID, 0)) reunion.setAlumnoId(Campos.entero(in));
+                    break;
+                case "alumnoId":
+                    if (Campos.acepta(in, prioridades, ALUMNO_ID, 1)) reunion.setAlumnoId(Campos.entero(in));
+                    break;
+                case "id_centro":
+                    if (Campos.acepta(in, prioridades, ID_CENTRO, 0)) reunion.setIdCentro(Campos.texto(in));
+                    break;
+                case "idCentro":
+                    if (Campos.acepta(in, prioridades, ID_CENTRO, 1)) reunion.setIdCentro(Campos.texto(in));
+                    break;
+                case "titulo":
+                    reunion.setTitulo(Campos.texto(in));
+                    break;
+                case "asunto":
+                    reunion.setAsunto(Campos.texto(in));
+                    break;
+                case "aula":
+                    reunion.setAula(Campos.texto(in));
+                    break;
+                case "fecha":
+                    reunion.setFecha(Campos.fecha(in));
+                    break;
+                case "created_at":
+                    if (Campos.acepta(in, prioridades, CREATED_AT, 0)) reunion.setCreatedAt(Campos.fecha(in));
+                    break;
+                case "createdAt":
+                    if (Campos.acepta(in, prioridades, CREATED_AT, 1)) reunion.setCreatedAt(Campos.fecha(in));
+                    break;
+                case "updated_at":
+                    if (Campos.acepta(in, prioridades, UPDATED_AT, 0)) reunion.setUpdatedAt(Campos.fecha(in));
+                    break;
+                case "updatedAt":
+                    if (Campos.acepta(in, prioridades, UPDATED_AT, 1)) reunion.setUpdatedAt(Campos.fecha(in));
+                    break;
+                case "dia":
+                    if (Campos.acepta(in, prioridades, DIA, 0)) reunion.setDia(Campos.texto(in));
+                    break;
+                case "diaSemana":
+                    if (Campos.acepta(in, prioridades, DIA, 1)) reunion.setDia(Campos.texto(in));
+                    break;
+                case "hora":
+                    if ((entero = Campos.entero(in)) != null) reunion.setHora(entero);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return reunion;
+    }
+
+    @Override
+    public void write(JsonWriter out, Reunion reunion) throws IOException {
+        if (reunion == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id_reunion").value(reunion.getIdReunion());
+        Campos.escribir(out, "estado", reunion.getEstado());
+        Campos.escribir(out, "estado_eus", reunion.getEstadoEus());
+        Campos.escribir(out, "profesor_id", reunion.getProfesorId());
+        Campos.escribir(out, "alumno_id", reunion.getAlumnoId());
+        Campos.escribir(out, "id_centro", reunion.getIdCentro());
+        Campos.escribir(out, "titulo", reunion.getTitulo());
+        Campos.escribir(out, "asunto", reunion.getAsunto());
+        Campos.escribir(out, "aula", reunion.getAula());
+        Campos.escribir(out, "fecha", reunion.getFecha());
+        Campos.escribir(out, "created_at", reunion.getCreatedAt());
+        Campos.escribir(out, "updated_at", reunion.getUpdatedAt());
+        Campos.escribir(out, "dia", reunion.getDia());
+        if (reunion.getHora() > 0) {
+            out.name("hora").value(reunion.getHora());
+        }
+        out.endObject();
+    }
+}
@@ -0,0 +1,101 @@
+package com.elorrieta.elores.protocol.adapter;
+
+import java.io.IOException;
+
+import com.elorrieta.elores.model.Usuario;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Lectura en streaming de Usuario en una sola pasada
+ * Sirve tanto para login y perfil como para la lista de profesores ("apellido")
+ */
+public class UsuarioAdapter extends TypeAdapter<Usuario> {
+    private static final int APELLIDOS = 0;
+    private static final int NUM_ALIAS = 1;
+
+    @Override
+    public Usuario read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Usuario usuario = new Usuario();
+        int[] prioridades = Campos.prioridades(NUM_ALIAS);
+        Integer entero;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    if ((entero = Campos.entero(in)) != null) usuario.setId(entero);
+                    break;
+                case "email":
+                    usuario.setEmail(Campos.texto(in));
+                    break;
+                case "username":
+                    usuario.setUsername(Campos.texto(in));
+                    break;
+                case "nombre":
+                    usuario.setNombre(Campos.texto(in));
+                    break;
+                case "apellidos":
+                    if (Campos.acepta(in, prioridades, APELLIDOS, 0)) usuario.setApellidos(Campos.texto(in));
+                    break;
+                case "apellido":
+                    if (Campos.acepta(in, prioridades, APELLIDOS, 1)) usuario.setApellidos(Campos.texto(in));
+                    break;
+                case "dni":
+                    usuario.setDni(Campos.texto(in));
+                    break;
+                case "direccion":
+                    usuario.setDireccion(Campos.texto(in));
+                    break;
+                case "telefono1":
+                    usuario.setTelefono1(Campos.texto(in));
+                    break;
+                case "telefono2":
+                    usuario.setTelefono2(Campos.texto(in));
+                    break;
+                case "tipoId":
+                    if ((entero = Campos.entero(in)) != null) usuario.setTipoId(entero);
+                    break;
+                case "tipoNombre":
+                    usuario.setTipoNombre(Campos.texto(in));
+                    break;
+                case "argazkiaUrl":
+                    usuario.setArgazkiaUrl(Campos.texto(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return usuario;
+    }
+
+    @Override
+    public void write(JsonWriter out, Usuario usuario) throws IOException {
+        if (usuario == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(usuario.getId());
+        Campos.escribir(out, "email", usuario.getEmail());
+        Campos.escribir(out, "username", usuario.getUsername());
+        Campos.escribir(out, "nombre", usuario.getNombre());
+        Campos.escribir(out, "apellidos", usuario.getApellidos());
+        Campos.escribir(out, "dni", usuario.getDni());
+        Campos.escribir(out, "direccion", usuario.getDireccion());
+        Campos.escribir(out, "telefono1", usuario.getTelefono1());
+        Campos.escribir(out, "telefono2", usuario.getTelefono2());
+        out.name("tipoId").value(usuario.getTipoId());
+        Campos.escribir(out, "tipoNombre", usuario.getTipoNombre());
+        Campos.escribir(out, "argazkiaUrl", usuario.getArgazkiaUrl());
+        out.endObject();
+    }
+}
@@ -4,26 +4,38 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.elorrieta.elores.model.Alumno;
+import com.elorrieta.elores.model.Pagina;
 import com.elorrieta.elores.network.SocketClient;
 import com.elorrieta.elores.protocol.CommandType;
+import com.elorrieta.elores.protocol.FieldProjection;
+import com.elorrieta.elores.protocol.Pagination;
 import com.elorrieta.elores.protocol.Request;
 import com.elorrieta.elores.protocol.Response;
+import com.elorrieta.elores.protocol.adapter.ProtocolJson;
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
 /**
  * Servicio para gestionar operaciones relacionadas con alumnos
  */
 public class AlumnoService {
     private static AlumnoService instance;
-    private SocketClient socketClient;
-    private Gson gson;
+    private final SocketClient socketClient;
+    private final Gson gson;
+    private final ReadCoalescer coalescer;
     
     private AlumnoService() {
-        socketClient = SocketClient.getInstance();
-        gson = new Gson();
+        this(AuthService.getInstance());
+    }
+    
+    /**
+     * Servicio sobre la sesión indicada (la de la aplicación es getInstance)
+     */
+    public AlumnoService(AuthService authService) {
+        socketClient = authService.getSocketClient();
+        gson = ProtocolJson.gson();
+        coalescer = authService.getCoalescer();
     }
     
     public static synchronized AlumnoService getInstance() {
@@ -36,10 +48,11 @@ public class AlumnoService {
     /**
      * Obtiene la lista de alumnos del profesor actual
      * @param profesorId ID del profesor
+     * @param campos Campos que se necesitan de cada alumno; ninguno para el registro completo
      * @return Lista de alumnos
      * @throws Exception Si hay error en la comunicación
      */
-    public List<Alumno> getAlumnos(int profesorId) throws Exception {
+    public List<Alumno> getAlumnos(int profesorId, String... campos) throws Exception {
         if (!socketClient.isConnected()) {
             throw new Exception("No hay conexión con el servidor");
         }
@@ -47,38 +60,59 @@ public class AlumnoService {
         // Crear payload JSON
         JsonObject payload = new JsonObject();
         payload.addProperty("profesorId", profesorId);
+        proyectar(payload, campos);
         
         // Crear petición
         Request request = new Request(CommandType.GET_ALUMNOS, payload);
         
-        // Enviar petición
-        Response response = socketClient.sendRequest(request);
+        // Enviar petición (o unirse a una idéntica en vuelo)
+        return coalescer.leer(request, Lectores.ALUMNOS);
+    }
+    
+    /**
+     * Obtiene una página de los alumnos del profesor, con filtros opcionales
+     * @param profesorId ID del profesor
+     * @param ciclo Ciclo por el que filtrar, o null para todos
+     * @param curso Curso por el que filtrar, o null para todos
+     * @param cursor Cursor devuelto por la página anterior, o null para la primera
+     * @param limit Número máximo de alumnos de la página
+     * @param campos Campos que se necesitan de cada alumno; ninguno para el registro completo
+     * @return Página de alumnos con el cursor de la siguiente
+     * @throws Exception Si hay error en la comunicación
+     */
+    public Pagina<Alumno> getPaginaAlumnos(int profesorId, String ciclo, String curso, String cursor, int limit,
+                                           String... campos) throws Exception {
+        if (!socketClient.isConnected()) {
+            throw new Exception("No hay conexión con el servidor");
+        }
         
-        if (response.isSuccess()) {
-            String dataStr = response.getDataAsString();
-            if (dataStr != null && !dataStr.isEmpty() && !dataStr.equals("null")) {
-                try {
-                    JsonArray alumnosArray = JsonParser.parseString(dataStr).getAsJsonArray();
-                    List<Alumno> alumnos = new ArrayList<>();
-                    
-                    for (int i = 0; i < alumnosArray.size(); i++) {
-                        JsonObject alumnoJson = alumnosArray.get(i).getAsJsonObject();
-                        Alumno alumno = parseAlumno(alumnoJson);
-                        alumnos.add(alumno);
-                    }
-                    
-                    return alumnos;
-                } catch (Exception e) {
-                    System.err.println("Error parseando datos de alumnos: " + e.getMessage());
-                    e.printStackTrace();
-                    throw new Exception("Error procesando datos de alumnos");
+        if (!socketClient.hasCapability(Pagination.CAPABILITY)) {
+            // Servidor sin paginación: filtrar y trocear la lista completa
+            List<Alumno> filtrados = new ArrayList<>();
+            for (Alumno alumno : getAlumnos(profesorId, campos)) {
+                if ((ciclo == null || ciclo.equalsIgnoreCase(alumno.getCiclo()))
+                        && (curso == null || curso.equalsIgnoreCase(alumno.getCurso()))) {
+                    filtrados.add(alumno);
                 }
-            } else {
-                return new ArrayList<>(); // Lista vacía si no hay datos
             }
-        } else {
-            throw new Exception(response.getMessage() != null ? response.getMessage() : "Error al obtener alumnos");
+            return Pagina.deLista(filtrados, cursor, limit);
+        }
+        
+        JsonObject payload = new JsonObject();
+        payload.addProperty("profesorId", profesorId);
+        if (ciclo != null) {
+            payload.addProperty("ciclo", ciclo);
+        }
+        if (curso != null) {
+            payload.addProperty("curso", curso);
         }
+        payload.addProperty(Pagination.LIMIT, limit);
+        if (cursor != null) {
+            payload.addProperty(Pagination.CURSOR, cursor);
+        }
+        proyectar(payload, campos);
+        
+        return coalescer.leer(new Request(CommandType.GET_ALUMNOS, payload), Lectores.PAGINA_ALUMNOS);
     }
     
     /**
@@ -103,11 +137,10 @@ public class AlumnoService {
         Response response = socketClient.sendRequest(request);
         
         if (response.isSuccess()) {
-            String dataStr = response.getDataAsString();
-            if (dataStr != null && !dataStr.isEmpty() && !dataStr.equals("null")) {
+            JsonReader data = response.getDataReader();
+            if (data != null) {
                 try {
-                    JsonObject alumnoJson = JsonParser.parseString(dataStr).getAsJsonObject();
-                    return parseAlumno(alumnoJson);
+                    return gson.fromJson(data, Alumno.class);
                 } catch (Exception e) {
                     System.err.println("Error parseando datos del alumno: " + e.getMessage());
                     e.printStackTrace();
@@ -122,21 +155,11 @@ public class AlumnoService {
     }
     
     /**
-     * Parsea un JsonObject a Alumno
+     * Pide solo los campos indicados si el servidor admite proyección
      */
-    private Alumno parseAlumno(JsonObject json) {
-        Alumno alumno = new Alumno();
-        if (json.has("id")) alumno.setId(json.get("id").getAsInt());
-        if (json.has("nombre")) alumno.setNombre(json.get("nombre").getAsString());
-        if (json.has("apellidos")) alumno.setApellidos(json.get("apellidos").getAsString());
-        if (json.has("email")) alumno.setEmail(json.get("email").getAsString());
-        if (json.has("dni")) alumno.setDni(json.get("dni").getAsString());
-        if (json.has("telefono1")) alumno.setTelefono1(json.get("telefono1").getAsString());
-        if (json.has("telefono2")) alumno.setTelefono2(json.get("telefono2").getAsString());
-        if (json.has("direccion")) alumno.setDireccion(json.get("direccion").getAsString());
-        if (json.has("argazkiaUrl")) alumno.setArgazkiaUrl(json.get("argazkiaUrl").getAsString());
-        if (json.has("ciclo")) alumno.setCiclo(json.get("ciclo").getAsString());
-        if (json.has("curso")) alumno.setCurso(json.get("curso").getAsString());
-        return alumno;
+    private void proyectar(JsonObject payload, String... campos) {
+        if (socketClient.hasCapability(FieldProjection.CAPABILITY)) {
+            FieldProjection.proyectar(payload, campos);
+        }
     }
 }
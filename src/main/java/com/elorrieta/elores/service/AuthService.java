@@ -1,27 +1,72 @@
 package com.elorrieta.elores.service;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import com.elorrieta.elores.model.Usuario;
+import com.elorrieta.elores.network.ConnectionListener;
+import com.elorrieta.elores.network.ProtocolLogger;
 import com.elorrieta.elores.network.SocketClient;
 import com.elorrieta.elores.protocol.CommandType;
 import com.elorrieta.elores.protocol.Request;
 import com.elorrieta.elores.protocol.Response;
+import com.elorrieta.elores.protocol.adapter.ProtocolJson;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
 /**
  * Servicio de autenticación
  * Gestiona login, logout y sesión del usuario
+ *
+ * El LOGIN devuelve un token de sesión que SocketClient adjunta a cada petición.
+ * Tras una reconexión la sesión se reanuda con RESUME, sin repetir el LOGIN
+ * (y la verificación bcrypt en el servidor). Si el servidor rechaza el token la
+ * sesión se da por terminada y se avisa a los SessionListener.
+ *
+ * Cada AuthService es la raíz de una sesión: su conexión, la agrupación de lecturas
+ * y la copia local de reuniones. La aplicación usa la instancia única; para simular
+ * varias sesiones en un mismo proceso se crea una por sesión con su propio
+ * SocketClient y se le pasan al resto de servicios.
  */
 public class AuthService {
     private static AuthService instance;
-    private Usuario usuarioActual;
-    private SocketClient socketClient;
+    private volatile Usuario usuarioActual;
+    private final SocketClient socketClient;
+    private final ReadCoalescer coalescer;
+    private final ReunionStore reunionStore;
+    private final List<SessionListener> sessionListeners = new CopyOnWriteArrayList<>();
     private Gson gson;
+    private ProtocolLogger log;
     
     private AuthService() {
-        socketClient = SocketClient.getInstance();
-        gson = new Gson();
+        this(SocketClient.getInstance(), ReadCoalescer.getInstance(), ReunionStore.getInstance());
+    }
+    
+    /**
+     * Sesión independiente sobre su propia conexión
+     */
+    public AuthService(SocketClient socketClient) {
+        this(socketClient, new ReadCoalescer(socketClient));
+    }
+    
+    private AuthService(SocketClient socketClient, ReadCoalescer coalescer) {
+        this(socketClient, coalescer, new ReunionStore(socketClient, coalescer));
+    }
+    
+    private AuthService(SocketClient socketClient, ReadCoalescer coalescer, ReunionStore reunionStore) {
+        this.socketClient = socketClient;
+        this.coalescer = coalescer;
+        this.reunionStore = reunionStore;
+        gson = ProtocolJson.gson();
+        log = ProtocolLogger.getInstance();
+        socketClient.addConnectionListener(new ConnectionListener() {
+            @Override
+            public void onReconnected() {
+                reanudarSesion();
+            }
+        });
     }
     
     public static synchronized AuthService getInstance() {
@@ -39,15 +84,8 @@ public class AuthService {
      * @throws Exception Si hay error de conexión o credenciales inválidas
      */
     public Usuario login(String email, String password) throws Exception {
-        // Conectar al servidor si no está conectado
-        if (!socketClient.isConnected()) {
-            socketClient.connect();
-            try {
-                socketClient.readWelcomeMessage();
-            } catch (Exception e) {
-                System.err.println("Error leyendo bienvenida: " + e.getMessage());
-            }
-        }
+        // Normalmente la conexión ya se abrió al arrancar; si no, se abre (o se espera) aquí
+        socketClient.ensureConnected();
         
         // Crear payload JSON
         JsonObject payload = new JsonObject();
@@ -57,27 +95,22 @@ public class AuthService {
         // Crear petición de login
         Request request = new Request(CommandType.LOGIN, payload);
         
-        System.out.println("=== ENVIANDO LOGIN ===");
-        
-        // Enviar petición
+        // Enviar petición (la contraseña nunca se escribe en el log)
         Response response = socketClient.sendRequest(request);
         
-        System.out.println("=== RESPUESTA RECIBIDA ===");
-        System.out.println("Success: " + response.isSuccess());
-        System.out.println("Message: " + response.getMessage());
-        System.out.println("Data: " + response.getDataAsString());
+        log.debug(() -> "LOGIN " + email + ": " + (response.isSuccess() ? "correcto" : response.getMessage()));
         
         if (response.isSuccess()) {
             // Parsear datos del usuario desde la respuesta
-            String dataStr = response.getDataAsString();
-            if (dataStr != null && !dataStr.isEmpty() && !dataStr.equals("null")) {
+            JsonReader data = response.getDataReader();
+            if (data != null) {
                 try {
-                    JsonObject userData = JsonParser.parseString(dataStr).getAsJsonObject();
-                    usuarioActual = parseUsuario(userData);
+                    usuarioActual = gson.fromJson(data, Usuario.class);
+                    socketClient.setSessionToken(response.getSessionToken());
                     return usuarioActual;
                 } catch (Exception e) {
-                    System.err.println("Error parseando datos de usuario: " + e.getMessage());
-                    e.printStackTrace();
+                    log.error("Error parseando datos de usuario", e);
+                    log.volcarRegistro("respuesta de LOGIN no válida");
                     throw new Exception("Error procesando datos del usuario");
                 }
             } else {
@@ -88,35 +121,77 @@ public class AuthService {
         }
     }
     
-    /**
-     * Parsea un JsonObject a Usuario
-     */
-    private Usuario parseUsuario(JsonObject json) {
-        Usuario usuario = new Usuario();
-        if (json.has("id")) usuario.setId(json.get("id").getAsInt());
-        if (json.has("email")) usuario.setEmail(json.get("email").getAsString());
-        if (json.has("username")) usuario.setUsername(json.get("username").getAsString());
-        if (json.has("nombre")) usuario.setNombre(json.get("nombre").getAsString());
-        if (json.has("apellidos")) usuario.setApellidos(json.get("apellidos").getAsString());
-        if (json.has("tipoId")) usuario.setTipoId(json.get("tipoId").getAsInt());
-        if (json.has("tipoNombre")) usuario.setTipoNombre(json.get("tipoNombre").getAsString());
-        return usuario;
-    }
-    
     /**
      * Cierra la sesión del usuario actual
+     * La sesión se olvida y la conexión se cierra aunque no haya conexión en ese momento
+     * (por ejemplo durante la espera de una reconexión): si no, la reconexión
+     * reanudaría con RESUME la sesión que el usuario acaba de cerrar
      */
     public void logout() throws Exception {
-        if (usuarioActual != null && socketClient.isConnected()) {
-            try {
+        Usuario usuario = usuarioActual;
+        try {
+            if (usuario != null && socketClient.isConnected()) {
                 Request request = new Request(CommandType.DISCONNECT);
                 JsonObject payload = new JsonObject();
-                payload.addProperty("userId", usuarioActual.getId());
+                payload.addProperty("userId", usuario.getId());
                 request.setPayload(payload);
                 socketClient.sendRequest(request);
-            } finally {
-                usuarioActual = null;
-                socketClient.disconnect();
+            }
+        } finally {
+            usuarioActual = null;
+            socketClient.setSessionToken(null);
+            coalescer.limpiar();
+            reunionStore.limpiar();
+            socketClient.disconnect();
+        }
+    }
+    
+    public void addSessionListener(SessionListener listener) {
+        sessionListeners.add(listener);
+    }
+    
+    public void removeSessionListener(SessionListener listener) {
+        sessionListeners.remove(listener);
+    }
+    
+    /**
+     * Reanuda la sesión en una conexión nueva presentando el token del LOGIN
+     * Se llama desde onReconnected: SocketClient retiene las peticiones de otros
+     * hilos hasta que termina, así ninguna llega al servidor sin sesión
+     */
+    private void reanudarSesion() {
+        String token = socketClient.getSessionToken();
+        if (usuarioActual == null || token == null) {
+            return;
+        }
+        
+        JsonObject payload = new JsonObject();
+        payload.addProperty("sessionToken", token);
+        try {
+            Response response = socketClient.sendRequest(new Request(CommandType.RESUME, payload));
+            if (!response.isSuccess()) {
+                // Token caducado o desconocido: hará falta volver a iniciar sesión
+                log.warn("No se pudo reanudar la sesión: " + response.getMessage());
+                terminarSesion(response.getMessage() != null ? response.getMessage() : "Sesión no válida");
+            }
+        } catch (IOException e) {
+            log.warn("Error reanudando la sesión: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Olvida la sesión rechazada por el servidor y avisa a los oyentes
+     */
+    private void terminarSesion(String motivo) {
+        usuarioActual = null;
+        socketClient.setSessionToken(null);
+        coalescer.limpiar();
+        reunionStore.limpiar();
+        for (SessionListener listener : sessionListeners) {
+            try {
+                listener.sesionTerminada(motivo);
+            } catch (RuntimeException e) {
+                log.error("Error avisando del fin de sesión", e);
             }
         }
     }
@@ -134,4 +209,16 @@ public class AuthService {
     public boolean isAuthenticated() {
         return usuarioActual != null;
     }
+    
+    SocketClient getSocketClient() {
+        return socketClient;
+    }
+    
+    ReadCoalescer getCoalescer() {
+        return coalescer;
+    }
+    
+    ReunionStore getReunionStore() {
+        return reunionStore;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,253 @@
+package com.elorrieta.elores.service;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.elorrieta.elores.model.Alumno;
+import com.elorrieta.elores.model.Horario;
+import com.elorrieta.elores.model.Pagina;
+import com.elorrieta.elores.model.Reunion;
+import com.elorrieta.elores.model.Usuario;
+import com.elorrieta.elores.protocol.DeltaSync;
+import com.elorrieta.elores.protocol.Pagination;
+import com.elorrieta.elores.protocol.Response;
+import com.elorrieta.elores.protocol.adapter.ProtocolJson;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Lectores compartidos de las respuestas de consulta
+ * Los servicios que piden lo mismo usan el mismo lector, así ReadCoalescer
+ * parsea una sola vez la respuesta de una lectura agrupada
+ *
+ * Los datos se enlazan en streaming desde el texto de data (Response.getDataReader)
+ * con los TypeAdapter de ProtocolJson: ni la trama ni la lista pasan por un árbol JsonElement.
+ */
+final class Lectores {
+    private static final Gson GSON = ProtocolJson.gson();
+
+    static final ReadCoalescer.Lector<List<Horario>> HORARIOS = Lectores::horarios;
+    static final ReadCoalescer.Lector<List<Reunion>> REUNIONES = Lectores::reuniones;
+    static final ReadCoalescer.Lector<ReunionStore.Delta> REUNIONES_DELTA = Lectores::reunionesDelta;
+    static final ReadCoalescer.Lector<List<Usuario>> PROFESORES = Lectores::profesores;
+    static final ReadCoalescer.Lector<List<Alumno>> ALUMNOS = Lectores::alumnos;
+    static final ReadCoalescer.Lector<Pagina<Usuario>> PAGINA_PROFESORES =
+        response -> pagina(response, ProtocolJson.LISTA_USUARIOS, "Error al obtener lista de profesores");
+    static final ReadCoalescer.Lector<Pagina<Alumno>> PAGINA_ALUMNOS =
+        response -> pagina(response, ProtocolJson.LISTA_ALUMNOS, "Error al obtener alumnos");
+
+    private Lectores() {}
+
+    /**
+     * Parsea la respuesta de GET_HORARIO
+     */
+    static List<Horario> horarios(Response response) throws Exception {
+        if (response.isSuccess()) {
+            // Parsear datos del horario
+            JsonReader reader = response.getDataReader();
+            if (reader != null) {
+                try {
+                    // Verificar si es un array o un objeto
+                    JsonToken token = reader.peek();
+                    if (token == JsonToken.BEGIN_ARRAY) {
+                        return GSON.fromJson(reader, ProtocolJson.LISTA_HORARIOS);
+                    } else if (token == JsonToken.BEGIN_OBJECT) {
+                        // Si es un objeto único, envolverlo en una lista
+                        List<Horario> horarios = new ArrayList<>();
+                        horarios.add(GSON.fromJson(reader, Horario.class));
+                        return horarios;
+                    }
+                } catch (Exception e) {
+                    System.err.println("Error parseando horario: " + e.getMessage());
+                    e.printStackTrace();
+                    throw new Exception("Error procesando datos del horario");
+                }
+            }
+            
+            // Si no hay datos, retornar lista vacía
+            return new ArrayList<>();
+        } else {
+            // Error del servidor
+            String errorMsg = response.getMessage() != null ? response.getMessage() : "Error desconocido";
+            throw new Exception(errorMsg);
+        }
+    }
+    
+    /**
+     * Parsea la respuesta de GET_REUNIONES
+     */
+    static List<Reunion> reuniones(Response response) {
+        if (response.isSuccess()) {
+            // Parsear datos de las reuniones
+            JsonReader reader = response.getDataReader();
+            if (reader != null) {
+                try {
+                    if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                        return GSON.fromJson(reader, ProtocolJson.LISTA_REUNIONES);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Error parseando reuniones: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+            
+            // Si no hay datos, retornar lista vacía
+            return new ArrayList<>();
+        } else {
+            // Si hay error, retornar lista vacía (las reuniones son opcionales)
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Parsea la respuesta incremental de GET_REUNIONES
+     * @return Cambios recibidos, o null si hubo error (se conserva la copia local)
+     */
+    static ReunionStore.Delta reunionesDelta(Response response) {
+        if (!response.isSuccess()) {
+            return null;
+        }
+        JsonReader reader = response.getDataReader();
+        if (reader == null) {
+            return null;
+        }
+        try {
+            ReunionStore.Delta delta = new ReunionStore.Delta();
+            JsonToken token = reader.peek();
+            if (token == JsonToken.BEGIN_ARRAY) {
+                // El servidor ignoró "since" y mandó la lista completa
+                delta.cambiadas = GSON.fromJson(reader, ProtocolJson.LISTA_REUNIONES);
+                delta.completa = true;
+                return delta;
+            }
+            if (token != JsonToken.BEGIN_OBJECT) {
+                return null;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String campo = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    continue;
+                }
+                switch (campo) {
+                    case DeltaSync.CHANGED:
+                        delta.cambiadas = GSON.fromJson(reader, ProtocolJson.LISTA_REUNIONES);
+                        break;
+                    case DeltaSync.DELETED:
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            delta.eliminadas.add(reader.nextInt());
+                        }
+                        reader.endArray();
+                        break;
+                    case DeltaSync.CURSOR:
+                        delta.cursor = reader.nextString();
+                        break;
+                    case DeltaSync.FULL:
+                        delta.completa = reader.nextBoolean();
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            return delta;
+        } catch (Exception e) {
+            System.err.println("Error parseando cambios de reuniones: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    /**
+     * Parsea la respuesta de GET_PROFESORES
+     */
+    static List<Usuario> profesores(Response response) throws Exception {
+        if (response.isSuccess()) {
+            JsonReader reader = response.getDataReader();
+            if (reader != null) {
+                try {
+                    if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                        return GSON.fromJson(reader, ProtocolJson.LISTA_USUARIOS);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Error parseando lista de profesores: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+            
+            return new ArrayList<>();
+        } else {
+            throw new Exception("Error al obtener lista de profesores: " + response.getMessage());
+        }
+    }
+    
+    /**
+     * Parsea la respuesta de GET_ALUMNOS por profesor
+     */
+    static List<Alumno> alumnos(Response response) throws Exception {
+        if (response.isSuccess()) {
+            JsonReader reader = response.getDataReader();
+            if (reader != null) {
+                try {
+                    if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                        throw new IllegalStateException("Se esperaba una lista de alumnos");
+                    }
+                    return GSON.fromJson(reader, ProtocolJson.LISTA_ALUMNOS);
+                } catch (Exception e) {
+                    System.err.println("Error parseando datos de alumnos: " + e.getMessage());
+                    e.printStackTrace();
+                    throw new Exception("Error procesando datos de alumnos");
+                }
+            } else {
+                return new ArrayList<>(); // Lista vacía si no hay datos
+            }
+        } else {
+            throw new Exception(response.getMessage() != null ? response.getMessage() : "Error al obtener alumnos");
+        }
+    }
+    
+    /**
+     * Parsea una respuesta paginada; un array sin envoltorio es una única página
+     * @param tipoLista Tipo de la lista de elementos
+     * @param mensajeError Mensaje si el servidor no da uno
+     */
+    static <T> Pagina<T> pagina(Response response, Type tipoLista, String mensajeError) throws Exception {
+        if (!response.isSuccess()) {
+            throw new Exception(response.getMessage() != null ? response.getMessage() : mensajeError);
+        }
+        JsonReader reader = response.getDataReader();
+        if (reader == null) {
+            return new Pagina<>();
+        }
+        try {
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                return new Pagina<>(GSON.fromJson(reader, tipoLista), null);
+            }
+            Pagina<T> pagina = new Pagina<>();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String campo = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                } else if (Pagination.ITEMS.equals(campo)) {
+                    pagina.setItems(GSON.fromJson(reader, tipoLista));
+                } else if (Pagination.NEXT_CURSOR.equals(campo)) {
+                    pagina.setNextCursor(reader.nextString());
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return pagina;
+        } catch (Exception e) {
+            System.err.println("Error parseando página: " + e.getMessage());
+            e.printStackTrace();
+            throw new Exception(mensajeError);
+        }
+    }
+}
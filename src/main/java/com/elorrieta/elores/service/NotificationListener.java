@@ -0,0 +1,28 @@
+package com.elorrieta.elores.service;
+
+import com.elorrieta.elores.model.Reunion;
+
+/**
+ * Recibe los cambios notificados por el servidor
+ * Se invoca desde el hilo de red: los paneles deben pasar a Swing con SwingUtilities.invokeLater
+ */
+public interface NotificationListener {
+
+    /**
+     * Una reunión del profesor se ha creado o ha cambiado (p. ej. el alumno la ha aceptado)
+     */
+    default void reunionActualizada(Reunion reunion) {
+    }
+
+    /**
+     * Una reunión del profesor se ha eliminado
+     */
+    default void reunionEliminada(int idReunion) {
+    }
+
+    /**
+     * El horario de un profesor ha cambiado
+     */
+    default void horarioActualizado(int profesorId) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.elorrieta.elores.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.elorrieta.elores.model.Reunion;
+import com.elorrieta.elores.network.ConnectionListener;
+import com.elorrieta.elores.network.ProtocolLogger;
+import com.elorrieta.elores.network.SocketClient;
+import com.elorrieta.elores.protocol.CommandType;
+import com.elorrieta.elores.protocol.PushEvents;
+import com.elorrieta.elores.protocol.Request;
+import com.elorrieta.elores.protocol.Response;
+import com.elorrieta.elores.protocol.adapter.ProtocolJson;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Servicio de notificaciones en vivo del servidor
+ *
+ * Mientras haya algún oyente registrado, la conexión está suscrita a los cambios de
+ * reuniones y horario; el servidor los envía como tramas de evento y aquí se
+ * traducen a llamadas al oyente. Los cambios de reuniones se aplican también a la
+ * copia local de ReunionStore. Tras una reconexión la suscripción se repite.
+ */
+public class NotificationService {
+    private static NotificationService instance;
+    private SocketClient socketClient;
+    private ReunionStore reunionStore;
+    private Gson gson;
+    private ProtocolLogger log;
+    private final List<NotificationListener> listeners = new CopyOnWriteArrayList<>();
+    
+    private NotificationService() {
+        socketClient = SocketClient.getInstance();
+        reunionStore = ReunionStore.getInstance();
+        gson = ProtocolJson.gson();
+        log = ProtocolLogger.getInstance();
+        
+        // AuthService primero: su RESUME debe salir antes que la nueva suscripción
+        AuthService.getInstance();
+        socketClient.addConnectionListener(new ConnectionListener() {
+            @Override
+            public void onReconnected() {
+                if (!listeners.isEmpty()) {
+                    enviarSuscripcion(CommandType.SUBSCRIBE);
+                }
+            }
+        });
+        socketClient.addEventListener(this::procesarEvento);
+    }
+    
+    public static synchronized NotificationService getInstance() {
+        if (instance == null) {
+            instance = new NotificationService();
+        }
+        return instance;
+    }
+    
+    /**
+     * Registra un oyente; el primero activa la suscripción en el servidor
+     * No bloquea: la petición SUBSCRIBE se envía en segundo plano
+     */
+    public synchronized void addListener(NotificationListener listener) {
+        listeners.add(listener);
+        if (listeners.size() == 1) {
+            enviarSuscripcion(CommandType.SUBSCRIBE);
+        }
+    }
+    
+    /**
+     * Quita un oyente; al quitar el último se cancela la suscripción
+     */
+    public synchronized void removeListener(NotificationListener listener) {
+        if (listeners.remove(listener) && listeners.isEmpty()) {
+            enviarSuscripcion(CommandType.UNSUBSCRIBE);
+        }
+    }
+    
+    private void enviarSuscripcion(CommandType accion) {
+        if (!socketClient.isConnected() || !socketClient.hasCapability(PushEvents.CAPABILITY)) {
+            return;
+        }
+        JsonArray temas = new JsonArray();
+        temas.add(PushEvents.TOPIC_REUNIONES);
+        temas.add(PushEvents.TOPIC_HORARIO);
+        JsonObject payload = new JsonObject();
+        payload.add("topics", temas);
+        
+        socketClient.sendRequestAsync(new Request(accion, payload)).whenComplete((response, error) -> {
+            if (error != null) {
+                log.error("Error en " + accion + ": " + error.getMessage());
+            } else if (!response.isSuccess()) {
+                log.warn("El servidor rechazó " + accion + ": " + response.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Traduce una trama de evento (hilo lector) a llamadas a los oyentes
+     */
+    private void procesarEvento(Response event) {
+        JsonElement data = event.getDataAsJson();
+        switch (event.getEvent()) {
+            case PushEvents.REUNION_CHANGED:
+                if (data != null && data.isJsonObject()) {
+                    Reunion reunion = gson.fromJson(data, Reunion.class);
+                    reunionStore.actualizar(reunion);
+                    for (NotificationListener listener : listeners) {
+                        listener.reunionActualizada(reunion);
+                    }
+                }
+                break;
+            case PushEvents.REUNION_DELETED:
+                if (data != null && data.isJsonObject() && data.getAsJsonObject().has("idReunion")) {
+                    int idReunion = data.getAsJsonObject().get("idReunion").getAsInt();
+                    reunionStore.eliminar(idReunion);
+                    for (NotificationListener listener : listeners) {
+                        listener.reunionEliminada(idReunion);
+                    }
+                }
+                break;
+            case PushEvents.HORARIO_CHANGED:
+                if (data != null && data.isJsonObject() && data.getAsJsonObject().has("profesorId")) {
+                    int profesorId = data.getAsJsonObject().get("profesorId").getAsInt();
+                    for (NotificationListener listener : listeners) {
+                        listener.horarioActualizado(profesorId);
+                    }
+                }
+                break;
+            default:
+                // Evento desconocido: se ignora para admitir servidores más nuevos
+                break;
+        }
+    }
+}
@@ -1,13 +1,15 @@
 package com.elorrieta.elores.service;
 
 import com.elorrieta.elores.model.Usuario;
+import com.elorrieta.elores.network.ProtocolLogger;
 import com.elorrieta.elores.network.SocketClient;
 import com.elorrieta.elores.protocol.CommandType;
 import com.elorrieta.elores.protocol.Request;
 import com.elorrieta.elores.protocol.Response;
+import com.elorrieta.elores.protocol.adapter.ProtocolJson;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
 /**
  * Servicio para gestión de perfiles de usuario
@@ -16,10 +18,12 @@ public class PerfilService {
     private static PerfilService instance;
     private SocketClient socketClient;
     private Gson gson;
+    private ProtocolLogger log;
     
     private PerfilService() {
         socketClient = SocketClient.getInstance();
-        gson = new Gson();
+        gson = ProtocolJson.gson();
+        log = ProtocolLogger.getInstance();
     }
     
     public static synchronized PerfilService getInstance() {
@@ -43,26 +47,20 @@ public class PerfilService {
         // Crear petición de obtener perfil
         Request request = new Request(CommandType.GET_PERFIL, payload);
         
-        System.out.println("=== ENVIANDO GET_PERFIL ===");
-        System.out.println("User ID: " + userId);
-        
         // Enviar petición
         Response response = socketClient.sendRequest(request);
         
-        System.out.println("=== RESPUESTA RECIBIDA ===");
-        System.out.println("Success: " + response.isSuccess());
-        System.out.println("Message: " + response.getMessage());
+        log.debug(() -> "GET_PERFIL " + userId + ": " + (response.isSuccess() ? "correcto" : response.getMessage()));
         
         if (response.isSuccess()) {
             // Parsear datos del perfil desde la respuesta
-            String dataStr = response.getDataAsString();
-            if (dataStr != null && !dataStr.isEmpty() && !dataStr.equals("null")) {
+            JsonReader data = response.getDataReader();
+            if (data != null) {
                 try {
-                    JsonObject perfilData = JsonParser.parseString(dataStr).getAsJsonObject();
-                    return parseUsuario(perfilData);
+                    return gson.fromJson(data, Usuario.class);
                 } catch (Exception e) {
-                    System.err.println("Error parseando datos de perfil: " + e.getMessage());
-                    e.printStackTrace();
+                    log.error("Error parseando datos de perfil", e);
+                    log.volcarRegistro("respuesta de GET_PERFIL no válida");
                     throw new Exception("Error procesando datos del perfil");
                 }
             } else {
@@ -72,24 +70,4 @@ public class PerfilService {
             throw new Exception(response.getMessage() != null ? response.getMessage() : "Error obteniendo perfil");
         }
     }
-    
-    /**
-     * Parsea un JsonObject a Usuario
-     */
-    private Usuario parseUsuario(JsonObject json) {
-        Usuario usuario = new Usuario();
-        if (json.has("id")) usuario.setId(json.get("id").getAsInt());
-        if (json.has("email")) usuario.setEmail(json.get("email").getAsString());
-        if (json.has("username")) usuario.setUsername(json.get("username").getAsString());
-        if (json.has("nombre")) usuario.setNombre(json.get("nombre").getAsString());
-        if (json.has("apellidos")) usuario.setApellidos(json.get("apellidos").getAsString());
-        if (json.has("dni")) usuario.setDni(json.get("dni").getAsString());
-        if (json.has("direccion")) usuario.setDireccion(json.get("direccion").getAsString());
-        if (json.has("telefono1")) usuario.setTelefono1(json.get("telefono1").getAsString());
-        if (json.has("telefono2")) usuario.setTelefono2(json.get("telefono2").getAsString());
-        if (json.has("tipoId")) usuario.setTipoId(json.get("tipoId").getAsInt());
-        if (json.has("tipoNombre")) usuario.setTipoNombre(json.get("tipoNombre").getAsString());
-        if (json.has("argazkiaUrl")) usuario.setArgazkiaUrl(json.get("argazkiaUrl").getAsString());
-        return usuario;
-    }
 }
@@ -0,0 +1,354 @@
+package com.elorrieta.elores.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.elorrieta.elores.network.SocketClient;
+import com.elorrieta.elores.protocol.CommandType;
+import com.elorrieta.elores.protocol.Request;
+import com.elorrieta.elores.protocol.Response;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Agrupa lecturas idénticas que están en vuelo a la vez (singleflight)
+ *
+ * Dos peticiones son idénticas si tienen el mismo CommandType y el mismo payload
+ * canónico (claves ordenadas). La primera sale por la red; las que llegan mientras
+ * tanto esperan a esa misma respuesta y comparten el resultado ya parseado.
+ * Solo debe usarse para comandos de lectura.
+ *
+ * Para los datos que cambian poco (horario, alumnos, profesores) guarda además la
+ * última respuesta con su versión y la envía como ifNoneMatch: si el servidor
+ * contesta 304 se reutilizan la respuesta y los resultados ya parseados. Un error
+ * del lector no se guarda: la respuesta sale de la caché y la siguiente lectura se
+ * pide entera.
+ *
+ * Cada llamante espera como mucho el plazo de su comando. Si vence, deja de esperar;
+ * cuando deja de esperar el último, la petición se abandona en SocketClient igual que
+ * una llamada síncrona vencida y su respuesta, si llega, se descarta.
+ */
+final class ReadCoalescer {
+    private static final Set<CommandType> CONDICIONALES =
+        EnumSet.of(CommandType.GET_HORARIO, CommandType.GET_ALUMNOS, CommandType.GET_PROFESORES);
+    private static final int MAX_CACHE = 64;
+
+    private static ReadCoalescer instance;
+
+    private final SocketClient socketClient;
+    private final Map<String, Lectura> enVuelo = new ConcurrentHashMap<>();
+    private final Map<String, Lectura> cache = new LinkedHashMap<String, Lectura>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Lectura> eldest) {
+            return size() > MAX_CACHE;
+        }
+    };
+
+    /**
+     * Convierte la respuesta del servidor en el resultado del servicio
+     * Cada lector debe ser una instancia estable: el resultado se comparte por lector
+     */
+    interface Lector<T> {
+        T leer(Response response) throws Exception;
+    }
+
+    ReadCoalescer(SocketClient socketClient) {
+        this.socketClient = socketClient;
+    }
+
+    static synchronized ReadCoalescer getInstance() {
+        if (instance == null) {
+            instance = new ReadCoalescer(SocketClient.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Envía la lectura o se une a una idéntica que ya esté en vuelo
+     * @return Resultado del lector; las listas se devuelven copiadas para cada llamante
+     */
+    <T> T leer(Request request, Lector<T> lector) throws Exception {
+        String clave = clave(request);
+        Lectura lectura;
+        while (true) {
+            Lectura nueva = new Lectura();
+            lectura = enVuelo.putIfAbsent(clave, nueva);
+            if (lectura == null) {
+                // Quien crea la lectura envía la petición; los demás esperan a nueva.respuesta
+                nueva.unirse();
+                enviar(clave, request, nueva);
+                lectura = nueva;
+                break;
+            }
+            if (lectura.unirse()) {
+                break;
+            }
+            // La abandonó su último llamante justo ahora: se lanza otra
+            enVuelo.remove(clave, lectura);
+        }
+        try {
+            lectura.esperar(socketClient.getDeadlineMillis(request.getAction()));
+        } catch (InterruptedIOException e) {
+            // Plazo vencido (SocketTimeoutException) o hilo interrumpido: la siguiente
+            // lectura idéntica sale de nuevo en lugar de unirse a esta
+            enVuelo.remove(clave, lectura);
+            if (lectura.dejar()) {
+                socketClient.abandonRequest(lectura.enviada, request.getAction(), e);
+            }
+            throw e;
+        }
+        lectura.dejar();
+        return lectura.como(lector);
+    }
+
+    private void enviar(String clave, Request request, Lectura nueva) {
+        Lectura guardada = prepararCondicional(clave, request);
+        nueva.enviada = socketClient.sendRequestAsync(request);
+        nueva.enviada.whenComplete((r, e) -> {
+            enVuelo.remove(clave, nueva);
+            if (e != null) {
+                nueva.respuesta.completeExceptionally(e);
+            } else {
+                completar(clave, request.getAction(), nueva, guardada, r);
+            }
+        });
+    }
+
+    /**
+     * Envía varias lecturas en un único BATCH aplicando las versiones guardadas
+     * @return Una lectura por petición, en el mismo orden
+     */
+    List<Lectura> leerLote(List<Request> requests) throws IOException {
+        List<String> claves = new ArrayList<>(requests.size());
+        List<Lectura> guardadas = new ArrayList<>(requests.size());
+        for (Request request : requests) {
+            String clave = clave(request);
+            claves.add(clave);
+            guardadas.add(prepararCondicional(clave, request));
+        }
+
+        List<Response> respuestas = socketClient.sendBatch(requests);
+        List<Lectura> lecturas = new ArrayList<>(respuestas.size());
+        for (int i = 0; i < respuestas.size(); i++) {
+            Lectura lectura = new Lectura();
+            completar(claves.get(i), requests.get(i).getAction(), lectura, guardadas.get(i), respuestas.get(i));
+            lecturas.add(lectura);
+        }
+        return lecturas;
+    }
+
+    /**
+     * Olvida las respuestas guardadas (al cerrar sesión)
+     */
+    void limpiar() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Si hay una respuesta guardada para la petición, adjunta su versión como ifNoneMatch
+     * @return La lectura guardada, o null
+     */
+    private Lectura prepararCondicional(String clave, Request request) {
+        if (!CONDICIONALES.contains(request.getAction())) {
+            return null;
+        }
+        Lectura guardada;
+        synchronized (cache) {
+            guardada = cache.get(clave);
+        }
+        if (guardada != null) {
+            request.setIfNoneMatch(guardada.version);
+        }
+        return guardada;
+    }
+
+    /**
+     * Completa una lectura: con 304 reutiliza la guardada; con datos versionados la guarda
+     */
+    private void completar(String clave, CommandType accion, Lectura lectura, Lectura guardada, Response response) {
+        if (guardada != null && response.isNotModified()) {
+            lectura.reutilizada = guardada;
+            lectura.respuesta.complete(guardada.respuesta.join());
+            return;
+        }
+        if (CONDICIONALES.contains(accion) && response.isSuccess() && response.getVersion() != null) {
+            lectura.version = response.getVersion();
+            lectura.coalescer = this;
+            lectura.clave = clave;
+            synchronized (cache) {
+                cache.put(clave, lectura);
+            }
+        }
+        lectura.respuesta.complete(response);
+    }
+
+    /**
+     * Clave de agrupación: acción + payload con las claves ordenadas
+     */
+    static String clave(Request request) {
+        StringBuilder sb = new StringBuilder(request.getAction().name()).append(' ');
+        canonico(request.getPayloadJson(), sb);
+        return sb.toString();
+    }
+
+    private static void canonico(JsonElement elemento, StringBuilder sb) {
+        if (elemento == null || elemento.isJsonNull()) {
+            sb.append("null");
+        } else if (elemento.isJsonObject()) {
+            Map<String, JsonElement> ordenado = new TreeMap<>();
+            for (Map.Entry<String, JsonElement> campo : elemento.getAsJsonObject().entrySet()) {
+                ordenado.put(campo.getKey(), campo.getValue());
+            }
+            sb.append('{');
+            boolean primero = true;
+            for (Map.Entry<String, JsonElement> campo : ordenado.entrySet()) {
+                if (!primero) {
+                    sb.append(',');
+                }
+                primero = false;
+                sb.append('"').append(campo.getKey()).append("\":");
+                canonico(campo.getValue(), sb);
+            }
+            sb.append('}');
+        } else if (elemento.isJsonArray()) {
+            JsonArray array = elemento.getAsJsonArray();
+            sb.append('[');
+            for (int i = 0; i < array.size(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                canonico(array.get(i), sb);
+            }
+            sb.append(']');
+        } else {
+            sb.append(elemento.toString());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T copiar(T resultado) {
+        if (resultado instanceof List) {
+            return (T) new ArrayList<>((List<?>) resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Respuesta de una lectura y los resultados ya parseados de ella, uno por lector
+     */
+    static class Lectura {
+        private final CompletableFuture<Response> respuesta = new CompletableFuture<>();
+        private final Map<Lector<?>, Object> resultados = new HashMap<>();
+        private volatile String version;
+        private volatile Lectura reutilizada; // lectura guardada cuando el servidor contestó 304
+        private volatile ReadCoalescer coalescer; // caché que la guarda, si está guardada
+        private volatile String clave;
+        private volatile CompletableFuture<Response> enviada; // petición en SocketClient
+        private int esperando; // llamantes que esperan la respuesta
+        private boolean abandonada;
+
+        /**
+         * Resultado del lector sobre esta respuesta; las listas se copian para cada llamante
+         * Si el lector falla, la respuesta deja de estar guardada: si no, cada 304 de la
+         * misma versión repetiría el error hasta que cambiaran los datos en el servidor
+         */
+        <T> T como(Lector<T> lector) throws Exception {
+            Response response = esperar();
+            Lectura fuente = reutilizada != null ? reutilizada : this;
+            try {
+                return copiar(fuente.resultado(lector, response));
+            } catch (Exception e) {
+                fuente.descartar();
+                throw e;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized <T> T resultado(Lector<T> lector, Response response) throws Exception {
+            if (!resultados.containsKey(lector)) {
+                resultados.put(lector, lector.leer(response));
+            }
+            return (T) resultados.get(lector);
+        }
+
+        /**
+         * Anota un llamante más
+         * @return false si la lectura ya se abandonó y hay que lanzar otra
+         */
+        private synchronized boolean unirse() {
+            if (abandonada) {
+                return false;
+            }
+            esperando++;
+            return true;
+        }
+
+        /**
+         * Anota que un llamante deja de esperar
+         * @return true si era el último y la respuesta no ha llegado: hay que abandonar la petición
+         */
+        private synchronized boolean dejar() {
+            esperando--;
+            if (esperando == 0 && !respuesta.isDone()) {
+                abandonada = true;
+            }
+            return abandonada;
+        }
+
+        /**
+         * Saca esta lectura de la caché; la siguiente se envía sin ifNoneMatch
+         */
+        private void descartar() {
+            ReadCoalescer dueno = coalescer;
+            if (dueno != null) {
+                synchronized (dueno.cache) {
+                    dueno.cache.remove(clave, this);
+                }
+            }
+        }
+
+        private Response esperar() throws IOException {
+            return esperar(0);
+        }
+
+        /**
+         * Espera la respuesta
+         * @param plazoMillis Tiempo máximo de espera (0 sin límite)
+         */
+        private Response esperar(long plazoMillis) throws IOException {
+            try {
+                return plazoMillis > 0 ? respuesta.get(plazoMillis, TimeUnit.MILLISECONDS) : respuesta.get();
+            } catch (TimeoutException e) {
+                throw new SocketTimeoutException("El servidor no ha respondido en " + plazoMillis + " ms");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException cancelada = new InterruptedIOException("Petición cancelada");
+                cancelada.initCause(e);
+                throw cancelada;
+            } catch (ExecutionException e) {
+                Throwable causa = e.getCause();
+                if (causa instanceof IOException) {
+                    throw (IOException) causa;
+                }
+                throw new IOException("Error en la comunicación con el servidor", causa);
+            }
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.elorrieta.elores.service;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
 
 import com.elorrieta.elores.model.Reunion;
@@ -11,25 +10,28 @@ import com.elorrieta.elores.network.SocketClient;
 import com.elorrieta.elores.protocol.CommandType;
 import com.elorrieta.elores.protocol.Request;
 import com.elorrieta.elores.protocol.Response;
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 
 /**
  * Servicio para gestionar reuniones del profesor
  */
 public class ReunionService {
     private static ReunionService instance;
-    private SocketClient socketClient;
-    private AuthService authService;
-    private Gson gson;
+    private final SocketClient socketClient;
+    private final AuthService authService;
+    private final ReunionStore reunionStore;
     
     private ReunionService() {
-        socketClient = SocketClient.getInstance();
-        authService = AuthService.getInstance();
-        gson = new Gson();
+        this(AuthService.getInstance());
+    }
+    
+    /**
+     * Servicio sobre la sesión indicada (la de la aplicación es getInstance)
+     */
+    public ReunionService(AuthService authService) {
+        this.authService = authService;
+        this.socketClient = authService.getSocketClient();
+        this.reunionStore = authService.getReunionStore();
     }
     
     public static synchronized ReunionService getInstance() {
@@ -50,39 +52,8 @@ public class ReunionService {
             throw new Exception("Usuario no autenticado");
         }
         
-        JsonObject payload = new JsonObject();
-        payload.addProperty("profesorId", usuario.getId());
-        
-        Request request = new Request(CommandType.GET_REUNIONES, payload);
-        Response response = socketClient.sendRequest(request);
-        
-        if (response.isSuccess()) {
-            String dataStr = response.getDataAsString();
-            if (dataStr != null && !dataStr.isEmpty() && !dataStr.equals("null")) {
-                try {
-                    JsonElement jsonElement = JsonParser.parseString(dataStr);
-                    
-                    if (jsonElement.isJsonArray()) {
-                        JsonArray reunionesArray = jsonElement.getAsJsonArray();
-                        List<Reunion> reuniones = new ArrayList<>();
-                        
-                        for (JsonElement element : reunionesArray) {
-                            Reunion reunion = parseReunion(element.getAsJsonObject());
-                            reuniones.add(reunion);
-                        }
-                        
-                        return reuniones;
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error parseando reuniones: " + e.getMessage());
-                    e.printStackTrace();
-                }
-            }
-            
-            return new ArrayList<>();
-        } else {
-            return new ArrayList<>();
-        }
+        // Incremental si el servidor lo admite: solo viajan los cambios desde la última vez
+        return reunionStore.leer(usuario.getId());
     }
     
     /**
@@ -172,68 +143,4 @@ public class ReunionService {
             throw new Exception(response.getMessage() != null ? response.getMessage() : "Error al eliminar reunión");
         }
     }
-    
-    /**
-     * Parsea un objeto JSON a Reunion
-     */
-    private Reunion parseReunion(JsonObject jsonObj) {
-        Reunion reunion = new Reunion();
-        
-        if (jsonObj.has("id_reunion")) {
-            reunion.setIdReunion(jsonObj.get("id_reunion").getAsInt());
-        } else if (jsonObj.has("idReunion")) {
-            reunion.setIdReunion(jsonObj.get("idReunion").getAsInt());
-        } else if (jsonObj.has("id")) {
-            reunion.setIdReunion(jsonObj.get("id").getAsInt());
-        }
-        
-        if (jsonObj.has("estado")) {
-            reunion.setEstado(jsonObj.get("estado").getAsString());
-        }
-        
-        if (jsonObj.has("profesor_id") && !jsonObj.get("profesor_id").isJsonNull()) {
-            reunion.setProfesorId(jsonObj.get("profesor_id").getAsInt());
-        } else if (jsonObj.has("profesorId") && !jsonObj.get("profesorId").isJsonNull()) {
-            reunion.setProfesorId(jsonObj.get("profesorId").getAsInt());
-        }
-        
-        if (jsonObj.has("alumno_id") && !jsonObj.get("alumno_id").isJsonNull()) {
-            reunion.setAlumnoId(jsonObj.get("alumno_id").getAsInt());
-        } else if (jsonObj.has("alumnoId") && !jsonObj.get("alumnoId").isJsonNull()) {
-            reunion.setAlumnoId(jsonObj.get("alumnoId").getAsInt());
-        }
-        
-        if (jsonObj.has("titulo") && !jsonObj.get("titulo").isJsonNull()) {
-            reunion.setTitulo(jsonObj.get("titulo").getAsString());
-        }
-        
-        if (jsonObj.has("asunto") && !jsonObj.get("asunto").isJsonNull()) {
-            reunion.setAsunto(jsonObj.get("asunto").getAsString());
-        }
-        
-        if (jsonObj.has("aula") && !jsonObj.get("aula").isJsonNull()) {
-            reunion.setAula(jsonObj.get("aula").getAsString());
-        }
-        
-        if (jsonObj.has("dia")) {
-            reunion.setDia(jsonObj.get("dia").getAsString());
-        } else if (jsonObj.has("diaSemana")) {
-            reunion.setDia(jsonObj.get("diaSemana").getAsString());
-        }
-        
-        if (jsonObj.has("hora")) {
-            reunion.setHora(jsonObj.get("hora").getAsInt());
-        }
-        
-        if (jsonObj.has("fecha") && !jsonObj.get("fecha").isJsonNull()) {
-            try {
-                String fechaStr = jsonObj.get("fecha").getAsString();
-                reunion.setFecha(LocalDateTime.parse(fechaStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-            } catch (Exception e) {
-                System.err.println("Error parseando fecha: " + e.getMessage());
-            }
-        }
-        
-        return reunion;
-    }
 }
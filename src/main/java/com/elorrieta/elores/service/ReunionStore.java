@@ -0,0 +1,146 @@
+package com.elorrieta.elores.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.elorrieta.elores.model.Reunion;
+import com.elorrieta.elores.network.SocketClient;
+import com.elorrieta.elores.protocol.CommandType;
+import com.elorrieta.elores.protocol.DeltaSync;
+import com.elorrieta.elores.protocol.Request;
+import com.google.gson.JsonObject;
+
+/**
+ * Copia local de las reuniones de cada profesor, indexada por idReunion
+ *
+ * Si el servidor entiende la sincronización incremental, GET_REUNIONES envía el
+ * cursor de la última sincronización y solo recibe las reuniones creadas,
+ * modificadas o borradas desde entonces, que se fusionan aquí.
+ */
+final class ReunionStore {
+    private static ReunionStore instance;
+
+    private final SocketClient socketClient;
+    private final ReadCoalescer coalescer;
+    private final Map<Integer, Estado> porProfesor = new HashMap<>();
+
+    /**
+     * Cambios recibidos en una respuesta incremental
+     */
+    static class Delta {
+        List<Reunion> cambiadas = new ArrayList<>();
+        List<Integer> eliminadas = new ArrayList<>();
+        String cursor;
+        boolean completa;
+    }
+
+    private static class Estado {
+        private final Map<Integer, Reunion> reuniones = new LinkedHashMap<>();
+        private String cursor;
+    }
+
+    ReunionStore(SocketClient socketClient, ReadCoalescer coalescer) {
+        this.socketClient = socketClient;
+        this.coalescer = coalescer;
+    }
+
+    static synchronized ReunionStore getInstance() {
+        if (instance == null) {
+            instance = new ReunionStore(SocketClient.getInstance(), ReadCoalescer.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Construye GET_REUNIONES para un profesor, con cursor si la conexión admite deltas
+     */
+    synchronized Request peticion(int profesorId) {
+        JsonObject payload = new JsonObject();
+        payload.addProperty("profesorId", profesorId);
+        if (socketClient.hasCapability(DeltaSync.CAPABILITY)) {
+            Estado estado = porProfesor.get(profesorId);
+            payload.addProperty(DeltaSync.SINCE, estado != null && estado.cursor != null ? estado.cursor : "");
+        }
+        return new Request(CommandType.GET_REUNIONES, payload);
+    }
+
+    /**
+     * Lee las reuniones de un profesor (agrupando lecturas idénticas en vuelo)
+     */
+    List<Reunion> leer(int profesorId) throws Exception {
+        Request peticion = peticion(profesorId);
+        if (esDelta(peticion)) {
+            return aplicar(profesorId, coalescer.leer(peticion, Lectores.REUNIONES_DELTA));
+        }
+        return coalescer.leer(peticion, Lectores.REUNIONES);
+    }
+
+    /**
+     * Obtiene las reuniones de una lectura hecha con una petición de peticion(profesorId), p. ej. dentro de un BATCH
+     */
+    List<Reunion> leer(int profesorId, Request peticion, ReadCoalescer.Lectura lectura) throws Exception {
+        if (esDelta(peticion)) {
+            return aplicar(profesorId, lectura.como(Lectores.REUNIONES_DELTA));
+        }
+        return lectura.como(Lectores.REUNIONES);
+    }
+
+    private static boolean esDelta(Request peticion) {
+        return peticion.getPayloadJson().has(DeltaSync.SINCE);
+    }
+
+    /**
+     * Fusiona un delta en la copia local
+     * @param delta Cambios recibidos, o null si la respuesta fue un error
+     * @return Reuniones del profesor, en el orden del servidor y las nuevas al final
+     */
+    synchronized List<Reunion> aplicar(int profesorId, Delta delta) {
+        Estado estado = porProfesor.computeIfAbsent(profesorId, k -> new Estado());
+        if (delta != null) {
+            if (delta.completa) {
+                estado.reuniones.clear();
+            }
+            for (Integer id : delta.eliminadas) {
+                estado.reuniones.remove(id);
+            }
+            for (Reunion reunion : delta.cambiadas) {
+                estado.reuniones.put(reunion.getIdReunion(), reunion);
+            }
+            estado.cursor = delta.cursor;
+        }
+        return copia(estado);
+    }
+
+    /**
+     * Aplica una reunión notificada por el servidor a la copia de su profesor, si existe
+     */
+    synchronized void actualizar(Reunion reunion) {
+        Estado estado = reunion.getProfesorId() != null ? porProfesor.get(reunion.getProfesorId()) : null;
+        if (estado != null) {
+            estado.reuniones.put(reunion.getIdReunion(), reunion);
+        }
+    }
+
+    /**
+     * Quita una reunión eliminada de todas las copias locales
+     */
+    synchronized void eliminar(int idReunion) {
+        for (Estado estado : porProfesor.values()) {
+            estado.reuniones.remove(idReunion);
+        }
+    }
+
+    /**
+     * Olvida todas las copias locales (al cerrar sesión)
+     */
+    synchronized void limpiar() {
+        porProfesor.clear();
+    }
+
+    private static List<Reunion> copia(Estado estado) {
+        return new ArrayList<>(estado.reuniones.values());
+    }
+}
@@ -0,0 +1,15 @@
+package com.elorrieta.elores.service;
+
+/**
+ * Recibe el fin de la sesión cuando no lo ha pedido el usuario
+ * Se invoca desde el hilo de reconexión: los paneles deben pasar a Swing con SwingUtilities.invokeLater
+ */
+public interface SessionListener {
+
+    /**
+     * El servidor ha rechazado la sesión al reanudarla tras una reconexión
+     * (token caducado o servidor reiniciado); hay que volver a iniciar sesión
+     * @param motivo Mensaje del servidor
+     */
+    void sesionTerminada(String motivo);
+}
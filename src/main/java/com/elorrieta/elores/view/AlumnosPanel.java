@@ -6,33 +6,32 @@ import javax.swing.border.TitledBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
 import java.net.URL;
 import javax.imageio.ImageIO;
 
 import com.elorrieta.elores.controller.NavigationController;
 import com.elorrieta.elores.model.Alumno;
 import com.elorrieta.elores.model.Usuario;
+import com.elorrieta.elores.protocol.Pagination;
 import com.elorrieta.elores.service.AlumnoService;
 import com.elorrieta.elores.service.AuthService;
 
 /**
  * Panel para consultar y gestionar alumnos (CU04-Consultar Alumnos)
  * Permite al profesor ver sus alumnos, filtrarlos y consultar sus perfiles
+ * La lista se pide por páginas según se desplaza; los filtros se aplican en el servidor
  */
 public class AlumnosPanel extends JPanel {
     private static final int PANEL_WIDTH = 600;
     private static final int PANEL_HEIGHT = 500;
+    // Columnas que pinta la lista; el detalle pide el registro completo al seleccionar
+    private static final String[] CAMPOS_LISTA = {"id", "nombre", "apellidos", "ciclo", "curso"};
     
     private AlumnoService alumnoService;
     private AuthService authService;
+    private final TareasPanel tareas = new TareasPanel();
     private NavigationController navigationController;
     
-    private List<Alumno> todosLosAlumnos;
-    private List<Alumno> alumnosFiltrados;
-    
     // Componentes UI
     private JLabel lblTitulo;
     private JComboBox<String> cboCiclo;
@@ -40,7 +39,7 @@ public class AlumnosPanel extends JPanel {
     private JButton btnFiltrar;
     private JButton btnLimpiarFiltros;
     private JList<Alumno> listAlumnos;
-    private DefaultListModel<Alumno> listModel;
+    private LazyListModel<Alumno> listModel;
     private JScrollPane scrollAlumnos;
     
     // Panel de detalles del alumno
@@ -59,11 +58,8 @@ public class AlumnosPanel extends JPanel {
         authService = AuthService.getInstance();
         navigationController = NavigationController.getInstance();
         
-        todosLosAlumnos = new ArrayList<>();
-        alumnosFiltrados = new ArrayList<>();
-        
         initComponents();
-        cargarAlumnos();
+        cargarAlumnos(null, null);
     }
 
     private void initComponents() {
@@ -131,10 +127,12 @@ public class AlumnosPanel extends JPanel {
         panelFiltros.add(btnLimpiarFiltros);
         
         // Lista de alumnos
-        listModel = new DefaultListModel<>();
-        listAlumnos = new JList<>(listModel);
+        listAlumnos = new JList<>();
         listAlumnos.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         listAlumnos.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        // Celdas de tamaño fijo: Swing solo consulta las filas visibles y la carga es perezosa
+        listAlumnos.setFixedCellHeight(22);
+        listAlumnos.setFixedCellWidth(220);
         listAlumnos.addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
                 mostrarDetallesAlumno();
@@ -206,52 +204,58 @@ public class AlumnosPanel extends JPanel {
     }
 
     /**
-     * Carga la lista de alumnos desde el servidor
+     * Carga la lista de alumnos desde el servidor, página a página
+     * @param ciclo Ciclo por el que filtrar, o null para todos
+     * @param curso Curso por el que filtrar, o null para todos
      */
-    private void cargarAlumnos() {
-        // Mostrar mensaje de carga
-        listModel.clear();
-        listModel.addElement(null); // Placeholder
+    private void cargarAlumnos(String ciclo, String curso) {
+        Usuario profesor = authService.getUsuarioActual();
+        if (profesor == null) {
+            JOptionPane.showMessageDialog(
+                this,
+                "Error al cargar alumnos: No hay usuario autenticado",
+                "Error",
+                JOptionPane.ERROR_MESSAGE
+            );
+            return;
+        }
         
-        SwingWorker<List<Alumno>, Void> worker = new SwingWorker<List<Alumno>, Void>() {
-            @Override
-            protected List<Alumno> doInBackground() throws Exception {
-                Usuario profesor = authService.getUsuarioActual();
-                if (profesor == null) {
-                    throw new Exception("No hay usuario autenticado");
-                }
-                return alumnoService.getAlumnos(profesor.getId());
-            }
-
+        if (listModel != null) {
+            listModel.cancelar();
+        }
+        listModel = new LazyListModel<>(
+            (cursor, limit) -> alumnoService.getPaginaAlumnos(profesor.getId(), ciclo, curso, cursor, limit, CAMPOS_LISTA),
+            Pagination.DEFAULT_LIMIT);
+        listModel.setOyente(new LazyListModel.Oyente() {
             @Override
-            protected void done() {
-                try {
-                    todosLosAlumnos = get();
-                    alumnosFiltrados = new ArrayList<>(todosLosAlumnos);
-                    actualizarListaAlumnos();
-                    
-                    if (todosLosAlumnos.isEmpty()) {
-                        JOptionPane.showMessageDialog(
-                            AlumnosPanel.this,
-                            "No se encontraron alumnos asociados a su cuenta",
-                            "Información",
-                            JOptionPane.INFORMATION_MESSAGE
-                        );
-                    }
-                } catch (Exception e) {
-                    listModel.clear();
+            public void paginaCargada(boolean primera) {
+                if (primera && listModel.getSize() == 0 && listModel.isCompleto()) {
+                    String mensaje = ciclo == null && curso == null
+                        ? "No se encontraron alumnos asociados a su cuenta"
+                        : "No se encontraron alumnos con los filtros aplicados";
                     JOptionPane.showMessageDialog(
                         AlumnosPanel.this,
-                        "Error al cargar alumnos: " + e.getMessage(),
-                        "Error",
-                        JOptionPane.ERROR_MESSAGE
+                        mensaje,
+                        "Información",
+                        JOptionPane.INFORMATION_MESSAGE
                     );
-                    e.printStackTrace();
                 }
             }
-        };
-        
-        worker.execute();
+            
+            @Override
+            public void errorCarga(Exception e) {
+                JOptionPane.showMessageDialog(
+                    AlumnosPanel.this,
+                    "Error al cargar alumnos: " + e.getMessage(),
+                    "Error",
+                    JOptionPane.ERROR_MESSAGE
+                );
+                e.printStackTrace();
+            }
+        });
+        listAlumnos.setModel(listModel);
+        limpiarDetalles();
+        listModel.cargar();
     }
 
     /**
@@ -261,26 +265,9 @@ public class AlumnosPanel extends JPanel {
         String cicloSeleccionado = (String) cboCiclo.getSelectedItem();
         String cursoSeleccionado = (String) cboCurso.getSelectedItem();
         
-        alumnosFiltrados = todosLosAlumnos.stream()
-            .filter(alumno -> {
-                boolean pasaCiclo = "Todos".equals(cicloSeleccionado) || 
-                                   cicloSeleccionado.equalsIgnoreCase(alumno.getCiclo());
-                boolean pasaCurso = "Todos".equals(cursoSeleccionado) || 
-                                   cursoSeleccionado.equalsIgnoreCase(alumno.getCurso());
-                return pasaCiclo && pasaCurso;
-            })
-            .collect(Collectors.toList());
-        
-        actualizarListaAlumnos();
-        
-        if (alumnosFiltrados.isEmpty()) {
-            JOptionPane.showMessageDialog(
-                this,
-                "No se encontraron alumnos con los filtros aplicados",
-                "Información",
-                JOptionPane.INFORMATION_MESSAGE
-            );
-        }
+        cargarAlumnos(
+            "Todos".equals(cicloSeleccionado) ? null : cicloSeleccionado,
+            "Todos".equals(cursoSeleccionado) ? null : cursoSeleccionado);
     }
 
     /**
@@ -289,19 +276,16 @@ public class AlumnosPanel extends JPanel {
     private void limpiarFiltros() {
         cboCiclo.setSelectedIndex(0);
         cboCurso.setSelectedIndex(0);
-        alumnosFiltrados = new ArrayList<>(todosLosAlumnos);
-        actualizarListaAlumnos();
+        cargarAlumnos(null, null);
     }
-
-    /**
-     * Actualiza la lista visual de alumnos
-     */
-    private void actualizarListaAlumnos() {
-        listModel.clear();
-        for (Alumno alumno : alumnosFiltrados) {
-            listModel.addElement(alumno);
+    
+    @Override
+    public void removeNotify() {
+        if (listModel != null) {
+            listModel.cancelar();
         }
-        limpiarDetalles();
+        tareas.cancelarTodas();
+        super.removeNotify();
     }
 
     /**
@@ -327,15 +311,42 @@ public class AlumnosPanel extends JPanel {
             return;
         }
         
-        // Actualizar etiquetas con la información
-        lblNombreDetalle.setText("Nombre: " + (alumnoSeleccionado.getNombre() != null ? alumnoSeleccionado.getNombre() : "-"));
-        lblApellidosDetalle.setText("Apellidos: " + (alumnoSeleccionado.getApellidos() != null ? alumnoSeleccionado.getApellidos() : "-"));
-        lblEmailDetalle.setText("Email: " + (alumnoSeleccionado.getEmail() != null ? alumnoSeleccionado.getEmail() : "-"));
-        lblCicloDetalle.setText("Ciclo: " + (alumnoSeleccionado.getCiclo() != null ? alumnoSeleccionado.getCiclo() : "-"));
-        lblCursoDetalle.setText("Curso: " + (alumnoSeleccionado.getCurso() != null ? alumnoSeleccionado.getCurso() : "-"));
+        // Mostrar ya lo que trae la lista y pedir el registro completo (email, foto...)
+        mostrarAlumno(alumnoSeleccionado);
+        
+        SwingWorker<Alumno, Void> worker = new SwingWorker<Alumno, Void>() {
+            @Override
+            protected Alumno doInBackground() throws Exception {
+                return alumnoService.getAlumno(alumnoSeleccionado.getId());
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || listAlumnos.getSelectedValue() != alumnoSeleccionado) {
+                    return; // se ha salido del panel o la selección ha cambiado mientras tanto
+                }
+                try {
+                    Alumno completo = get();
+                    mostrarAlumno(completo);
+                    cargarFotoAlumno(completo);
+                } catch (Exception e) {
+                    System.err.println("Error cargando detalle del alumno: " + e.getMessage());
+                }
+            }
+        };
         
-        // Cargar foto si existe
-        cargarFotoAlumno(alumnoSeleccionado);
+        tareas.ejecutar(worker);
+    }
+
+    /**
+     * Rellena las etiquetas del panel de detalles
+     */
+    private void mostrarAlumno(Alumno alumno) {
+        lblNombreDetalle.setText("Nombre: " + (alumno.getNombre() != null ? alumno.getNombre() : "-"));
+        lblApellidosDetalle.setText("Apellidos: " + (alumno.getApellidos() != null ? alumno.getApellidos() : "-"));
+        lblEmailDetalle.setText("Email: " + (alumno.getEmail() != null ? alumno.getEmail() : "-"));
+        lblCicloDetalle.setText("Ciclo: " + (alumno.getCiclo() != null ? alumno.getCiclo() : "-"));
+        lblCursoDetalle.setText("Curso: " + (alumno.getCurso() != null ? alumno.getCurso() : "-"));
     }
 
     /**
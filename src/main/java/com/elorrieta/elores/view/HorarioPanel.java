@@ -4,16 +4,22 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.elorrieta.elores.controller.NavigationController;
 import com.elorrieta.elores.model.Horario;
+import com.elorrieta.elores.model.HorarioSemanal;
+import com.elorrieta.elores.model.Pagina;
 import com.elorrieta.elores.model.Reunion;
 import com.elorrieta.elores.model.Usuario;
+import com.elorrieta.elores.protocol.Pagination;
 import com.elorrieta.elores.service.AuthService;
 import com.elorrieta.elores.service.HorarioService;
+import com.elorrieta.elores.service.NotificationListener;
+import com.elorrieta.elores.service.NotificationService;
 
 /**
  * Panel para consultar el horario del profesor (CU05)
@@ -23,6 +29,8 @@ import com.elorrieta.elores.service.HorarioService;
 public class HorarioPanel extends JPanel {
     private static final String[] DIAS = {"LUNES", "MARTES", "MIERCOLES", "JUEVES", "VIERNES"};
     private static final int HORAS = 6;
+    // El combo solo muestra el nombre del profesor
+    private static final String[] CAMPOS_PROFESOR = {"id", "nombre", "apellidos"};
     
     // Colores según estado de reunión
     private static final Color COLOR_CONFLICTO = new Color(169, 169, 169); // Gris
@@ -36,15 +44,40 @@ public class HorarioPanel extends JPanel {
     
     private HorarioService horarioService;
     private AuthService authService;
+    private final TareasPanel tareas = new TareasPanel();
     private NavigationController navigationController;
     private JPanel panelHorario;
     private JButton btnVolver;
     private JLabel lblTitulo;
     private JComboBox<ProfesorItem> cmbProfesores;
-    private List<Usuario> listaProfesores;
+    private LazyListModel<ProfesorItem> modeloProfesores;
+    private boolean poblandoCombo;
     
     // Almacenar las celdas del horario para poder actualizarlas
     private Map<String, JPanel> celdasHorario;
+    
+    // Recarga el horario mostrado cuando el servidor avisa de un cambio que le afecta
+    private final NotificationListener notificaciones = new NotificationListener() {
+        @Override
+        public void reunionActualizada(Reunion reunion) {
+            if (reunion.getProfesorId() != null) {
+                recargarSiVisible(reunion.getProfesorId());
+            }
+        }
+        
+        @Override
+        public void reunionEliminada(int idReunion) {
+            Usuario usuario = authService.getUsuarioActual();
+            if (usuario != null) {
+                recargarSiVisible(usuario.getId());
+            }
+        }
+        
+        @Override
+        public void horarioActualizado(int profesorId) {
+            recargarSiVisible(profesorId);
+        }
+    };
 
     public HorarioPanel() {
         horarioService = HorarioService.getInstance();
@@ -94,7 +127,12 @@ public class HorarioPanel extends JPanel {
         cmbProfesores = new JComboBox<>();
         cmbProfesores.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         cmbProfesores.setPreferredSize(new Dimension(250, 30));
+        // Con un prototipo el combo no recorre todos los elementos para medirse
+        cmbProfesores.setPrototypeDisplayValue(new ProfesorItem(0, "XXXXXXXXXXXXXXXXXXXXXXXX"));
         cmbProfesores.addActionListener(e -> {
+            if (poblandoCombo) {
+                return;
+            }
             ProfesorItem selectedItem = (ProfesorItem) cmbProfesores.getSelectedItem();
             if (selectedItem != null) {
                 cargarHorarioProfesor(selectedItem.getId());
@@ -126,16 +164,26 @@ public class HorarioPanel extends JPanel {
     }
     
     /**
-     * Carga la lista de profesores desde el servidor
+     * Carga la primera página de profesores y el horario del usuario actual
+     * Ambas cosas viajan en una única petición BATCH; el resto de profesores se
+     * pide por páginas al desplegar y desplazar el combo
      */
     private void cargarListaProfesores() {
+        Usuario usuarioActual = authService.getUsuarioActual();
+        if (usuarioActual == null) {
+            return;
+        }
+        
+        lblTitulo.setText("📅 Cargando horario...");
+        
         SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
+            private HorarioSemanal semanal;
             private String errorMessage;
             
             @Override
             protected Void doInBackground() throws Exception {
                 try {
-                    listaProfesores = horarioService.getListaProfesores();
+                    semanal = horarioService.getHorarioSemanal(usuarioActual.getId(), true, CAMPOS_PROFESOR);
                 } catch (Exception e) {
                     errorMessage = e.getMessage();
                     System.err.println("Error cargando lista de profesores: " + e.getMessage());
@@ -146,6 +194,11 @@ public class HorarioPanel extends JPanel {
             
             @Override
             protected void done() {
+                if (isCancelled()) {
+                    return; // se ha salido del panel
+                }
+                lblTitulo.setText("📅 Horario Semanal");
+                
                 if (errorMessage != null) {
                     JOptionPane.showMessageDialog(HorarioPanel.this,
                         "Error al cargar la lista de profesores:\n" + errorMessage,
@@ -154,30 +207,30 @@ public class HorarioPanel extends JPanel {
                     return;
                 }
                 
-                if (listaProfesores != null && !listaProfesores.isEmpty()) {
-                    // Poblar el ComboBox con los profesores
-                    for (Usuario profesor : listaProfesores) {
-                        String nombre = profesor.getNombre() + " " + 
-                                      (profesor.getApellidos() != null ? profesor.getApellidos() : "");
-                        cmbProfesores.addItem(new ProfesorItem(profesor.getId(), nombre.trim()));
-                    }
-                    
-                    // Seleccionar el profesor actual por defecto
-                    Usuario usuarioActual = authService.getUsuarioActual();
-                    if (usuarioActual != null) {
-                        for (int i = 0; i < cmbProfesores.getItemCount(); i++) {
-                            ProfesorItem item = cmbProfesores.getItemAt(i);
-                            if (item.getId() == usuarioActual.getId()) {
-                                cmbProfesores.setSelectedIndex(i);
-                                break;
-                            }
+                // El horario del usuario actual ya llegó en el mismo BATCH; se muestra
+                // aunque la lista de profesores venga vacía
+                mostrarHorarioSemanal(semanal.getHorarios(), semanal.getReuniones());
+                
+                Pagina<Usuario> primera = semanal.getProfesores();
+                if (primera != null && primera.getItems() != null && !primera.getItems().isEmpty()) {
+                    modeloProfesores = new LazyListModel<>(
+                        (cursor, limit) -> aItems(horarioService.getPaginaProfesores(cursor, limit, CAMPOS_PROFESOR)),
+                        Pagination.DEFAULT_LIMIT);
+                    modeloProfesores.setOyente(new LazyListModel.Oyente() {
+                        @Override
+                        public void errorCarga(Exception e) {
+                            System.err.println("Error cargando más profesores: " + e.getMessage());
                         }
-                    }
+                    });
+                    modeloProfesores.iniciarCon(aItems(primera));
                     
-                    // Si no se disparó el evento de selección, cargar el primer horario
-                    if (cmbProfesores.getSelectedItem() != null) {
-                        ProfesorItem selectedItem = (ProfesorItem) cmbProfesores.getSelectedItem();
-                        cargarHorarioProfesor(selectedItem.getId());
+                    // Seleccionar el profesor actual por defecto, aunque no esté en la primera página
+                    poblandoCombo = true;
+                    try {
+                        modeloProfesores.setSelectedItem(crearItem(usuarioActual));
+                        cmbProfesores.setModel(modeloProfesores);
+                    } finally {
+                        poblandoCombo = false;
                     }
                 } else {
                     JOptionPane.showMessageDialog(HorarioPanel.this,
@@ -188,7 +241,23 @@ public class HorarioPanel extends JPanel {
             }
         };
         
-        worker.execute();
+        tareas.ejecutar(worker);
+    }
+    
+    private static Pagina<ProfesorItem> aItems(Pagina<Usuario> pagina) {
+        List<ProfesorItem> items = new ArrayList<>();
+        if (pagina.getItems() != null) {
+            for (Usuario profesor : pagina.getItems()) {
+                items.add(crearItem(profesor));
+            }
+        }
+        return new Pagina<>(items, pagina.getNextCursor());
+    }
+    
+    private static ProfesorItem crearItem(Usuario profesor) {
+        String nombre = profesor.getNombre() + " " + 
+                      (profesor.getApellidos() != null ? profesor.getApellidos() : "");
+        return new ProfesorItem(profesor.getId(), nombre.trim());
     }
     
     /**
@@ -267,6 +336,34 @@ public class HorarioPanel extends JPanel {
         return celda;
     }
     
+    /**
+     * Vuelve a cargar el horario si es el del profesor seleccionado
+     */
+    private void recargarSiVisible(int profesorId) {
+        SwingUtilities.invokeLater(() -> {
+            ProfesorItem seleccionado = (ProfesorItem) cmbProfesores.getSelectedItem();
+            if (seleccionado != null && seleccionado.getId() == profesorId) {
+                cargarHorarioProfesor(profesorId);
+            }
+        });
+    }
+    
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        NotificationService.getInstance().addListener(notificaciones);
+    }
+    
+    @Override
+    public void removeNotify() {
+        NotificationService.getInstance().removeListener(notificaciones);
+        tareas.cancelarTodas();
+        if (modeloProfesores != null) {
+            modeloProfesores.cancelar();
+        }
+        super.removeNotify();
+    }
+    
     /**
      * Carga el horario de un profesor específico
      */
@@ -281,16 +378,14 @@ public class HorarioPanel extends JPanel {
         
         // Cargar en segundo plano
         SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
-            private List<Horario> horarios;
-            private List<Reunion> reuniones;
+            private HorarioSemanal semanal;
             private String errorMessage;
             
             @Override
             protected Void doInBackground() throws Exception {
                 try {
-                    // Obtener horario y reuniones del profesor seleccionado
-                    horarios = horarioService.getHorarioProfesorPorId(profesorId);
-                    reuniones = horarioService.getReunionesProfesorPorId(profesorId);
+                    // Horario y reuniones del profesor seleccionado en un solo viaje
+                    semanal = horarioService.getHorarioSemanal(profesorId, false);
                 } catch (Exception e) {
                     errorMessage = e.getMessage();
                     System.err.println("Error cargando horario: " + e.getMessage());
@@ -301,6 +396,9 @@ public class HorarioPanel extends JPanel {
             
             @Override
             protected void done() {
+                if (isCancelled()) {
+                    return; // se ha salido del panel
+                }
                 lblTitulo.setText("📅 Horario Semanal");
                 
                 if (errorMessage != null) {
@@ -312,30 +410,37 @@ public class HorarioPanel extends JPanel {
                     return;
                 }
                 
-                if (horarios == null || horarios.isEmpty()) {
-                    // No hay horario disponible
-                    JOptionPane.showMessageDialog(HorarioPanel.this,
-                        "No hay horario disponible para este profesor.",
-                        "Información",
-                        JOptionPane.INFORMATION_MESSAGE);
-                    return;
-                }
-                
-                // Mostrar horarios
-                for (Horario horario : horarios) {
-                    mostrarHorarioEnCelda(horario);
-                }
-                
-                // Mostrar reuniones
-                if (reuniones != null) {
-                    for (Reunion reunion : reuniones) {
-                        mostrarReunionEnCelda(reunion);
-                    }
-                }
+                mostrarHorarioSemanal(semanal.getHorarios(), semanal.getReuniones());
             }
         };
         
-        worker.execute();
+        tareas.ejecutar(worker);
+    }
+    
+    /**
+     * Pinta horarios y reuniones sobre la rejilla
+     */
+    private void mostrarHorarioSemanal(List<Horario> horarios, List<Reunion> reuniones) {
+        if (horarios == null || horarios.isEmpty()) {
+            // No hay horario disponible
+            JOptionPane.showMessageDialog(HorarioPanel.this,
+                "No hay horario disponible para este profesor.",
+                "Información",
+                JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        
+        // Mostrar horarios
+        for (Horario horario : horarios) {
+            mostrarHorarioEnCelda(horario);
+        }
+        
+        // Mostrar reuniones
+        if (reuniones != null) {
+            for (Reunion reunion : reuniones) {
+                mostrarReunionEnCelda(reunion);
+            }
+        }
     }
     
     /**
@@ -547,6 +652,16 @@ public class HorarioPanel extends JPanel {
             return id;
         }
         
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ProfesorItem && ((ProfesorItem) o).id == id;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Integer.hashCode(id);
+        }
+        
         @Override
         public String toString() {
             return nombre;
@@ -0,0 +1,169 @@
+package com.elorrieta.elores.view;
+
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+import javax.swing.SwingWorker;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.elorrieta.elores.model.Pagina;
+
+/**
+ * Modelo de lista (y de ComboBox) que pide las páginas al servidor según se necesitan
+ *
+ * Solo se carga la primera página al crearlo; la siguiente se pide en segundo plano
+ * cuando la vista solicita un elemento cercano al final de lo ya cargado, es decir,
+ * cuando el usuario se desplaza hacia abajo. La JList o el JComboBox deben tener un
+ * valor prototipo o alto de celda fijo, para que Swing solo consulte las filas visibles.
+ *
+ * Se usa solo desde el hilo de Swing.
+ * @param <T> Tipo de los elementos
+ */
+public class LazyListModel<T> extends AbstractListModel<T> implements ComboBoxModel<T> {
+    // Filas antes del final a partir de las que se pide la siguiente página
+    private static final int MARGEN = 10;
+
+    /**
+     * Origen de las páginas; se llama fuera del hilo de Swing
+     */
+    public interface Fuente<T> {
+        Pagina<T> cargar(String cursor, int limit) throws Exception;
+    }
+
+    /**
+     * Avisos de carga para la vista (hilo de Swing)
+     */
+    public interface Oyente {
+        default void paginaCargada(boolean primera) {
+        }
+
+        default void errorCarga(Exception e) {
+        }
+    }
+
+    private final Fuente<T> fuente;
+    private final int tamPagina;
+    private final List<T> items = new ArrayList<>();
+    private String siguienteCursor;
+    private boolean completo;
+    private boolean primeraCargada;
+    private SwingWorker<Pagina<T>, Void> cargando;
+    private Oyente oyente = new Oyente() {};
+    private Object seleccionado;
+
+    public LazyListModel(Fuente<T> fuente, int tamPagina) {
+        this.fuente = fuente;
+        this.tamPagina = tamPagina;
+    }
+
+    public void setOyente(Oyente oyente) {
+        this.oyente = oyente;
+    }
+
+    /**
+     * Pide la primera página en segundo plano
+     */
+    public void cargar() {
+        cargarSiguiente();
+    }
+
+    /**
+     * Usa como primera página una ya recibida (por ejemplo dentro de un BATCH)
+     */
+    public void iniciarCon(Pagina<T> pagina) {
+        anadir(pagina);
+    }
+
+    /**
+     * Descarta la carga en curso interrumpiendo su llamada; el modelo deja de pedir páginas
+     */
+    public void cancelar() {
+        completo = true;
+        if (cargando != null) {
+            cargando.cancel(true);
+            cargando = null;
+        }
+    }
+
+    /**
+     * Indica si ya no quedan páginas por pedir
+     */
+    public boolean isCompleto() {
+        return completo;
+    }
+
+    @Override
+    public int getSize() {
+        return items.size();
+    }
+
+    @Override
+    public T getElementAt(int index) {
+        if (index >= items.size() - MARGEN) {
+            cargarSiguiente();
+        }
+        return items.get(index);
+    }
+
+    @Override
+    public void setSelectedItem(Object item) {
+        if (seleccionado == null ? item != null : !seleccionado.equals(item)) {
+            seleccionado = item;
+            fireContentsChanged(this, -1, -1);
+        }
+    }
+
+    @Override
+    public Object getSelectedItem() {
+        return seleccionado;
+    }
+
+    private void cargarSiguiente() {
+        if (completo || cargando != null) {
+            return;
+        }
+        String cursor = siguienteCursor;
+        SwingWorker<Pagina<T>, Void> worker = new SwingWorker<Pagina<T>, Void>() {
+            @Override
+            protected Pagina<T> doInBackground() throws Exception {
+                return fuente.cargar(cursor, tamPagina);
+            }
+
+            @Override
+            protected void done() {
+                if (cargando != this) {
+                    return; // cancelada
+                }
+                cargando = null;
+                try {
+                    anadir(get());
+                } catch (Exception e) {
+                    // No se reintenta solo: evita un bucle de peticiones fallidas al repintar
+                    completo = true;
+                    Throwable causa = e.getCause() instanceof Exception ? e.getCause() : e;
+                    oyente.errorCarga((Exception) causa);
+                }
+            }
+        };
+        cargando = worker;
+        worker.execute();
+    }
+
+    private void anadir(Pagina<T> pagina) {
+        boolean primera = !primeraCargada;
+        primeraCargada = true;
+        siguienteCursor = pagina.getNextCursor();
+        completo = !pagina.hayMas();
+
+        List<T> nuevos = pagina.getItems();
+        if (nuevos != null && !nuevos.isEmpty()) {
+            int inicio = items.size();
+            items.addAll(nuevos);
+            fireIntervalAdded(this, inicio, items.size() - 1);
+        }
+        oyente.paginaCargada(primera);
+        if ((nuevos == null || nuevos.isEmpty()) && !completo) {
+            cargarSiguiente(); // página vacía con más detrás (p. ej. por filtros)
+        }
+    }
+}
@@ -13,8 +13,11 @@ import java.util.List;
 import com.elorrieta.elores.controller.NavigationController;
 import com.elorrieta.elores.model.Alumno;
 import com.elorrieta.elores.model.Reunion;
+import com.elorrieta.elores.model.Usuario;
 import com.elorrieta.elores.service.AlumnoService;
 import com.elorrieta.elores.service.AuthService;
+import com.elorrieta.elores.service.NotificationListener;
+import com.elorrieta.elores.service.NotificationService;
 import com.elorrieta.elores.service.ReunionService;
 
 /**
@@ -32,6 +35,8 @@ public class ReunionesPanel extends JPanel {
     private ReunionService reunionService;
     private AlumnoService alumnoService;
     private AuthService authService;
+    private NotificationService notificationService;
+    private final TareasPanel tareas = new TareasPanel();
     private NavigationController navigationController;
     
     // Componentes de la interfaz
@@ -55,12 +60,29 @@ public class ReunionesPanel extends JPanel {
     private JButton btnVerMapa;
     
     private Reunion reunionSeleccionada;
+    
+    // Cambios de reuniones que envía el servidor mientras el panel está visible
+    private final NotificationListener notificaciones = new NotificationListener() {
+        @Override
+        public void reunionActualizada(Reunion reunion) {
+            Usuario usuario = authService.getUsuarioActual();
+            if (usuario != null && reunion.getProfesorId() != null && reunion.getProfesorId() == usuario.getId()) {
+                SwingUtilities.invokeLater(() -> aplicarReunionNotificada(reunion));
+            }
+        }
+        
+        @Override
+        public void reunionEliminada(int idReunion) {
+            SwingUtilities.invokeLater(() -> quitarReunionNotificada(idReunion));
+        }
+    };
     private List<Alumno> listaAlumnos;
 
     public ReunionesPanel() {
         reunionService = ReunionService.getInstance();
         alumnoService = AlumnoService.getInstance();
         authService = AuthService.getInstance();
+        notificationService = NotificationService.getInstance();
         navigationController = NavigationController.getInstance();
         
         initComponents();
@@ -282,6 +304,9 @@ public class ReunionesPanel extends JPanel {
             
             @Override
             protected void done() {
+                if (isCancelled()) {
+                    return; // se ha salido del panel
+                }
                 if (errorMessage != null) {
                     JOptionPane.showMessageDialog(ReunionesPanel.this,
                         "Error al cargar reuniones:\n" + errorMessage,
@@ -295,25 +320,7 @@ public class ReunionesPanel extends JPanel {
                 
                 if (reuniones != null && !reuniones.isEmpty()) {
                     for (Reunion reunion : reuniones) {
-                        String alumnoNombre = obtenerNombreAlumno(reunion.getAlumnoId());
-                        String fechaStr = reunion.getFecha() != null 
-                            ? reunion.getFecha().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))
-                            : reunion.getDia();
-                        String horaStr = reunion.getHora() > 0 
-                            ? String.valueOf(reunion.getHora())
-                            : reunion.getFecha() != null 
-                                ? reunion.getFecha().format(DateTimeFormatter.ofPattern("HH:mm"))
-                                : "-";
-                        
-                        tableModel.addRow(new Object[]{
-                            reunion.getIdReunion(),
-                            reunion.getTitulo() != null ? reunion.getTitulo() : "Sin título",
-                            alumnoNombre,
-                            fechaStr,
-                            horaStr,
-                            reunion.getAula() != null ? reunion.getAula() : "-",
-                            reunion.getEstado()
-                        });
+                        tableModel.addRow(filaReunion(reunion));
                     }
                 } else {
                     JOptionPane.showMessageDialog(ReunionesPanel.this,
@@ -324,7 +331,90 @@ public class ReunionesPanel extends JPanel {
             }
         };
         
-        worker.execute();
+        tareas.ejecutar(worker);
+    }
+    
+    /**
+     * Valores de la fila de la tabla para una reunión
+     */
+    private Object[] filaReunion(Reunion reunion) {
+        String alumnoNombre = obtenerNombreAlumno(reunion.getAlumnoId());
+        String fechaStr = reunion.getFecha() != null 
+            ? reunion.getFecha().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))
+            : reunion.getDia();
+        String horaStr = reunion.getHora() > 0 
+            ? String.valueOf(reunion.getHora())
+            : reunion.getFecha() != null 
+                ? reunion.getFecha().format(DateTimeFormatter.ofPattern("HH:mm"))
+                : "-";
+        
+        return new Object[]{
+            reunion.getIdReunion(),
+            reunion.getTitulo() != null ? reunion.getTitulo() : "Sin título",
+            alumnoNombre,
+            fechaStr,
+            horaStr,
+            reunion.getAula() != null ? reunion.getAula() : "-",
+            reunion.getEstado()
+        };
+    }
+    
+    /**
+     * Fila de la tabla con la reunión indicada, o -1
+     */
+    private int buscarFila(int reunionId) {
+        for (int i = 0; i < tableModel.getRowCount(); i++) {
+            if ((int) tableModel.getValueAt(i, 0) == reunionId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Aplica a la tabla una reunión notificada por el servidor (hilo de Swing)
+     */
+    private void aplicarReunionNotificada(Reunion reunion) {
+        Object[] fila = filaReunion(reunion);
+        int indice = buscarFila(reunion.getIdReunion());
+        if (indice < 0) {
+            tableModel.addRow(fila);
+        } else {
+            for (int col = 0; col < fila.length; col++) {
+                tableModel.setValueAt(fila[col], indice, col);
+            }
+        }
+        
+        if (reunionSeleccionada != null && reunionSeleccionada.getIdReunion() == reunion.getIdReunion()) {
+            reunionSeleccionada = reunion;
+            actualizarPanelDetalles();
+        }
+    }
+    
+    /**
+     * Quita de la tabla una reunión eliminada en el servidor (hilo de Swing)
+     */
+    private void quitarReunionNotificada(int reunionId) {
+        int indice = buscarFila(reunionId);
+        if (indice >= 0) {
+            tableModel.removeRow(indice);
+        }
+        if (reunionSeleccionada != null && reunionSeleccionada.getIdReunion() == reunionId) {
+            reunionSeleccionada = null;
+        }
+    }
+    
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        notificationService.addListener(notificaciones);
+    }
+    
+    @Override
+    public void removeNotify() {
+        notificationService.removeListener(notificaciones);
+        tareas.cancelarTodas();
+        super.removeNotify();
     }
     
     private void cargarAlumnos() {
@@ -332,7 +422,7 @@ public class ReunionesPanel extends JPanel {
             @Override
             protected Void doInBackground() throws Exception {
                 try {
-                    listaAlumnos = alumnoService.getAlumnos(authService.getUsuarioActual().getId());
+                    listaAlumnos = alumnoService.getAlumnos(authService.getUsuarioActual().getId(), "id", "nombre", "apellidos");
                 } catch (Exception e) {
                     System.err.println("Error cargando alumnos: " + e.getMessage());
                 }
@@ -340,7 +430,7 @@ public class ReunionesPanel extends JPanel {
             }
         };
         
-        worker.execute();
+        tareas.ejecutar(worker);
     }
     
     private String obtenerNombreAlumno(Integer alumnoId) {
@@ -377,7 +467,7 @@ public class ReunionesPanel extends JPanel {
             
             @Override
             protected void done() {
-                if (reuniones != null) {
+                if (!isCancelled() && reuniones != null) {
                     for (Reunion reunion : reuniones) {
                         if (reunion.getIdReunion() == reunionId) {
                             reunionSeleccionada = reunion;
@@ -389,7 +479,7 @@ public class ReunionesPanel extends JPanel {
             }
         };
         
-        worker.execute();
+        tareas.ejecutar(worker);
     }
     
     private void actualizarPanelDetalles() {
@@ -0,0 +1,39 @@
+package com.elorrieta.elores.view;
+
+import javax.swing.SwingWorker;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cargas en segundo plano de un panel, para cancelarlas cuando se sale de él
+ *
+ * Al cancelar se interrumpe el hilo del worker: la llamada al servidor deja de
+ * esperar (su respuesta se descartará al llegar) y el hilo vuelve al pool de
+ * SwingWorker en lugar de quedarse bloqueado. Se usa solo desde el hilo de Swing.
+ */
+class TareasPanel {
+    private final List<SwingWorker<?, ?>> enCurso = new ArrayList<>();
+
+    /**
+     * Lanza el worker y lo anota hasta que termine
+     */
+    void ejecutar(SwingWorker<?, ?> worker) {
+        enCurso.add(worker);
+        worker.addPropertyChangeListener(e -> {
+            if ("state".equals(e.getPropertyName()) && e.getNewValue() == SwingWorker.StateValue.DONE) {
+                enCurso.remove(worker);
+            }
+        });
+        worker.execute();
+    }
+
+    /**
+     * Cancela todas las cargas en curso; su done() debe comprobar isCancelled()
+     */
+    void cancelarTodas() {
+        for (SwingWorker<?, ?> worker : new ArrayList<>(enCurso)) {
+            worker.cancel(true);
+        }
+        enCurso.clear();
+    }
+}